@@ -0,0 +1,106 @@
+package ua.company.myroniuk.benchmark;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.parser.impl.InstructionMessageParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkMessages {
+
+    private static final String MESSAGE_FORMAT = "InstructionMessage %s %s %d %d %s\n";
+
+    private static final String TIMESTAMP = "2015-03-05T10:04:56.012Z";
+
+    private static final String FUTURE_TIMESTAMP = "2999-03-05T10:04:56.012Z";
+
+    private static final String[] UNPARSABLE_MESSAGES = {
+            "Header A MZ89 5678 50 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage A MZ89 5678 50 2015/03/05T10:04:56.012Z\n",
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z"
+    };
+
+    private static final long SEED = 42;
+
+    private BenchmarkMessages() {
+    }
+
+    /**
+     * Returns raw messages in which roughly {@code invalidPercent} percent are broken, half of them
+     * failing to parse and half of them parsing but failing validation.
+     */
+    static String[] raw(int size, int invalidPercent) {
+        Random random = new Random(SEED);
+        String[] messages = new String[size];
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(100) >= invalidPercent) {
+                messages[i] = validMessage(random);
+            } else if (random.nextBoolean()) {
+                messages[i] = UNPARSABLE_MESSAGES[random.nextInt(UNPARSABLE_MESSAGES.length)];
+            } else {
+                messages[i] = invalidMessage(random);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Returns parsed messages in which roughly {@code invalidPercent} percent fail validation.
+     */
+    static InstructionMessage[] parsed(int size, int invalidPercent) {
+        Random random = new Random(SEED);
+        InstructionMessageParser parser = new InstructionMessageParser();
+        InstructionMessage[] messages = new InstructionMessage[size];
+        for (int i = 0; i < size; i++) {
+            String message = random.nextInt(100) >= invalidPercent ? validMessage(random) : invalidMessage(random);
+            messages[i] = parser.parse(message);
+        }
+        return messages;
+    }
+
+    static InstructionMessage[] valid(int size) {
+        return parsed(size, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String>[] batches(String[] messages, int batchSize) {
+        List<String>[] batches = new List[messages.length / batchSize];
+        for (int i = 0; i < batches.length; i++) {
+            batches[i] = new ArrayList<>(Arrays.asList(messages).subList(i * batchSize, (i + 1) * batchSize));
+        }
+        return batches;
+    }
+
+    private static String validMessage(Random random) {
+        return String.format(MESSAGE_FORMAT, instructionType(random), productCode(random),
+                1 + random.nextInt(10_000), random.nextInt(256), TIMESTAMP);
+    }
+
+    private static String invalidMessage(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return String.format(MESSAGE_FORMAT, instructionType(random), "mz89", 5678, 50, TIMESTAMP);
+            case 1:
+                return String.format(MESSAGE_FORMAT, instructionType(random), productCode(random), 0, 50, TIMESTAMP);
+            case 2:
+                return String.format(MESSAGE_FORMAT, instructionType(random), productCode(random), 5678, 256, TIMESTAMP);
+            default:
+                return String.format(MESSAGE_FORMAT, instructionType(random), productCode(random), 5678, 50,
+                        FUTURE_TIMESTAMP);
+        }
+    }
+
+    private static InstructionType instructionType(Random random) {
+        InstructionType[] types = InstructionType.values();
+        return types[random.nextInt(types.length)];
+    }
+
+    private static String productCode(Random random) {
+        return "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                + random.nextInt(10) + random.nextInt(10);
+    }
+
+}
@@ -0,0 +1,73 @@
+package ua.company.myroniuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.parser.impl.InstructionMessageParser;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    @Param({"0", "10", "50"})
+    private int invalidPercent;
+
+    private String[] messages;
+
+    private int index;
+
+    private Parser<InstructionMessage> regexParser;
+
+    private Parser<InstructionMessage> scanningParser;
+
+    @Setup
+    public void setUp() {
+        messages = BenchmarkMessages.raw(MESSAGES, invalidPercent);
+        regexParser = new InstructionMessageParser();
+        scanningParser = new ScanningInstructionMessageParser();
+    }
+
+    @Benchmark
+    public Object regexParser() {
+        return parse(regexParser);
+    }
+
+    @Benchmark
+    public Object scanningParser() {
+        return parse(scanningParser);
+    }
+
+    @Benchmark
+    public Object scanningParserWithoutExceptions() {
+        return scanningParser.tryParse(messages[index++ & (MESSAGES - 1)]);
+    }
+
+    private Object parse(Parser<InstructionMessage> parser) {
+        String message = messages[index++ & (MESSAGES - 1)];
+        try {
+            return parser.parse(message);
+        } catch (InstructionMessageParseException e) {
+            return e;
+        }
+    }
+
+}
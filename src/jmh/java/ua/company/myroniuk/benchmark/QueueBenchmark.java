@@ -0,0 +1,214 @@
+package ua.company.myroniuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.queue.impl.ConcurrentInstructionMessageQueue;
+import ua.company.myroniuk.queue.impl.DeficitRoundRobinScheduler;
+import ua.company.myroniuk.queue.impl.InstructionMessageQueue;
+import ua.company.myroniuk.queue.impl.PriorityBucketInstructionMessageQueue;
+import ua.company.myroniuk.queue.impl.ShardedInstructionMessageQueue;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    private static final InstructionMessage[] INSTRUCTION_MESSAGES = BenchmarkMessages.valid(MESSAGES);
+
+    @State(Scope.Thread)
+    public static class SingleThreadState {
+
+        @Param({"heap", "bucket", "weighted-bucket", "concurrent"})
+        private String implementation;
+
+        @Param({"0", "1000", "100000"})
+        private int backlog;
+
+        private Queue<InstructionMessage> queue;
+
+        private int index;
+
+        @Setup
+        public void setUp() {
+            queue = createQueue(implementation);
+            for (int i = 0; i < backlog; i++) {
+                queue.enqueue(INSTRUCTION_MESSAGES[i & (MESSAGES - 1)]);
+            }
+        }
+
+    }
+
+    @State(Scope.Group)
+    public static class SharedState {
+
+        @Param({"synchronized-heap", "concurrent", "sharded"})
+        private String implementation;
+
+        private Queue<InstructionMessage> queue;
+
+        @Setup
+        public void setUp() {
+            switch (implementation) {
+                case "concurrent":
+                    queue = new ConcurrentInstructionMessageQueue();
+                    break;
+                case "sharded":
+                    queue = new ShardedInstructionMessageQueue();
+                    break;
+                default:
+                    queue = new SynchronizedQueue(new InstructionMessageQueue());
+            }
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class ScalingState {
+
+        @Param({"concurrent", "sharded"})
+        private String implementation;
+
+        private Queue<InstructionMessage> queue;
+
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            queue = "sharded".equals(implementation)
+                    ? new ShardedInstructionMessageQueue()
+                    : new ConcurrentInstructionMessageQueue();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class WorkerState {
+
+        private Queue<InstructionMessage> queue;
+
+        private int index;
+
+        @Setup
+        public void setUp(ScalingState state) {
+            int thread = state.threads.getAndIncrement();
+            if (state.queue instanceof ShardedInstructionMessageQueue) {
+                ShardedInstructionMessageQueue sharded = (ShardedInstructionMessageQueue) state.queue;
+                queue = sharded.consumer(thread % sharded.getShardCount());
+            } else {
+                queue = state.queue;
+            }
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+
+        private int index;
+
+    }
+
+    @Benchmark
+    public InstructionMessage enqueueDequeue(SingleThreadState state) {
+        state.queue.enqueue(INSTRUCTION_MESSAGES[state.index++ & (MESSAGES - 1)]);
+        return state.queue.dequeue();
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(2)
+    public void producer(SharedState state, ProducerState producer) {
+        state.queue.enqueue(INSTRUCTION_MESSAGES[producer.index++ & (MESSAGES - 1)]);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(2)
+    public InstructionMessage consumer(SharedState state) {
+        return state.queue.dequeue();
+    }
+
+    // Every thread both produces and consumes; compare runs with -t 1, 2, 4 and 8 to see how throughput scales.
+    @Benchmark
+    @Threads(Threads.MAX)
+    public InstructionMessage scaling(WorkerState worker) {
+        worker.queue.enqueue(INSTRUCTION_MESSAGES[worker.index++ & (MESSAGES - 1)]);
+        return worker.queue.dequeue();
+    }
+
+    private static Queue<InstructionMessage> createQueue(String implementation) {
+        switch (implementation) {
+            case "bucket":
+                return new PriorityBucketInstructionMessageQueue();
+            case "weighted-bucket":
+                return new PriorityBucketInstructionMessageQueue(new DeficitRoundRobinScheduler(8, 3, 1));
+            case "concurrent":
+                return new ConcurrentInstructionMessageQueue();
+            default:
+                return new InstructionMessageQueue();
+        }
+    }
+
+    // The global lock callers have to put around the non thread-safe queues today.
+    private static class SynchronizedQueue implements Queue<InstructionMessage> {
+
+        private final Queue<InstructionMessage> queue;
+
+        SynchronizedQueue(Queue<InstructionMessage> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public synchronized void enqueue(InstructionMessage message) {
+            queue.enqueue(message);
+        }
+
+        @Override
+        public synchronized void enqueueAll(Collection<? extends InstructionMessage> messages) {
+            queue.enqueueAll(messages);
+        }
+
+        @Override
+        public synchronized InstructionMessage dequeue() {
+            return queue.dequeue();
+        }
+
+        @Override
+        public synchronized InstructionMessage peek() {
+            return queue.peek();
+        }
+
+        @Override
+        public synchronized int count() {
+            return queue.count();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package ua.company.myroniuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.metrics.impl.InstructionMessageMetrics;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.parser.impl.InstructionMessageParser;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.impl.ConcurrentInstructionMessageQueue;
+import ua.company.myroniuk.receiver.BatchReceiveResult;
+import ua.company.myroniuk.receiver.impl.InstructionMessageReceiver;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiverBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    private static final int BATCH_SIZE = 256;
+
+    @State(Scope.Benchmark)
+    public static class ReceiverState {
+
+        @Param({"regex", "scanning"})
+        private String parser;
+
+        @Param({"0", "10", "50"})
+        private int invalidPercent;
+
+        @Param({"false", "true"})
+        private boolean metrics;
+
+        private String[] messages;
+
+        private InstructionMessageReceiver receiver;
+
+        private ConcurrentInstructionMessageQueue queue;
+
+        private List<String>[] batches;
+
+        @Setup
+        public void setUp() {
+            messages = BenchmarkMessages.raw(MESSAGES, invalidPercent);
+            Parser<InstructionMessage> messageParser = "scanning".equals(parser)
+                    ? new ScanningInstructionMessageParser()
+                    : new InstructionMessageParser();
+            queue = new ConcurrentInstructionMessageQueue();
+            receiver = new InstructionMessageReceiver(messageParser, new InstructionMessageValidator(), queue);
+            if (metrics) {
+                receiver.setMetrics(new InstructionMessageMetrics());
+            }
+            batches = BenchmarkMessages.batches(messages, BATCH_SIZE);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+
+        private int index;
+
+    }
+
+    // Every benchmark drains what it received, so the queue does not grow over a measurement iteration.
+
+    @Benchmark
+    public Object receive(ReceiverState state, ProducerState producer) {
+        return receiveNext(state, producer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object receiveConcurrently(ReceiverState state, ProducerState producer) {
+        return receiveNext(state, producer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchReceiveResult receiveAll(ReceiverState state, ProducerState producer) {
+        List<String> batch = state.batches[producer.index++ % state.batches.length];
+        BatchReceiveResult result = state.receiver.receiveAll(batch);
+        for (int i = 0; i < result.getAcceptedCount(); i++) {
+            state.queue.dequeue();
+        }
+        return result;
+    }
+
+    private static Object receiveNext(ReceiverState state, ProducerState producer) {
+        try {
+            state.receiver.receive(state.messages[producer.index++ & (MESSAGES - 1)]);
+            return state.queue.dequeue();
+        } catch (InstructionMessageParseException | InstructionMessageValidationException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package ua.company.myroniuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.validator.Validator;
+import ua.company.myroniuk.validator.impl.FastInstructionMessageValidator;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    @Param({"0", "10", "50"})
+    private int invalidPercent;
+
+    private InstructionMessage[] messages;
+
+    private int index;
+
+    private Validator<InstructionMessage> validator;
+
+    private Validator<InstructionMessage> fastValidator;
+
+    @Setup
+    public void setUp() {
+        messages = BenchmarkMessages.parsed(MESSAGES, invalidPercent);
+        validator = new InstructionMessageValidator();
+        fastValidator = new FastInstructionMessageValidator();
+    }
+
+    @Benchmark
+    public Object validator() {
+        return validate(validator);
+    }
+
+    @Benchmark
+    public Object fastValidator() {
+        return fastValidator.tryValidate(messages[index++ & (MESSAGES - 1)]);
+    }
+
+    private Object validate(Validator<InstructionMessage> validator) {
+        InstructionMessage message = messages[index++ & (MESSAGES - 1)];
+        try {
+            validator.validate(message);
+            return message;
+        } catch (InstructionMessageValidationException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package ua.company.myroniuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.company.myroniuk.encoder.impl.BinaryInstructionMessageEncoder;
+import ua.company.myroniuk.encoder.impl.TextInstructionMessageEncoder;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.BinaryInstructionMessageParser;
+import ua.company.myroniuk.parser.impl.ByteBufferCharSequence;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes and encodes the same messages in the text and the binary format, in place from direct buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    private final ScanningInstructionMessageParser textParser = new ScanningInstructionMessageParser();
+
+    private final BinaryInstructionMessageParser binaryParser = new BinaryInstructionMessageParser();
+
+    private final TextInstructionMessageEncoder textEncoder = new TextInstructionMessageEncoder();
+
+    private final BinaryInstructionMessageEncoder binaryEncoder = new BinaryInstructionMessageEncoder();
+
+    private final MutableInstructionMessage target = new MutableInstructionMessage();
+
+    private final ByteBufferCharSequence line = new ByteBufferCharSequence();
+
+    private ByteBuffer text;
+
+    private int[] lineEnds;
+
+    private ByteBuffer binary;
+
+    private ByteBuffer output;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        InstructionMessage[] messages = BenchmarkMessages.valid(MESSAGES);
+        text = ByteBuffer.allocateDirect(MESSAGES * 128);
+        binary = ByteBuffer.allocateDirect(MESSAGES * BinaryInstructionMessageParser.MAX_FRAME_LENGTH);
+        output = ByteBuffer.allocateDirect(128);
+        lineEnds = new int[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            textEncoder.encode(messages[i], text);
+            lineEnds[i] = text.position();
+            binaryEncoder.encode(messages[i], binary);
+        }
+        binary.flip();
+        // Gives the encode benchmarks a message to write.
+        textParser.tryParseInto(line.wrap(text, 0, lineEnds[0]), target);
+    }
+
+    @Benchmark
+    public Object decodeText() {
+        int i = index++ & (MESSAGES - 1);
+        textParser.tryParseInto(line.wrap(text, i == 0 ? 0 : lineEnds[i - 1], lineEnds[i]), target);
+        return target;
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        if (!binary.hasRemaining()) {
+            binary.rewind();
+        }
+        binaryParser.tryParseInto(binary, target);
+        return target;
+    }
+
+    @Benchmark
+    public int encodeText() {
+        output.clear();
+        textEncoder.encode(target, output);
+        return output.position();
+    }
+
+    @Benchmark
+    public int encodeBinary() {
+        output.clear();
+        binaryEncoder.encode(target, output);
+        return output.position();
+    }
+
+}
@@ -0,0 +1,19 @@
+package ua.company.myroniuk.consumer;
+
+import ua.company.myroniuk.message.InstructionMessage;
+
+/**
+ * Processes instruction messages taken from a queue. Handlers are called concurrently and must be thread-safe.
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    void handle(InstructionMessage message) throws Exception;
+
+    /**
+     * Called once a message has failed and is not going to be retried. Does nothing by default.
+     */
+    default void onFailure(InstructionMessage message, Exception cause) {
+    }
+
+}
@@ -0,0 +1,17 @@
+package ua.company.myroniuk.consumer;
+
+/**
+ * Decides whether a message whose handler failed is handled again, and after how long.
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+
+    RetryPolicy NONE = (failures, cause) -> -1;
+
+    /**
+     * @param failures how many times handling the message has failed so far, at least one
+     * @return the delay in nanoseconds before the next attempt, or a negative value to give up
+     */
+    long backoffNanos(int failures, Exception cause);
+
+}
@@ -0,0 +1,319 @@
+package ua.company.myroniuk.consumer.impl;
+
+import ua.company.myroniuk.consumer.MessageHandler;
+import ua.company.myroniuk.consumer.RetryPolicy;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.BlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Takes instruction messages from a blocking queue and hands each of them to a {@link MessageHandler} on an
+ * executor. A single dispatcher thread blocks in {@link BlockingQueue#take()} while the queue is empty, so
+ * consumers neither poll nor contend for the queue lock; handlers run without holding any lock.
+ * <p>
+ * At most {@code concurrencyLimits[priority.ordinal()]} messages of each priority are in flight at a time.
+ * When a priority is at its limit, the dispatcher sets its messages aside in a FIFO per priority and keeps
+ * dispatching the other priorities. A finishing message hands its slot to the next message set aside. Only
+ * once more messages of a priority are set aside than it may have in flight does the dispatcher wait, and
+ * interruptibly, before it takes the next message; messages set aside are counted as in flight.
+ * <p>
+ * A message whose handler throws is handled again after the delay given by the {@link RetryPolicy}; it keeps
+ * its slot while it waits. Once the policy gives up, {@link MessageHandler#onFailure} is called.
+ * <p>
+ * By default handlers run on virtual threads when the JDK has them and on a cached thread pool otherwise.
+ */
+public class InstructionMessageConsumer implements AutoCloseable {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final BlockingQueue<InstructionMessage> queue;
+
+    private final MessageHandler handler;
+
+    private final Executor executor;
+
+    private final boolean ownsExecutor;
+
+    private final RetryPolicy retryPolicy;
+
+    private final Semaphore[] permits = new Semaphore[PRIORITIES.length];
+
+    private final int[] concurrencyLimits;
+
+    private final ArrayDeque<InstructionMessage>[] waiting;
+
+    private final ScheduledThreadPoolExecutor retryScheduler;
+
+    private final Thread dispatcher;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder handledCount = new LongAdder();
+
+    private final LongAdder retryCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public InstructionMessageConsumer(BlockingQueue<InstructionMessage> queue, MessageHandler handler) {
+        this(queue, handler, null, RetryPolicy.NONE, defaultConcurrencyLimits());
+    }
+
+    /**
+     * @param executor runs the handlers; when {@code null} the consumer creates its own and shuts it down on close
+     * @param concurrencyLimits the number of messages of each priority, by ordinal, that may be in flight at once
+     */
+    @SuppressWarnings("unchecked")
+    public InstructionMessageConsumer(BlockingQueue<InstructionMessage> queue, MessageHandler handler,
+                                      Executor executor, RetryPolicy retryPolicy, int... concurrencyLimits) {
+        if (concurrencyLimits.length != PRIORITIES.length) {
+            throw new IllegalArgumentException("One concurrency limit per priority is required.");
+        }
+        for (int i = 0; i < concurrencyLimits.length; i++) {
+            if (concurrencyLimits[i] < 1) {
+                throw new IllegalArgumentException("Concurrency limits must be positive.");
+            }
+            permits[i] = new Semaphore(concurrencyLimits[i]);
+        }
+        this.concurrencyLimits = concurrencyLimits.clone();
+        this.waiting = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < waiting.length; i++) {
+            waiting[i] = new ArrayDeque<>();
+        }
+        this.queue = Objects.requireNonNull(queue);
+        this.handler = Objects.requireNonNull(handler);
+        this.retryPolicy = Objects.requireNonNull(retryPolicy);
+        this.ownsExecutor = executor == null;
+        this.executor = ownsExecutor ? newDefaultExecutor() : executor;
+        this.retryScheduler = new ScheduledThreadPoolExecutor(1, task -> newDaemonThread(task,
+                "instruction-message-retry"));
+        this.retryScheduler.setRemoveOnCancelPolicy(true);
+        this.dispatcher = newDaemonThread(this::dispatch, "instruction-message-dispatcher");
+        this.dispatcher.start();
+    }
+
+    /**
+     * Stops taking messages from the queue and waits until every message already taken has been handled,
+     * retries included. Messages still in the queue stay there.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        if (dispatcher.isAlive()) {
+            return false;
+        }
+        synchronized (inFlight) {
+            long remaining;
+            while (inFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(inFlight, remaining);
+            }
+            if (inFlight.get() > 0) {
+                return false;
+            }
+        }
+        retryScheduler.shutdown();
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+        return true;
+    }
+
+    /**
+     * Shuts the consumer down, waiting as long as it takes for the messages in flight.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        shutdown(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getHandledCount() {
+        return handledCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public BlockingQueue<InstructionMessage> getQueue() {
+        return queue;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    private void dispatch() {
+        while (running) {
+            InstructionMessage message;
+            try {
+                message = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // The message has left the queue, so it is handled even if the consumer is shutting down.
+            int priority = message.getInstructionType().getPriority().ordinal();
+            inFlight.incrementAndGet();
+            synchronized (waiting[priority]) {
+                waiting[priority].addLast(message);
+            }
+            dispatchWaiting(priority);
+            try {
+                awaitRoom(priority);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Called after a message is set aside and after a slot is released, each of which is followed by a check of
+    // the other, so a message is never left waiting while its priority has a free slot.
+    private void dispatchWaiting(int priority) {
+        Semaphore slot = permits[priority];
+        ArrayDeque<InstructionMessage> messages = waiting[priority];
+        while (true) {
+            synchronized (messages) {
+                if (messages.isEmpty()) {
+                    return;
+                }
+            }
+            if (!slot.tryAcquire()) {
+                return;
+            }
+            InstructionMessage message;
+            synchronized (messages) {
+                message = messages.pollFirst();
+                messages.notifyAll();
+            }
+            if (message == null) {
+                slot.release();
+            } else {
+                submit(new Delivery(message, priority));
+            }
+        }
+    }
+
+    private void awaitRoom(int priority) throws InterruptedException {
+        ArrayDeque<InstructionMessage> messages = waiting[priority];
+        synchronized (messages) {
+            while (messages.size() > concurrencyLimits[priority]) {
+                messages.wait();
+            }
+        }
+    }
+
+    private void submit(Delivery delivery) {
+        try {
+            executor.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            delivery.fail(e);
+        }
+    }
+
+    private static int[] defaultConcurrencyLimits() {
+        int[] limits = new int[PRIORITIES.length];
+        Arrays.fill(limits, Runtime.getRuntime().availableProcessors());
+        return limits;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so that the code still builds for Java 8.
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> newDaemonThread(task,
+                    "instruction-message-handler-" + threadNumber.getAndIncrement()));
+        }
+    }
+
+    private static Thread newDaemonThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final class Delivery implements Runnable {
+
+        private final InstructionMessage message;
+
+        private final int priority;
+
+        private int failures;
+
+        private Delivery(InstructionMessage message, int priority) {
+            this.message = message;
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            try {
+                handler.handle(message);
+            } catch (Exception e) {
+                long backoff = retryPolicy.backoffNanos(++failures, e);
+                if (backoff < 0) {
+                    fail(e);
+                } else {
+                    retryCount.increment();
+                    retryScheduler.schedule(() -> submit(this), backoff, TimeUnit.NANOSECONDS);
+                }
+                return;
+            } catch (Error e) {
+                fail(new RuntimeException(e));
+                throw e;
+            }
+            handledCount.increment();
+            finish();
+        }
+
+        private void fail(Exception cause) {
+            failedCount.increment();
+            try {
+                handler.onFailure(message, cause);
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            permits[priority].release();
+            dispatchWaiting(priority);
+            if (inFlight.decrementAndGet() == 0) {
+                synchronized (inFlight) {
+                    inFlight.notifyAll();
+                }
+            }
+        }
+
+    }
+
+}
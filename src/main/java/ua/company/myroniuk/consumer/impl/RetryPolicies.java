@@ -0,0 +1,50 @@
+package ua.company.myroniuk.consumer.impl;
+
+import ua.company.myroniuk.consumer.RetryPolicy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public final class RetryPolicies {
+
+    private RetryPolicies() {
+    }
+
+    /**
+     * Makes up to {@code maxAttempts} attempts in total, waiting the same delay before every retry.
+     */
+    public static RetryPolicy fixedDelay(int maxAttempts, long delay, TimeUnit unit) {
+        requireAttempts(maxAttempts);
+        long delayNanos = unit.toNanos(delay);
+        return (failures, cause) -> failures < maxAttempts ? delayNanos : -1;
+    }
+
+    /**
+     * Makes up to {@code maxAttempts} attempts in total. The delay starts at {@code initialDelay} and doubles
+     * with every failure up to {@code maxDelay}; a random half of it is dropped, so that messages which failed
+     * together are not all retried at the same moment.
+     */
+    public static RetryPolicy exponentialBackoff(int maxAttempts, long initialDelay, long maxDelay, TimeUnit unit) {
+        requireAttempts(maxAttempts);
+        if (initialDelay < 1 || maxDelay < initialDelay) {
+            throw new IllegalArgumentException("Delays must be positive and the initial one must not exceed the maximum.");
+        }
+        long initialNanos = unit.toNanos(initialDelay);
+        long maxNanos = unit.toNanos(maxDelay);
+        return (failures, cause) -> {
+            if (failures >= maxAttempts) {
+                return -1;
+            }
+            int doublings = Math.min(failures - 1, Long.numberOfLeadingZeros(initialNanos) - 1);
+            long delay = Math.min(maxNanos, initialNanos << doublings);
+            long half = delay / 2;
+            return delay - half + ThreadLocalRandom.current().nextLong(half + 1);
+        };
+    }
+
+    private static void requireAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required.");
+        }
+    }
+
+}
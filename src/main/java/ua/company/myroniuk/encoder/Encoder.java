@@ -0,0 +1,16 @@
+package ua.company.myroniuk.encoder;
+
+import java.nio.ByteBuffer;
+
+public interface Encoder<T> {
+
+    /**
+     * Writes the message at the buffer's position and moves the position past it.
+     *
+     * @throws java.nio.BufferOverflowException if the message does not fit; the position is then unchanged
+     * @throws IllegalArgumentException if the message cannot be written in this format; the position is
+     *                                  then unchanged
+     */
+    void encode(T message, ByteBuffer target);
+
+}
@@ -0,0 +1,94 @@
+package ua.company.myroniuk.encoder.impl;
+
+import ua.company.myroniuk.encoder.Encoder;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static ua.company.myroniuk.parser.impl.BinaryInstructionMessageParser.PRODUCT_CODE_LENGTH;
+
+/**
+ * Writes messages in the binary format read by
+ * {@link ua.company.myroniuk.parser.impl.BinaryInstructionMessageParser}. Only product codes of four ASCII
+ * letters or digits, non-negative quantities and uoms from 0 to 255 can be written.
+ */
+public class BinaryInstructionMessageEncoder implements Encoder<InstructionMessage> {
+
+    private static final int MAX_UOM = 0xFF;
+
+    @Override
+    public void encode(InstructionMessage message, ByteBuffer target) {
+        String productCode = message.getProductCode();
+        checkProductCodeLength(productCode.length());
+        int start = putFields(message.getInstructionType(), message.getQuantity(), message.getUom(),
+                CompactInstructionMessage.toEpochMilli(message.getTimestamp()), target);
+        for (int i = 0; i < PRODUCT_CODE_LENGTH; i++) {
+            target.put(start + 1 + i, toByte(productCode.charAt(i)));
+        }
+        target.position(start + frameLength(message.getQuantity()));
+    }
+
+    /**
+     * Allocation-free variant for messages filled in place by a parser.
+     */
+    public void encode(MutableInstructionMessage message, ByteBuffer target) {
+        checkProductCodeLength(message.getProductCodeLength());
+        int start = putFields(message.getInstructionType(), message.getQuantity(), message.getUom(),
+                message.getTimestamp(), target);
+        for (int i = 0; i < PRODUCT_CODE_LENGTH; i++) {
+            target.put(start + 1 + i, toByte(message.getProductCodeChar(i)));
+        }
+        target.position(start + frameLength(message.getQuantity()));
+    }
+
+    public static int frameLength(int quantity) {
+        return 1 + PRODUCT_CODE_LENGTH + varintLength(quantity) + 1 + 8;
+    }
+
+    // Writes everything but the product code past the position, which the caller moves once the frame is complete.
+    private int putFields(InstructionType instructionType, int quantity, int uom, long timestamp, ByteBuffer target) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity does not fit the binary format: " + quantity);
+        }
+        if (uom < 0 || uom > MAX_UOM) {
+            throw new IllegalArgumentException("Uom does not fit the binary format: " + uom);
+        }
+        int start = target.position();
+        if (target.remaining() < frameLength(quantity)) {
+            throw new BufferOverflowException();
+        }
+        target.put(start, (byte) instructionType.name().charAt(0));
+        int position = start + 1 + PRODUCT_CODE_LENGTH;
+        int remaining = quantity;
+        while ((remaining & ~0x7F) != 0) {
+            target.put(position++, (byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        target.put(position++, (byte) remaining);
+        target.put(position++, (byte) uom);
+        target.putLong(position, timestamp);
+        return start;
+    }
+
+    private static void checkProductCodeLength(int length) {
+        if (length != PRODUCT_CODE_LENGTH) {
+            throw new IllegalArgumentException("Product code must be " + PRODUCT_CODE_LENGTH
+                    + " characters long in the binary format.");
+        }
+    }
+
+    private static byte toByte(char c) {
+        if (!TextInstructionMessageEncoder.isLetterOrDigit(c)) {
+            throw new IllegalArgumentException("Product code must consist of ASCII letters and digits.");
+        }
+        return (byte) c;
+    }
+
+    private static int varintLength(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+}
@@ -0,0 +1,77 @@
+package ua.company.myroniuk.encoder.impl;
+
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.BinaryInstructionMessageParser;
+import ua.company.myroniuk.parser.impl.ByteBufferCharSequence;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts single messages between the text and the binary format through one reused
+ * {@link MutableInstructionMessage}, so no conversion allocates. Instances are not thread-safe.
+ */
+public class InstructionMessageTranscoder {
+
+    private final ScanningInstructionMessageParser textParser = new ScanningInstructionMessageParser();
+
+    private final BinaryInstructionMessageParser binaryParser = new BinaryInstructionMessageParser();
+
+    private final TextInstructionMessageEncoder textEncoder = new TextInstructionMessageEncoder();
+
+    private final BinaryInstructionMessageEncoder binaryEncoder = new BinaryInstructionMessageEncoder();
+
+    private final MutableInstructionMessage message = new MutableInstructionMessage();
+
+    private final ByteBufferCharSequence line = new ByteBufferCharSequence();
+
+    /**
+     * Writes the newline-terminated text message in binary.
+     *
+     * @return {@code false} if the text is not a valid message
+     * @throws IllegalArgumentException if the message is valid but has no binary form
+     * @throws java.nio.BufferOverflowException if the target has too little room
+     */
+    public boolean textToBinary(CharSequence text, ByteBuffer target) {
+        if (!textParser.tryParseInto(text, message)) {
+            return false;
+        }
+        binaryEncoder.encode(message, target);
+        return true;
+    }
+
+    /**
+     * Reads the newline-terminated text message between the source's position and limit and writes it in
+     * binary. The source position is moved to its limit once the message is written.
+     *
+     * @return {@code false} if the text is not a valid message
+     */
+    public boolean textToBinary(ByteBuffer source, ByteBuffer target) {
+        if (!textToBinary(line.wrap(source, source.position(), source.limit()), target)) {
+            return false;
+        }
+        source.position(source.limit());
+        return true;
+    }
+
+    /**
+     * Reads the binary frame at the source's position and writes it as a newline-terminated text line. The
+     * source position is moved past the frame only once the line is written.
+     *
+     * @return {@code false} if the source holds no complete frame or the frame is malformed
+     * @throws java.nio.BufferOverflowException if the target has too little room
+     */
+    public boolean binaryToText(ByteBuffer source, ByteBuffer target) {
+        int start = source.position();
+        if (!binaryParser.tryParseInto(source, message)) {
+            return false;
+        }
+        try {
+            textEncoder.encode(message, target);
+        } catch (RuntimeException e) {
+            source.position(start);
+            throw e;
+        }
+        return true;
+    }
+
+}
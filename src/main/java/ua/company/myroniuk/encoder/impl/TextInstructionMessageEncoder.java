@@ -0,0 +1,165 @@
+package ua.company.myroniuk.encoder.impl;
+
+import ua.company.myroniuk.encoder.Encoder;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes messages as newline-terminated lines of the text format, in US-ASCII:
+ * {@code InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z}. The timestamp is formatted by hand, so
+ * encoding allocates nothing. Only messages the text parsers accept back can be written: product codes of
+ * ASCII letters and digits, no negative numbers and years from 1 to 9999.
+ */
+public class TextInstructionMessageEncoder implements Encoder<InstructionMessage> {
+
+    private static final byte[] HEADER = "InstructionMessage ".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte DELIMITER = ' ';
+
+    private static final byte NEWLINE = '\n';
+
+    private static final int TIMESTAMP_LENGTH = 24;
+
+    // Header, type and the delimiters and newline around the four other fields.
+    private static final int FIXED_LENGTH = HEADER.length + 1 + 4 + 1 + TIMESTAMP_LENGTH;
+
+    private static final long MILLIS_PER_DAY = 86_400_000;
+
+    private static final long MIN_TIMESTAMP = -62_135_596_800_000L;
+
+    private static final long MAX_TIMESTAMP = 253_402_300_799_999L;
+
+    private static final long DAYS_0000_TO_1970 = 719_468;
+
+    private static final int DAYS_PER_400_YEARS = 146_097;
+
+    @Override
+    public void encode(InstructionMessage message, ByteBuffer target) {
+        String productCode = message.getProductCode();
+        int productCodeLength = productCode.length();
+        int start = putFields(message.getInstructionType(), productCodeLength, message.getQuantity(),
+                message.getUom(), CompactInstructionMessage.toEpochMilli(message.getTimestamp()), target);
+        for (int i = 0; i < productCodeLength; i++) {
+            target.put(start + HEADER.length + 2 + i, toByte(productCode.charAt(i)));
+        }
+        target.position(start + lineLength(productCodeLength, message.getQuantity(), message.getUom()));
+    }
+
+    /**
+     * Allocation-free variant for messages filled in place by a parser.
+     */
+    public void encode(MutableInstructionMessage message, ByteBuffer target) {
+        int productCodeLength = message.getProductCodeLength();
+        int start = putFields(message.getInstructionType(), productCodeLength, message.getQuantity(),
+                message.getUom(), message.getTimestamp(), target);
+        for (int i = 0; i < productCodeLength; i++) {
+            target.put(start + HEADER.length + 2 + i, toByte(message.getProductCodeChar(i)));
+        }
+        target.position(start + lineLength(productCodeLength, message.getQuantity(), message.getUom()));
+    }
+
+    static boolean isLetterOrDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    // Writes everything but the product code past the position, which the caller moves once the line is complete.
+    private int putFields(InstructionType instructionType, int productCodeLength, int quantity, int uom,
+                          long timestamp, ByteBuffer target) {
+        if (productCodeLength == 0 || quantity < 0 || uom < 0
+                || timestamp < MIN_TIMESTAMP || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalArgumentException("Message cannot be written in the text format.");
+        }
+        int start = target.position();
+        if (target.remaining() < lineLength(productCodeLength, quantity, uom)) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            target.put(start + i, HEADER[i]);
+        }
+        int position = start + HEADER.length;
+        target.put(position++, (byte) instructionType.name().charAt(0));
+        target.put(position, DELIMITER);
+        position += 1 + productCodeLength;
+        target.put(position++, DELIMITER);
+        position = putDigits(quantity, target, position);
+        target.put(position++, DELIMITER);
+        position = putDigits(uom, target, position);
+        target.put(position++, DELIMITER);
+        putTimestamp(timestamp, target, position);
+        target.put(position + TIMESTAMP_LENGTH, NEWLINE);
+        return start;
+    }
+
+    private static int lineLength(int productCodeLength, int quantity, int uom) {
+        return FIXED_LENGTH + productCodeLength + digits(quantity) + digits(uom);
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int putDigits(int value, ByteBuffer target, int position) {
+        int end = position + digits(value);
+        for (int i = end - 1; i >= position; i--) {
+            target.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static void putPadded(int value, int width, ByteBuffer target, int position) {
+        for (int i = position + width - 1; i >= position; i--) {
+            target.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+    }
+
+    // Civil date from the day count of a proleptic Gregorian calendar whose years start in March, which puts
+    // the leap day at the end of the year.
+    private static void putTimestamp(long timestamp, ByteBuffer target, int position) {
+        long epochDay = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(timestamp, MILLIS_PER_DAY);
+        long days = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(days, DAYS_PER_400_YEARS);
+        int dayOfEra = (int) (days - era * DAYS_PER_400_YEARS);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = (int) (era * 400 + yearOfEra + (month <= 2 ? 1 : 0));
+
+        putPadded(year, 4, target, position);
+        target.put(position + 4, (byte) '-');
+        putPadded(month, 2, target, position + 5);
+        target.put(position + 7, (byte) '-');
+        putPadded(day, 2, target, position + 8);
+        target.put(position + 10, (byte) 'T');
+        putPadded(millisOfDay / 3_600_000, 2, target, position + 11);
+        target.put(position + 13, (byte) ':');
+        putPadded(millisOfDay / 60_000 % 60, 2, target, position + 14);
+        target.put(position + 16, (byte) ':');
+        putPadded(millisOfDay / 1000 % 60, 2, target, position + 17);
+        target.put(position + 19, (byte) '.');
+        putPadded(millisOfDay % 1000, 3, target, position + 20);
+        target.put(position + 23, (byte) 'Z');
+    }
+
+    private static byte toByte(char c) {
+        if (!isLetterOrDigit(c)) {
+            throw new IllegalArgumentException("Product code must consist of ASCII letters and digits.");
+        }
+        return (byte) c;
+    }
+
+}
@@ -1,9 +1,22 @@
 package ua.company.myroniuk.exception;
 
+import ua.company.myroniuk.result.ErrorCode;
+
 public class InstructionMessageParseException extends RuntimeException {
 
+    private final ErrorCode errorCode;
+
     public InstructionMessageParseException(String message) {
+        this(null, message);
+    }
+
+    public InstructionMessageParseException(ErrorCode errorCode, String message) {
         super(message);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
     }
 
 }
@@ -0,0 +1,13 @@
+package ua.company.myroniuk.exception;
+
+public class InstructionMessageQueueFullException extends RuntimeException {
+
+    public InstructionMessageQueueFullException(String message) {
+        super(message);
+    }
+
+    public InstructionMessageQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,13 @@
+package ua.company.myroniuk.exception;
+
+public class InstructionMessageStorageException extends RuntimeException {
+
+    public InstructionMessageStorageException(String message) {
+        super(message);
+    }
+
+    public InstructionMessageStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
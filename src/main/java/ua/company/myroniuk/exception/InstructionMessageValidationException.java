@@ -1,9 +1,22 @@
 package ua.company.myroniuk.exception;
 
+import ua.company.myroniuk.result.ErrorCode;
+
 public class InstructionMessageValidationException extends RuntimeException {
 
+    private final ErrorCode errorCode;
+
     public InstructionMessageValidationException(String message) {
+        this(null, message);
+    }
+
+    public InstructionMessageValidationException(ErrorCode errorCode, String message) {
         super(message);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
     }
 
 }
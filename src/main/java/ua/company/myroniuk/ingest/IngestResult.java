@@ -0,0 +1,33 @@
+package ua.company.myroniuk.ingest;
+
+public class IngestResult {
+
+    private final long acceptedCount;
+
+    private final long rejectedCount;
+
+    private final long byteCount;
+
+    public IngestResult(long acceptedCount, long rejectedCount, long byteCount) {
+        this.acceptedCount = acceptedCount;
+        this.rejectedCount = rejectedCount;
+        this.byteCount = byteCount;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public boolean isFullyAccepted() {
+        return rejectedCount == 0;
+    }
+
+}
@@ -0,0 +1,19 @@
+package ua.company.myroniuk.ingest;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Receives newline-delimited messages straight from bytes. Malformed or invalid messages are counted as
+ * rejected and skipped, so one bad line does not stop the rest of the stream.
+ */
+public interface MessageIngestor {
+
+    /**
+     * Reads the channel to its end. The channel is not closed.
+     */
+    IngestResult ingest(ReadableByteChannel channel);
+
+    IngestResult ingest(Path file);
+
+}
@@ -0,0 +1,225 @@
+package ua.company.myroniuk.ingest.impl;
+
+import ua.company.myroniuk.exception.InstructionMessageStorageException;
+import ua.company.myroniuk.ingest.IngestResult;
+import ua.company.myroniuk.ingest.MessageIngestor;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.ByteBufferCharSequence;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.validator.Validator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingests newline-delimited text messages without turning lines into strings: frames are found directly in
+ * {@link ByteBuffer}s and scanned in place by {@link ScanningInstructionMessageParser}. Files are memory-mapped
+ * window by window; other channels are read through one direct buffer. Accepted messages are enqueued in batches.
+ * <p>
+ * A message must end with a newline, as for the parsers, so an unterminated last line is rejected. A line
+ * longer than the read buffer or the mapped window is rejected and skipped up to the next newline.
+ * Channels are expected to be blocking.
+ */
+public class InstructionMessageIngestor implements MessageIngestor {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final byte NEWLINE = '\n';
+
+    private final ScanningInstructionMessageParser parser;
+
+    private final Validator<InstructionMessage> validator;
+
+    private final Queue<InstructionMessage> queue;
+
+    private final int bufferSize;
+
+    private final int mappedWindowSize;
+
+    public InstructionMessageIngestor(ScanningInstructionMessageParser parser,
+                                      Validator<InstructionMessage> validator, Queue<InstructionMessage> queue) {
+        this(parser, validator, queue, DEFAULT_BUFFER_SIZE, DEFAULT_MAPPED_WINDOW_SIZE);
+    }
+
+    public InstructionMessageIngestor(ScanningInstructionMessageParser parser, Validator<InstructionMessage> validator,
+                                      Queue<InstructionMessage> queue, int bufferSize, int mappedWindowSize) {
+        if (bufferSize < 1 || mappedWindowSize < 1) {
+            throw new IllegalArgumentException("Buffer and mapped window sizes must be positive.");
+        }
+        this.parser = parser;
+        this.validator = validator;
+        this.queue = queue;
+        this.bufferSize = bufferSize;
+        this.mappedWindowSize = mappedWindowSize;
+    }
+
+    /**
+     * Reads the channel to its end, memory-mapping it when it is a {@link FileChannel} with bytes left.
+     */
+    @Override
+    public IngestResult ingest(ReadableByteChannel channel) {
+        Ingestion ingestion = new Ingestion();
+        try {
+            if (channel instanceof FileChannel && isMappable((FileChannel) channel)) {
+                ingestMapped((FileChannel) channel, ingestion);
+            } else {
+                ingestStream(channel, ingestion);
+            }
+        } catch (IOException e) {
+            throw flushAfterFailure(ingestion,
+                    new InstructionMessageStorageException("Failed to read instruction messages", e));
+        } catch (RuntimeException e) {
+            throw flushAfterFailure(ingestion, e);
+        }
+        ingestion.flush();
+        return ingestion.toResult();
+    }
+
+    @Override
+    public IngestResult ingest(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ingest(channel);
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to read instruction messages from " + file, e);
+        }
+    }
+
+    // Messages read before the failure are still enqueued, but a failing flush must not hide the failure.
+    private RuntimeException flushAfterFailure(Ingestion ingestion, RuntimeException failure) {
+        try {
+            ingestion.flush();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    // Special files such as pipes report no size, so they are read as a stream.
+    private boolean isMappable(FileChannel channel) throws IOException {
+        return channel.size() > channel.position();
+    }
+
+    // Each window starts at the first byte not yet framed, so a message cut by the end of a window is
+    // scanned again in full by the next one.
+    private void ingestMapped(FileChannel channel, Ingestion ingestion) throws IOException {
+        long position = channel.position();
+        long size = channel.size();
+        while (position < size) {
+            int length = (int) Math.min(mappedWindowSize, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int framed = ingestion.frame(window, length);
+            if (framed < length && (framed == 0 || position + length == size)) {
+                ingestion.rejectPartialLine();
+                framed = length;
+            }
+            position += framed;
+            ingestion.bytes += framed;
+        }
+        channel.position(size);
+    }
+
+    private void ingestStream(ReadableByteChannel channel, Ingestion ingestion) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        int read;
+        while ((read = channel.read(buffer)) != -1) {
+            ingestion.bytes += read;
+            int framed = ingestion.frame(buffer, buffer.position());
+            if (framed == 0 && !buffer.hasRemaining()) {
+                ingestion.rejectPartialLine();
+                framed = buffer.position();
+            }
+            buffer.flip();
+            buffer.position(framed);
+            buffer.compact();
+        }
+        if (buffer.position() > 0) {
+            ingestion.rejectPartialLine();
+        }
+    }
+
+    private final class Ingestion {
+
+        private final MutableInstructionMessage target = new MutableInstructionMessage();
+
+        private final ByteBufferCharSequence frame = new ByteBufferCharSequence();
+
+        private final List<InstructionMessage> batch = new ArrayList<>(BATCH_SIZE);
+
+        private long accepted;
+
+        private long rejected;
+
+        private long bytes;
+
+        private boolean skipping;
+
+        /**
+         * Receives every complete line in the first {@code end} bytes of the buffer and returns the index
+         * just after the last one.
+         */
+        private int frame(ByteBuffer buffer, int end) {
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                if (buffer.get(i) == NEWLINE) {
+                    if (skipping) {
+                        skipping = false;
+                    } else {
+                        receive(buffer, start, i + 1);
+                    }
+                    start = i + 1;
+                }
+            }
+            return start;
+        }
+
+        private void receive(ByteBuffer buffer, int start, int end) {
+            if (!parser.tryParseInto(frame.wrap(buffer, start, end), target)) {
+                rejected++;
+                return;
+            }
+            InstructionMessage message = target.toInstructionMessage();
+            if (!validator.tryValidate(message).isSuccess()) {
+                rejected++;
+                return;
+            }
+            batch.add(message);
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        // A line that is still being skipped has already been counted.
+        private void rejectPartialLine() {
+            if (!skipping) {
+                rejected++;
+                skipping = true;
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                queue.enqueueAll(batch);
+                accepted += batch.size();
+                batch.clear();
+            }
+        }
+
+        private IngestResult toResult() {
+            return new IngestResult(accepted, rejected, bytes);
+        }
+
+    }
+
+}
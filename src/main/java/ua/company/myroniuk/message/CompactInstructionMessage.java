@@ -0,0 +1,110 @@
+package ua.company.myroniuk.message;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Immutable instruction message with primitive fields. The timestamp is kept as epoch millis of the
+ * message's local date-time read as UTC, which is how the "Z"-suffixed wire format is written.
+ */
+public final class CompactInstructionMessage {
+
+    private final InstructionType instructionType;
+
+    private final String productCode;
+
+    private final int quantity;
+
+    private final int uom;
+
+    private final long timestamp;
+
+    private final int hash;
+
+    public CompactInstructionMessage(InstructionType instructionType, String productCode,
+                                     int quantity, int uom, long timestamp) {
+        this.instructionType = Objects.requireNonNull(instructionType);
+        this.productCode = Objects.requireNonNull(productCode);
+        this.quantity = quantity;
+        this.uom = uom;
+        this.timestamp = timestamp;
+        this.hash = computeHash();
+    }
+
+    public static CompactInstructionMessage of(InstructionMessage message) {
+        return new CompactInstructionMessage(message.getInstructionType(), message.getProductCode(),
+                message.getQuantity(), message.getUom(), toEpochMilli(message.getTimestamp()));
+    }
+
+    public static long toEpochMilli(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+    }
+
+    public InstructionType getInstructionType() {
+        return instructionType;
+    }
+
+    public Priority getPriority() {
+        return instructionType.getPriority();
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getUom() {
+        return uom;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public InstructionMessage toInstructionMessage() {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(uom);
+        message.setTimestamp(toLocalDateTime(timestamp));
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactInstructionMessage that = (CompactInstructionMessage) o;
+        return hash == that.hash &&
+                quantity == that.quantity &&
+                uom == that.uom &&
+                timestamp == that.timestamp &&
+                instructionType == that.instructionType &&
+                productCode.equals(that.productCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private int computeHash() {
+        int result = instructionType.hashCode();
+        result = 31 * result + productCode.hashCode();
+        result = 31 * result + quantity;
+        result = 31 * result + uom;
+        result = 31 * result + Long.hashCode(timestamp);
+        return result;
+    }
+
+}
@@ -0,0 +1,115 @@
+package ua.company.myroniuk.message;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Reusable instruction message that parsers fill in place. The product code is copied into an internal
+ * buffer, so filling an instance allocates nothing once the buffer has grown to the longest code seen.
+ * Instances are not thread-safe and are meant to be owned by a single thread.
+ */
+public final class MutableInstructionMessage {
+
+    private static final int INITIAL_PRODUCT_CODE_CAPACITY = 8;
+
+    private InstructionType instructionType;
+
+    private char[] productCode = new char[INITIAL_PRODUCT_CODE_CAPACITY];
+
+    private int productCodeLength;
+
+    private int quantity;
+
+    private int uom;
+
+    private long timestamp;
+
+    public InstructionType getInstructionType() {
+        return instructionType;
+    }
+
+    public void setInstructionType(InstructionType instructionType) {
+        this.instructionType = instructionType;
+    }
+
+    public String getProductCode() {
+        return new String(productCode, 0, productCodeLength);
+    }
+
+    public void setProductCode(CharSequence source, int start, int end) {
+        int length = end - start;
+        if (productCode.length < length) {
+            productCode = Arrays.copyOf(productCode, Math.max(length, productCode.length * 2));
+        }
+        for (int i = 0; i < length; i++) {
+            productCode[i] = source.charAt(start + i);
+        }
+        productCodeLength = length;
+    }
+
+    public void setProductCode(CharSequence productCode) {
+        setProductCode(productCode, 0, productCode.length());
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getUom() {
+        return uom;
+    }
+
+    public void setUom(int uom) {
+        this.uom = uom;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public void clear() {
+        instructionType = null;
+        productCodeLength = 0;
+        quantity = 0;
+        uom = 0;
+        timestamp = 0;
+    }
+
+    public CompactInstructionMessage toCompact() {
+        return new CompactInstructionMessage(instructionType, getProductCode(), quantity, uom, timestamp);
+    }
+
+    public InstructionMessage toInstructionMessage() {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(getProductCode());
+        message.setQuantity(quantity);
+        message.setUom(uom);
+        message.setTimestamp(toLocalDateTime());
+        return message;
+    }
+
+    public LocalDateTime toLocalDateTime() {
+        return CompactInstructionMessage.toLocalDateTime(timestamp);
+    }
+
+    public int getProductCodeLength() {
+        return productCodeLength;
+    }
+
+    public char getProductCodeChar(int index) {
+        if (index < 0 || index >= productCodeLength) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return productCode[index];
+    }
+
+}
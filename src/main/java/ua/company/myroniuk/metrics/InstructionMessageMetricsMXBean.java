@@ -0,0 +1,25 @@
+package ua.company.myroniuk.metrics;
+
+import java.util.Map;
+
+public interface InstructionMessageMetricsMXBean {
+
+    long getAcceptedCount();
+
+    long getParseRejectionCount();
+
+    long getValidationRejectionCount();
+
+    long getDuplicateCount();
+
+    LatencySnapshot getParseLatency();
+
+    LatencySnapshot getValidationLatency();
+
+    LatencySnapshot getEnqueueLatency();
+
+    Map<String, Long> getQueueDepths();
+
+    Map<String, LatencySnapshot> getQueueWaitTimes();
+
+}
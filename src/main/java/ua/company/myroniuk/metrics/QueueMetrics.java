@@ -0,0 +1,20 @@
+package ua.company.myroniuk.metrics;
+
+import ua.company.myroniuk.message.Priority;
+
+public interface QueueMetrics {
+
+    QueueMetrics NOOP = new QueueMetrics() {
+    };
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default void recordEnqueued(Priority priority) {
+    }
+
+    default void recordDequeued(Priority priority, long waitNanos) {
+    }
+
+}
@@ -0,0 +1,34 @@
+package ua.company.myroniuk.metrics;
+
+/**
+ * Receives measurements from a message receiver. All methods do nothing by default, and receivers
+ * skip taking timestamps altogether while {@link #isEnabled()} is {@code false}.
+ */
+public interface ReceiverMetrics {
+
+    ReceiverMetrics NOOP = new ReceiverMetrics() {
+    };
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default void recordParse(long nanos) {
+    }
+
+    default void recordValidation(long nanos) {
+    }
+
+    default void recordEnqueue(int messages, long nanos) {
+    }
+
+    default void recordParseRejection() {
+    }
+
+    default void recordValidationRejection() {
+    }
+
+    default void recordDuplicate() {
+    }
+
+}
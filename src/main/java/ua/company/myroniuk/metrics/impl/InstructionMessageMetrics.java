@@ -0,0 +1,185 @@
+package ua.company.myroniuk.metrics.impl;
+
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.metrics.InstructionMessageMetricsMXBean;
+import ua.company.myroniuk.metrics.LatencyHistogram;
+import ua.company.myroniuk.metrics.LatencySnapshot;
+import ua.company.myroniuk.metrics.QueueMetrics;
+import ua.company.myroniuk.metrics.ReceiverMetrics;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects receiver and queue measurements with lock-free counters and {@link LatencyHistogram}s.
+ * Latencies and wait times are in nanoseconds. One instance may be shared by any number of
+ * receivers and queues, and can be exposed over JMX with {@link #register(String)}.
+ */
+public class InstructionMessageMetrics implements ReceiverMetrics, QueueMetrics, InstructionMessageMetricsMXBean {
+
+    private static final String OBJECT_NAME = "ua.company.myroniuk:type=InstructionMessageMetrics,name=";
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder parseRejections = new LongAdder();
+
+    private final LongAdder validationRejections = new LongAdder();
+
+    private final LongAdder duplicates = new LongAdder();
+
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+
+    private final LatencyHistogram validationLatency = new LatencyHistogram();
+
+    private final LatencyHistogram enqueueLatency = new LatencyHistogram();
+
+    private final LongAdder[] enqueued = new LongAdder[PRIORITIES.length];
+
+    private final LongAdder[] dequeued = new LongAdder[PRIORITIES.length];
+
+    private final LatencyHistogram[] waitTimes = new LatencyHistogram[PRIORITIES.length];
+
+    public InstructionMessageMetrics() {
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            enqueued[i] = new LongAdder();
+            dequeued[i] = new LongAdder();
+            waitTimes[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordParse(long nanos) {
+        parseLatency.record(nanos);
+    }
+
+    @Override
+    public void recordValidation(long nanos) {
+        validationLatency.record(nanos);
+    }
+
+    @Override
+    public void recordEnqueue(int messages, long nanos) {
+        accepted.add(messages);
+        enqueueLatency.record(nanos);
+    }
+
+    @Override
+    public void recordParseRejection() {
+        parseRejections.increment();
+    }
+
+    @Override
+    public void recordValidationRejection() {
+        validationRejections.increment();
+    }
+
+    @Override
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    @Override
+    public void recordEnqueued(Priority priority) {
+        enqueued[priority.ordinal()].increment();
+    }
+
+    @Override
+    public void recordDequeued(Priority priority, long waitNanos) {
+        dequeued[priority.ordinal()].increment();
+        waitTimes[priority.ordinal()].record(waitNanos);
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    @Override
+    public long getParseRejectionCount() {
+        return parseRejections.sum();
+    }
+
+    @Override
+    public long getValidationRejectionCount() {
+        return validationRejections.sum();
+    }
+
+    @Override
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public LatencySnapshot getParseLatency() {
+        return parseLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getValidationLatency() {
+        return validationLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getEnqueueLatency() {
+        return enqueueLatency.snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getQueueDepths() {
+        Map<String, Long> depths = new LinkedHashMap<>();
+        for (Priority priority : PRIORITIES) {
+            depths.put(priority.name(), getQueueDepth(priority));
+        }
+        return depths;
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getQueueWaitTimes() {
+        Map<String, LatencySnapshot> snapshots = new LinkedHashMap<>();
+        for (Priority priority : PRIORITIES) {
+            snapshots.put(priority.name(), waitTimes[priority.ordinal()].snapshot());
+        }
+        return snapshots;
+    }
+
+    // Dequeues are read first, so a concurrent enqueue/dequeue pair can never make the depth negative.
+    public long getQueueDepth(Priority priority) {
+        long out = dequeued[priority.ordinal()].sum();
+        return enqueued[priority.ordinal()].sum() - out;
+    }
+
+    public LatencyHistogram getQueueWaitTime(Priority priority) {
+        return waitTimes[priority.ordinal()];
+    }
+
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics " + name, e);
+        }
+    }
+
+    public void unregister(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(new ObjectName(OBJECT_NAME + ObjectName.quote(name)));
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister metrics " + name, e);
+        }
+    }
+
+}
@@ -1,7 +1,22 @@
 package ua.company.myroniuk.parser;
 
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.result.Result;
+
 public interface Parser<T> {
 
     T parse(String string);
 
+    /**
+     * Parses the string without throwing on bad input. The default implementation falls back to
+     * {@link #parse(String)}; implementations override it to avoid the cost of the exception.
+     */
+    default Result<T> tryParse(String string) {
+        try {
+            return Result.success(parse(string));
+        } catch (InstructionMessageParseException e) {
+            return Result.failure(e);
+        }
+    }
+
 }
@@ -0,0 +1,136 @@
+package ua.company.myroniuk.parser.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses the binary message format: the instruction type letter in one byte, the product code in four ASCII
+ * bytes, the non-negative quantity as an unsigned LEB128 varint of one to five bytes, the uom in one unsigned
+ * byte and the timestamp as eight big-endian bytes of epoch millis. A frame takes 15 bytes when the quantity
+ * is below 128 and at most 19. Frames delimit themselves, so a stream of them needs no separators.
+ * <p>
+ * Product codes are restricted to the ASCII letters and digits the text format accepts, so every binary
+ * message can be written as text.
+ */
+public class BinaryInstructionMessageParser implements Parser<InstructionMessage> {
+
+    public static final int PRODUCT_CODE_LENGTH = 4;
+
+    public static final int MIN_FRAME_LENGTH = 15;
+
+    public static final int MAX_FRAME_LENGTH = 19;
+
+    private static final int QUANTITY_OFFSET = 1 + PRODUCT_CODE_LENGTH;
+
+    private static final int MAX_QUANTITY_LENGTH = 5;
+
+    private static final int UOM_AND_TIMESTAMP_LENGTH = 1 + 8;
+
+    private final ByteBufferCharSequence productCode = new ByteBufferCharSequence();
+
+    /**
+     * Parses a string holding exactly one frame, one ISO-8859-1 character per byte.
+     */
+    @Override
+    public InstructionMessage parse(String message) {
+        return tryParse(message).getOrThrow();
+    }
+
+    @Override
+    public Result<InstructionMessage> tryParse(String message) {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        ByteBuffer buffer = ByteBuffer.wrap(message.getBytes(StandardCharsets.ISO_8859_1));
+        return tryParseInto(buffer, target) && !buffer.hasRemaining()
+                ? Result.success(target.toInstructionMessage())
+                : Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+    }
+
+    /**
+     * Decodes the frame at the buffer's position into the target and moves the position past it, without
+     * allocating. A malformed or incomplete frame leaves both the position and the target untouched.
+     *
+     * @return {@code false} if the frame is malformed or incomplete, which {@link #frameLength} tells apart
+     */
+    public boolean tryParseInto(ByteBuffer buffer, MutableInstructionMessage target) {
+        int length = frameLength(buffer);
+        if (length < 0) {
+            return false;
+        }
+        int start = buffer.position();
+        InstructionType instructionType = parseInstructionType(buffer.get(start));
+        if (instructionType == null) {
+            return false;
+        }
+        for (int i = 1; i <= PRODUCT_CODE_LENGTH; i++) {
+            if (!isLetterOrDigit(buffer.get(start + i))) {
+                return false;
+            }
+        }
+        int position = start + QUANTITY_OFFSET;
+        int quantity = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            // The fifth byte holds bits 28 to 30 of the quantity and ends the varint; the sign bit stays clear.
+            if (shift == 28 && (b & 0xF8) != 0) {
+                return false;
+            }
+            quantity |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        target.setInstructionType(instructionType);
+        target.setProductCode(productCode.wrap(buffer, start + 1, start + QUANTITY_OFFSET));
+        target.setQuantity(quantity);
+        target.setUom(buffer.get(position) & 0xFF);
+        target.setTimestamp(buffer.getLong(position + 1));
+        buffer.position(start + length);
+        return true;
+    }
+
+    /**
+     * Returns the length of the frame at the buffer's position, or {@code -1} if the buffer does not hold
+     * all of it yet.
+     */
+    public static int frameLength(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = 0; i < MAX_QUANTITY_LENGTH; i++) {
+            int index = start + QUANTITY_OFFSET + i;
+            if (index >= limit) {
+                return -1;
+            }
+            if ((buffer.get(index) & 0x80) == 0 || i == MAX_QUANTITY_LENGTH - 1) {
+                int length = QUANTITY_OFFSET + i + 1 + UOM_AND_TIMESTAMP_LENGTH;
+                return limit - start >= length ? length : -1;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static InstructionType parseInstructionType(byte b) {
+        switch (b) {
+            case 'A':
+                return InstructionType.A;
+            case 'B':
+                return InstructionType.B;
+            case 'C':
+                return InstructionType.C;
+            case 'D':
+                return InstructionType.D;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isLetterOrDigit(byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+}
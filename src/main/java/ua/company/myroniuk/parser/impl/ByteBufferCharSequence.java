@@ -0,0 +1,56 @@
+package ua.company.myroniuk.parser.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable view of a byte range as ISO-8859-1 characters, read with absolute gets, so a frame can be scanned
+ * straight from a buffer. The message format is ASCII, and any other byte maps to a character that the
+ * scanner rejects just like the decoded character would be.
+ */
+public final class ByteBufferCharSequence implements CharSequence {
+
+    private ByteBuffer buffer;
+
+    private int start;
+
+    private int length;
+
+    public ByteBufferCharSequence wrap(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new ByteBufferCharSequence().wrap(buffer, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
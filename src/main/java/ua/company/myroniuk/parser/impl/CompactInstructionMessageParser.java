@@ -0,0 +1,53 @@
+package ua.company.myroniuk.parser.impl;
+
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+
+public class CompactInstructionMessageParser implements Parser<CompactInstructionMessage> {
+
+    private final InstructionMessageScanner scanner = new InstructionMessageScanner();
+
+    @Override
+    public CompactInstructionMessage parse(String message) {
+        return parse((CharSequence) message);
+    }
+
+    public CompactInstructionMessage parse(CharSequence message) {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        parseInto(message, target);
+        return target.toCompact();
+    }
+
+    @Override
+    public Result<CompactInstructionMessage> tryParse(String message) {
+        return tryParse((CharSequence) message);
+    }
+
+    public Result<CompactInstructionMessage> tryParse(CharSequence message) {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        return scanner.scan(message, target)
+                ? Result.success(target.toCompact())
+                : Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+    }
+
+    /**
+     * Parses the message into a caller-owned instance, which allocates nothing on the hot path.
+     */
+    public void parseInto(CharSequence message, MutableInstructionMessage target) {
+        if (!scanner.scan(message, target)) {
+            throw ErrorCode.NOT_VALID_MESSAGE_FORMAT.toException();
+        }
+    }
+
+    /**
+     * Same as {@link #parseInto(CharSequence, MutableInstructionMessage)}, but reports malformed input
+     * by returning {@code false}, in which case the target is left unchanged.
+     */
+    public boolean tryParseInto(CharSequence message, MutableInstructionMessage target) {
+        return scanner.scan(message, target);
+    }
+
+}
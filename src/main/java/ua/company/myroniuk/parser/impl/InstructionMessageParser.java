@@ -1,23 +1,19 @@
 package ua.company.myroniuk.parser.impl;
 
-import ua.company.myroniuk.exception.InstructionMessageParseException;
 import ua.company.myroniuk.message.InstructionMessage;
 import ua.company.myroniuk.message.InstructionType;
 import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public class InstructionMessageParser implements Parser<InstructionMessage> {
 
     private static final String MESSAGE_REGEX =
             "^InstructionMessage ([A-D]) ([A-Za-z0-9]+) (\\d+) (\\d+) (\\S+)\\n$";
 
-    private static final String NOT_VALID_MESSAGE_FORMAT =
-            "Message format is not valid. Expected format: \n   " +
-                    "\"InstructionMessage <InstructionType> <ProductCode> <Quantity> <UOM> <Timestamp>\"\n" +
-                    "Timestamp must use the format: \"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'\".\n" +
-                    "Message must end with a newline character.";
-
     private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
 
     private static final String DELIMITER = " ";
@@ -34,20 +30,28 @@ public class InstructionMessageParser implements Parser<InstructionMessage> {
 
     @Override
     public InstructionMessage parse(String message) {
+        return tryParse(message).getOrThrow();
+    }
+
+    @Override
+    public Result<InstructionMessage> tryParse(String message) {
         if (message.matches(MESSAGE_REGEX)) {
             String[] words = message.trim().split(DELIMITER);
             return createInstructionMessage(words);
         } else {
-            throw new InstructionMessageParseException(NOT_VALID_MESSAGE_FORMAT);
+            return Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
         }
     }
 
-    private InstructionMessage createInstructionMessage(String[] words) {
+    private Result<InstructionMessage> createInstructionMessage(String[] words) {
         InstructionType instructionType = InstructionType.valueOf(words[INSTRUCTION_TYPE_INDEX]);
         String productCode = words[PRODUCT_CODE_INDEX];
-        Integer quantity = Integer.valueOf(words[QUANTITY_INDEX]);
-        Integer uom = Integer.valueOf(words[UOM_INDEX]);
+        Integer quantity = parseInteger(words[QUANTITY_INDEX]);
+        Integer uom = parseInteger(words[UOM_INDEX]);
         LocalDateTime timestamp = parseTimestamp(words[TIMESTAMP_INDEX]);
+        if (quantity == null || uom == null || timestamp == null) {
+            return Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+        }
 
         InstructionMessage message = new InstructionMessage();
         message.setInstructionType(instructionType);
@@ -56,14 +60,23 @@ public class InstructionMessageParser implements Parser<InstructionMessage> {
         message.setUom(uom);
         message.setTimestamp(timestamp);
 
-        return message;
+        return Result.success(message);
+    }
+
+    // The regular expression only lets digits through, so the number can only fail by not fitting an int.
+    private Integer parseInteger(String number) {
+        try {
+            return Integer.valueOf(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     private LocalDateTime parseTimestamp(String timestamp) {
         try {
             return LocalDateTime.parse(timestamp, DateTimeFormatter.ofPattern(DATE_FORMAT));
-        } catch (Exception e) {
-            throw new InstructionMessageParseException(NOT_VALID_MESSAGE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
         }
     }
 
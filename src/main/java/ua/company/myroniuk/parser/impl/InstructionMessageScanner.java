@@ -0,0 +1,264 @@
+package ua.company.myroniuk.parser.impl;
+
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Single-pass scanner of the text message format. It accepts exactly what the regular expression of
+ * {@link InstructionMessageParser} accepts and fills a {@link MutableInstructionMessage} in place.
+ * Malformed input is reported by the return value rather than an exception, and leaves the target untouched.
+ */
+final class InstructionMessageScanner {
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
+
+    private static final String HEADER = "InstructionMessage ";
+
+    private static final char DELIMITER = ' ';
+
+    private static final char NEWLINE = '\n';
+
+    private static final int TIMESTAMP_LENGTH = 24;
+
+    private static final int NOT_VALID = -1;
+
+    private static final long NOT_VALID_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int PRODUCT_CODE = 0;
+
+    private static final int DIGITS = 1;
+
+    private static final int NON_WHITESPACE = 2;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final long DAYS_0000_TO_1970 = 719_528;
+
+    boolean scan(CharSequence message, MutableInstructionMessage target) {
+        int length = message.length();
+        int position = skipHeader(message);
+        if (position == NOT_VALID) {
+            return false;
+        }
+
+        InstructionType instructionType = parseInstructionType(message.charAt(position++));
+        if (instructionType == null) {
+            return false;
+        }
+        position = skipDelimiter(message, position);
+
+        int productCodeEnd = scanWhile(message, position, PRODUCT_CODE);
+        if (productCodeEnd == NOT_VALID) {
+            return false;
+        }
+        int productCodeStart = position;
+        position = skipDelimiter(message, productCodeEnd);
+
+        int quantityEnd = scanWhile(message, position, DIGITS);
+        int quantity = parseInt(message, position, quantityEnd);
+        position = skipDelimiter(message, quantityEnd);
+
+        int uomEnd = scanWhile(message, position, DIGITS);
+        int uom = parseInt(message, position, uomEnd);
+        position = skipDelimiter(message, uomEnd);
+
+        int timestampEnd = scanWhile(message, position, NON_WHITESPACE);
+        if (quantity == NOT_VALID || uom == NOT_VALID || timestampEnd == NOT_VALID
+                || timestampEnd != length - 1 || message.charAt(timestampEnd) != NEWLINE) {
+            return false;
+        }
+        long timestamp = parseTimestamp(message, position, timestampEnd);
+        if (timestamp == NOT_VALID_TIMESTAMP) {
+            return false;
+        }
+        target.setInstructionType(instructionType);
+        target.setProductCode(message, productCodeStart, productCodeEnd);
+        target.setQuantity(quantity);
+        target.setUom(uom);
+        target.setTimestamp(timestamp);
+        return true;
+    }
+
+    private int skipHeader(CharSequence message) {
+        int length = HEADER.length();
+        if (message.length() <= length) {
+            return NOT_VALID;
+        }
+        for (int i = 0; i < length; i++) {
+            if (message.charAt(i) != HEADER.charAt(i)) {
+                return NOT_VALID;
+            }
+        }
+        return length;
+    }
+
+    private InstructionType parseInstructionType(char c) {
+        switch (c) {
+            case 'A':
+                return InstructionType.A;
+            case 'B':
+                return InstructionType.B;
+            case 'C':
+                return InstructionType.C;
+            case 'D':
+                return InstructionType.D;
+            default:
+                return null;
+        }
+    }
+
+    // Every step passes NOT_VALID on, so a malformed message is rejected by the first check that sees it.
+    private int skipDelimiter(CharSequence message, int position) {
+        if (position == NOT_VALID || position >= message.length() || message.charAt(position) != DELIMITER) {
+            return NOT_VALID;
+        }
+        return position + 1;
+    }
+
+    private int scanWhile(CharSequence message, int position, int charClass) {
+        if (position == NOT_VALID) {
+            return NOT_VALID;
+        }
+        int end = position;
+        while (end < message.length() && isOfClass(message.charAt(end), charClass)) {
+            end++;
+        }
+        if (end == position || (charClass == NON_WHITESPACE && end == message.length())) {
+            return NOT_VALID;
+        }
+        return end;
+    }
+
+    private int parseInt(CharSequence message, int start, int end) {
+        if (start == NOT_VALID || end == NOT_VALID) {
+            return NOT_VALID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (message.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return NOT_VALID;
+            }
+        }
+        return (int) value;
+    }
+
+    // Fast path for the canonical "yyyy-MM-ddTHH:mm:ss.SSSZ" layout; any other shape goes through the
+    // formatter, so that both paths accept and reject exactly the same timestamps. Hour 24 goes through the
+    // formatter too, which resolves 24:00:00.000 to midnight of the next day.
+    private long parseTimestamp(CharSequence message, int start, int end) {
+        if (end - start == TIMESTAMP_LENGTH && hasTimestampLayout(message, start)
+                && !(message.charAt(start + 11) == '2' && message.charAt(start + 12) == '4')) {
+            int year = parseInt(message, start, start + 4);
+            int month = parseInt(message, start + 5, start + 7);
+            int day = parseInt(message, start + 8, start + 10);
+            int hour = parseInt(message, start + 11, start + 13);
+            int minute = parseInt(message, start + 14, start + 16);
+            int second = parseInt(message, start + 17, start + 19);
+            int milli = parseInt(message, start + 20, start + 23);
+            if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31
+                    || hour > 23 || minute > 59 || second > 59) {
+                return NOT_VALID_TIMESTAMP;
+            }
+            day = Math.min(day, lengthOfMonth(year, month));
+            long seconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+            return seconds * MILLIS_PER_SECOND + milli;
+        }
+        try {
+            return LocalDateTime.parse(message.subSequence(start, end), DATE_FORMATTER)
+                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return NOT_VALID_TIMESTAMP;
+        }
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for years from 1 to 9999.
+    private long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!Year.isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private boolean hasTimestampLayout(CharSequence message, int start) {
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char c = message.charAt(start + i);
+            switch (i) {
+                case 4:
+                case 7:
+                    if (c != '-') return false;
+                    break;
+                case 10:
+                    if (c != 'T') return false;
+                    break;
+                case 13:
+                case 16:
+                    if (c != ':') return false;
+                    break;
+                case 19:
+                    if (c != '.') return false;
+                    break;
+                case 23:
+                    if (c != 'Z') return false;
+                    break;
+                default:
+                    if (!isDigit(c)) return false;
+            }
+        }
+        return true;
+    }
+
+    // The formatter resolves dates in SMART mode, which clamps a day-of-month such as 31 to the last day of the month.
+    private int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return Year.isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private boolean isOfClass(char c, int charClass) {
+        switch (charClass) {
+            case PRODUCT_CODE:
+                return isLetterOrDigit(c);
+            case DIGITS:
+                return isDigit(c);
+            default:
+                return !isWhitespace(c);
+        }
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private boolean isLetterOrDigit(char c) {
+        return isDigit(c) || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+}
@@ -0,0 +1,46 @@
+package ua.company.myroniuk.parser.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+
+public class ScanningInstructionMessageParser implements Parser<InstructionMessage> {
+
+    private final InstructionMessageScanner scanner = new InstructionMessageScanner();
+
+    @Override
+    public InstructionMessage parse(String message) {
+        return parse((CharSequence) message);
+    }
+
+    public InstructionMessage parse(CharSequence message) {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        parseInto(message, target);
+        return target.toInstructionMessage();
+    }
+
+    @Override
+    public Result<InstructionMessage> tryParse(String message) {
+        return tryParse((CharSequence) message);
+    }
+
+    public Result<InstructionMessage> tryParse(CharSequence message) {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        return scanner.scan(message, target)
+                ? Result.success(target.toInstructionMessage())
+                : Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+    }
+
+    public void parseInto(CharSequence message, MutableInstructionMessage target) {
+        if (!scanner.scan(message, target)) {
+            throw ErrorCode.NOT_VALID_MESSAGE_FORMAT.toException();
+        }
+    }
+
+    public boolean tryParseInto(CharSequence message, MutableInstructionMessage target) {
+        return scanner.scan(message, target);
+    }
+
+}
@@ -0,0 +1,47 @@
+package ua.company.myroniuk.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public interface BlockingQueue<E> extends Queue<E> {
+
+    E take() throws InterruptedException;
+
+    E poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Waits up to the timeout for an element, then removes it and up to {@code max - 1} more that are
+     * already available, as {@link #drainTo(Collection, int)} does.
+     *
+     * @return the number of elements moved, zero if the timeout elapsed
+     */
+    default int drainTo(Collection<? super E> target, int max, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (max <= 0) {
+            return 0;
+        }
+        E first = poll(timeout, unit);
+        if (first == null) {
+            return 0;
+        }
+        target.add(first);
+        return 1 + drainTo(target, max - 1);
+    }
+
+    /**
+     * Waits for at least one element and returns it together with up to {@code max - 1} more that are
+     * already available.
+     */
+    default List<E> takeBatch(int max) throws InterruptedException {
+        if (max <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        List<E> batch = new ArrayList<>(Math.min(max, Math.max(1, count())));
+        batch.add(take());
+        drainTo(batch, max - 1);
+        return batch;
+    }
+
+}
@@ -0,0 +1,11 @@
+package ua.company.myroniuk.queue;
+
+public interface BoundedQueue<E> extends BlockingQueue<E> {
+
+    OfferResult offer(E e);
+
+    int capacity();
+
+    int remainingCapacity();
+
+}
@@ -0,0 +1,17 @@
+package ua.company.myroniuk.queue;
+
+import ua.company.myroniuk.message.InstructionMessage;
+
+/**
+ * Merges an incoming instruction message into a pending one with the same instruction type, product code and
+ * unit of measure. Rules must not modify either message.
+ */
+@FunctionalInterface
+public interface CoalescingRule {
+
+    /**
+     * @return the merged message, or {@code null} to keep both messages queued
+     */
+    InstructionMessage merge(InstructionMessage pending, InstructionMessage incoming);
+
+}
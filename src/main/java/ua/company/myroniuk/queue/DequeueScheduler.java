@@ -0,0 +1,29 @@
+package ua.company.myroniuk.queue;
+
+import ua.company.myroniuk.message.Priority;
+
+/**
+ * Decides which {@link Priority} a priority bucket queue serves next. Priorities are passed as a bit set of
+ * the non-empty buckets, bit {@code i} standing for the priority with ordinal {@code i}, and the set is never
+ * empty. By default the highest priority is always served first.
+ */
+public interface DequeueScheduler {
+
+    DequeueScheduler STRICT = new DequeueScheduler() {
+    };
+
+    /**
+     * Returns the ordinal of the priority to dequeue from and accounts for the dequeue.
+     */
+    default int next(int nonEmpty) {
+        return Integer.numberOfTrailingZeros(nonEmpty);
+    }
+
+    /**
+     * Returns the ordinal {@link #next(int)} would return, without accounting for a dequeue.
+     */
+    default int peek(int nonEmpty) {
+        return Integer.numberOfTrailingZeros(nonEmpty);
+    }
+
+}
@@ -0,0 +1,21 @@
+package ua.company.myroniuk.queue;
+
+/**
+ * A message handed out by a {@link LeasingQueue}. The message stays invisible to other consumers until the
+ * lease is acknowledged, released or expires.
+ */
+public interface Lease<E> {
+
+    E getMessage();
+
+    /**
+     * Returns how many times the message has been handed out, this time included.
+     */
+    int getDeliveryCount();
+
+    /**
+     * Returns the time in milliseconds since the epoch after which the message is delivered again.
+     */
+    long getDeadline();
+
+}
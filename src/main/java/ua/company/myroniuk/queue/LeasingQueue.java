@@ -0,0 +1,37 @@
+package ua.company.myroniuk.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue that hands messages out on a lease, so that a message whose consumer fails before acknowledging it
+ * is delivered again instead of being lost. {@link #dequeue()} still removes a message for good.
+ */
+public interface LeasingQueue<E> extends Queue<E> {
+
+    /**
+     * Leases the next message, or returns {@code null} if no message is visible.
+     */
+    Lease<E> lease();
+
+    /**
+     * Waits up to the timeout for a visible message and leases it.
+     *
+     * @return {@code null} if the timeout elapsed
+     */
+    Lease<E> lease(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes the leased message for good.
+     *
+     * @return {@code false} if the lease had already expired or ended, so the message may be delivered again
+     */
+    boolean ack(Lease<E> lease);
+
+    /**
+     * Gives the message back before the lease expires, so that it is delivered again at once.
+     *
+     * @return {@code false} if the lease had already expired or ended
+     */
+    boolean release(Lease<E> lease);
+
+}
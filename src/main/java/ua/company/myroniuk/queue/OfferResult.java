@@ -0,0 +1,22 @@
+package ua.company.myroniuk.queue;
+
+public enum OfferResult {
+
+    ACCEPTED,
+
+    ACCEPTED_AFTER_DROPPING_OLDEST_LOW,
+
+    SPILLED,
+
+    REJECTED,
+
+    /**
+     * Dropped as a duplicate of a message received before, which counts as accepted.
+     */
+    DUPLICATE;
+
+    public boolean isAccepted() {
+        return this != REJECTED;
+    }
+
+}
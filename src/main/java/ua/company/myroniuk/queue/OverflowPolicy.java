@@ -0,0 +1,13 @@
+package ua.company.myroniuk.queue;
+
+public enum OverflowPolicy {
+
+    BLOCK,
+
+    REJECT,
+
+    DROP_OLDEST_LOW,
+
+    SPILL_TO_DISK
+
+}
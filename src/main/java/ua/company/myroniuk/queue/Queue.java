@@ -1,9 +1,23 @@
 package ua.company.myroniuk.queue;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public interface Queue<E> {
 
     void enqueue(E e);
 
+    /**
+     * Adds every element. The default implementation enqueues one element at a time; implementations
+     * override it to add the whole batch in one operation.
+     */
+    default void enqueueAll(Collection<? extends E> elements) {
+        for (E e : elements) {
+            enqueue(e);
+        }
+    }
+
     E dequeue();
 
     E peek();
@@ -12,4 +26,27 @@ public interface Queue<E> {
 
     boolean isEmpty();
 
+    /**
+     * Removes up to {@code max} elements in dequeue order and adds them to the target. The default
+     * implementation dequeues one element at a time; implementations override it to remove the whole
+     * batch in one operation.
+     *
+     * @return the number of elements moved
+     */
+    default int drainTo(Collection<? super E> target, int max) {
+        int drained = 0;
+        E e;
+        while (drained < max && (e = dequeue()) != null) {
+            target.add(e);
+            drained++;
+        }
+        return drained;
+    }
+
+    default List<E> dequeueBatch(int max) {
+        List<E> batch = new ArrayList<>(Math.max(0, Math.min(max, count())));
+        drainTo(batch, max);
+        return batch;
+    }
+
 }
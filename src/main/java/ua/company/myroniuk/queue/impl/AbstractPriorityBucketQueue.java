@@ -0,0 +1,112 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.DequeueScheduler;
+import ua.company.myroniuk.queue.Queue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Objects;
+
+public abstract class AbstractPriorityBucketQueue<E> implements Queue<E> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final ArrayDeque<E>[] buckets;
+
+    private final DequeueScheduler scheduler;
+
+    private int count;
+
+    protected AbstractPriorityBucketQueue() {
+        this(DequeueScheduler.STRICT);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected AbstractPriorityBucketQueue(DequeueScheduler scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+        buckets = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    protected abstract Priority getPriority(E e);
+
+    @Override
+    public void enqueue(E e) {
+        Objects.requireNonNull(e);
+        buckets[getPriority(e).ordinal()].addLast(e);
+        count++;
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends E> elements) {
+        for (E e : elements) {
+            enqueue(e);
+        }
+    }
+
+    @Override
+    public E dequeue() {
+        if (count == 0) {
+            return null;
+        }
+        count--;
+        return buckets[scheduler.next(nonEmptyBuckets())].pollFirst();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int max) {
+        int drained = 0;
+        if (scheduler == DequeueScheduler.STRICT) {
+            for (ArrayDeque<E> bucket : buckets) {
+                while (drained < max && !bucket.isEmpty()) {
+                    target.add(bucket.pollFirst());
+                    count--;
+                    drained++;
+                }
+            }
+            return drained;
+        }
+        while (drained < max && count > 0) {
+            target.add(buckets[scheduler.next(nonEmptyBuckets())].pollFirst());
+            count--;
+            drained++;
+        }
+        return drained;
+    }
+
+    @Override
+    public E peek() {
+        return count == 0 ? null : buckets[scheduler.peek(nonEmptyBuckets())].peekFirst();
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public DequeueScheduler getScheduler() {
+        return scheduler;
+    }
+
+    ArrayDeque<E> getBucket(Priority priority) {
+        return buckets[priority.ordinal()];
+    }
+
+    private int nonEmptyBuckets() {
+        int nonEmpty = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (!buckets[i].isEmpty()) {
+                nonEmpty |= 1 << i;
+            }
+        }
+        return nonEmpty;
+    }
+
+}
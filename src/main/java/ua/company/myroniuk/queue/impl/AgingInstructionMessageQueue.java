@@ -0,0 +1,224 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.Queue;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Priority queue in which waiting raises a message's effective priority, so that a steady stream of
+ * {@link Priority#HIGH} messages cannot starve the others. A message of priority {@code p} that has waited
+ * for {@code t} has the effective level {@code p.ordinal() - t / agingInterval(p)}; the message with the
+ * lowest level is dequeued first, and ties go to the higher base priority.
+ * <p>
+ * Each priority keeps its own bucket ordered by age, so only the bucket heads are compared: O(1) per
+ * operation when aging by {@link AgeSource#ENQUEUE_TIME}, and O(log n) by {@link AgeSource#MESSAGE_TIMESTAMP},
+ * which has to order every bucket by timestamp. With one aging interval {@code d} for all priorities a message
+ * never waits behind a message of higher priority that arrived more than {@code d} per priority level after it,
+ * which bounds the wait of a {@link Priority#LOW} message to {@code 2d} plus the time to drain older messages.
+ * <p>
+ * The queue is not thread-safe.
+ */
+public class AgingInstructionMessageQueue implements Queue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final AgeSource ageSource;
+
+    private final LongSupplier clock;
+
+    private final java.util.Queue<Entry>[] buckets;
+
+    private final long[] agingIntervals = new long[PRIORITIES.length];
+
+    private long sequence;
+
+    private long promotedCount;
+
+    private int count;
+
+    public enum AgeSource {
+
+        /**
+         * Age from the moment the message was enqueued.
+         */
+        ENQUEUE_TIME,
+
+        /**
+         * Age from the message timestamp, read as UTC like everywhere else in the queues. Messages without
+         * a timestamp age from their enqueue.
+         */
+        MESSAGE_TIMESTAMP
+
+    }
+
+    public AgingInstructionMessageQueue(long agingInterval, TimeUnit unit) {
+        this(AgeSource.ENQUEUE_TIME, agingInterval, unit);
+    }
+
+    public AgingInstructionMessageQueue(AgeSource ageSource, long agingInterval, TimeUnit unit) {
+        this(ageSource, agingInterval, unit, ageSource == AgeSource.ENQUEUE_TIME
+                ? System::nanoTime
+                : () -> CompactInstructionMessage.toEpochMilli(LocalDateTime.now()));
+    }
+
+    /**
+     * @param clock current time in nanoseconds for {@link AgeSource#ENQUEUE_TIME} and in epoch milliseconds
+     *              for {@link AgeSource#MESSAGE_TIMESTAMP}
+     */
+    @SuppressWarnings("unchecked")
+    AgingInstructionMessageQueue(AgeSource ageSource, long agingInterval, TimeUnit unit, LongSupplier clock) {
+        this.ageSource = Objects.requireNonNull(ageSource);
+        this.clock = clock;
+        buckets = new java.util.Queue[PRIORITIES.length];
+        for (Priority priority : PRIORITIES) {
+            buckets[priority.ordinal()] = ageSource == AgeSource.ENQUEUE_TIME
+                    ? new ArrayDeque<>()
+                    : new PriorityQueue<>(Comparator.comparingLong((Entry entry) -> entry.origin)
+                            .thenComparingLong(entry -> entry.sequence));
+            setAgingInterval(priority, agingInterval, unit);
+        }
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        buckets[message.getInstructionType().getPriority().ordinal()]
+                .offer(new Entry(message, originOf(message), sequence++));
+        count++;
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            enqueue(message);
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        int bucket = nextBucket();
+        if (bucket < 0) {
+            return null;
+        }
+        if (bucket > 0 && hasHigherPriorityMessage(bucket)) {
+            promotedCount++;
+        }
+        count--;
+        return buckets[bucket].poll().message;
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        int bucket = nextBucket();
+        return bucket < 0 ? null : buckets[bucket].peek().message;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Sets how long a message of the given priority waits to rise one priority level. Applies to the
+     * messages already queued as well.
+     */
+    public void setAgingInterval(Priority priority, long interval, TimeUnit unit) {
+        long converted = ageSource == AgeSource.ENQUEUE_TIME ? unit.toNanos(interval) : unit.toMillis(interval);
+        if (converted < 1) {
+            throw new IllegalArgumentException("Aging interval must be positive.");
+        }
+        agingIntervals[priority.ordinal()] = converted;
+    }
+
+    public long getAgingInterval(Priority priority, TimeUnit unit) {
+        long interval = agingIntervals[priority.ordinal()];
+        return ageSource == AgeSource.ENQUEUE_TIME
+                ? unit.convert(interval, TimeUnit.NANOSECONDS)
+                : unit.convert(interval, TimeUnit.MILLISECONDS);
+    }
+
+    public AgeSource getAgeSource() {
+        return ageSource;
+    }
+
+    /**
+     * Returns how many messages were dequeued ahead of a waiting message of higher base priority.
+     */
+    public long getPromotedCount() {
+        return promotedCount;
+    }
+
+    private long originOf(InstructionMessage message) {
+        if (ageSource == AgeSource.MESSAGE_TIMESTAMP && message.getTimestamp() != null) {
+            return CompactInstructionMessage.toEpochMilli(message.getTimestamp());
+        }
+        return clock.getAsLong();
+    }
+
+    private int nextBucket() {
+        if (count == 0) {
+            return -1;
+        }
+        int next = -1;
+        double nextLevel = 0;
+        long now = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            Entry head = buckets[i].peek();
+            if (head == null) {
+                continue;
+            }
+            if (next < 0 && count == buckets[i].size()) {
+                return i;
+            }
+            if (next < 0) {
+                now = clock.getAsLong();
+            }
+            double level = i - (double) (now - head.origin) / agingIntervals[i];
+            if (next < 0 || level < nextLevel) {
+                next = i;
+                nextLevel = level;
+            }
+        }
+        return next;
+    }
+
+    private boolean hasHigherPriorityMessage(int bucket) {
+        for (int i = 0; i < bucket; i++) {
+            if (!buckets[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+
+        private final InstructionMessage message;
+
+        private final long origin;
+
+        private final long sequence;
+
+        private Entry(InstructionMessage message, long origin, long sequence) {
+            this.message = message;
+            this.origin = origin;
+            this.sequence = sequence;
+        }
+
+    }
+
+}
@@ -0,0 +1,377 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.exception.InstructionMessageQueueFullException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.BoundedQueue;
+import ua.company.myroniuk.queue.OfferResult;
+import ua.company.myroniuk.queue.OverflowPolicy;
+import ua.company.myroniuk.queue.Queue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe priority queue that holds at most {@code capacity} messages in memory and applies an
+ * {@link OverflowPolicy} once it is full.
+ * <p>
+ * With {@link OverflowPolicy#SPILL_TO_DISK} overflowing messages go to the given spill queue, typically
+ * {@link MappedInstructionMessageQueue} or {@link PersistentInstructionMessageQueue}. While the spill queue
+ * is not empty every new message is spilled too, so messages of the same priority still leave in FIFO order.
+ * As messages leave memory, spilled ones are moved back in to take their place, so once the load drops the
+ * queue runs from memory again.
+ */
+public class BoundedInstructionMessageQueue implements BoundedQueue<InstructionMessage> {
+
+    private static final String QUEUE_IS_FULL = "Instruction message queue is full. Capacity: %d.";
+
+    private static final String INTERRUPTED = "Interrupted while waiting for space in the instruction message queue.";
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Queue<InstructionMessage> spillQueue;
+
+    private final ArrayDeque<InstructionMessage>[] buckets;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private int count;
+
+    public BoundedInstructionMessageQueue(int capacity, OverflowPolicy overflowPolicy) {
+        this(capacity, overflowPolicy, null);
+        if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK) {
+            throw new IllegalArgumentException("Spilling needs a spill queue.");
+        }
+    }
+
+    public BoundedInstructionMessageQueue(int capacity, Queue<InstructionMessage> spillQueue) {
+        this(capacity, OverflowPolicy.SPILL_TO_DISK, Objects.requireNonNull(spillQueue));
+    }
+
+    @SuppressWarnings("unchecked")
+    private BoundedInstructionMessageQueue(int capacity, OverflowPolicy overflowPolicy,
+                                           Queue<InstructionMessage> spillQueue) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.spillQueue = spillQueue;
+        buckets = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Adds the message, waiting for space under {@link OverflowPolicy#BLOCK}.
+     *
+     * @throws InstructionMessageQueueFullException if the message is rejected by the overflow policy, or if
+     *                                              the thread is interrupted while it waits for space; the
+     *                                              interrupt status is then set again
+     */
+    @Override
+    public void enqueue(InstructionMessage message) {
+        try {
+            put(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InstructionMessageQueueFullException(INTERRUPTED, e);
+        }
+    }
+
+    /**
+     * Like {@link #enqueue}, but the wait for space under {@link OverflowPolicy#BLOCK} can be interrupted.
+     */
+    public void put(InstructionMessage message) throws InterruptedException {
+        Objects.requireNonNull(message);
+        lock.lockInterruptibly();
+        try {
+            awaitSpace(1);
+            if (!add(message).isAccepted()) {
+                throw new InstructionMessageQueueFullException(String.format(QUEUE_IS_FULL, capacity));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds all messages or none of them. Under {@link OverflowPolicy#BLOCK} it waits until the whole batch
+     * fits, and under {@link OverflowPolicy#DROP_OLDEST_LOW} only low priority messages queued before the
+     * batch are dropped to make room. A batch larger than the capacity is only accepted when it is spilled.
+     *
+     * @throws InstructionMessageQueueFullException if the batch does not fit, or if the thread is interrupted
+     *                                              while it waits for space
+     */
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            Objects.requireNonNull(message);
+        }
+        lock.lock();
+        try {
+            int size = messages.size();
+            if (overflowPolicy != OverflowPolicy.SPILL_TO_DISK && size > capacity) {
+                throw new InstructionMessageQueueFullException(String.format(QUEUE_IS_FULL, capacity));
+            }
+            try {
+                awaitSpace(size);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InstructionMessageQueueFullException(INTERRUPTED, e);
+            }
+            int droppable = overflowPolicy == OverflowPolicy.DROP_OLDEST_LOW
+                    ? buckets[Priority.LOW.ordinal()].size() : 0;
+            if (overflowPolicy != OverflowPolicy.SPILL_TO_DISK && size > capacity - count + droppable) {
+                throw new InstructionMessageQueueFullException(String.format(QUEUE_IS_FULL, capacity));
+            }
+            for (InstructionMessage message : messages) {
+                add(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public OfferResult offer(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        lock.lock();
+        try {
+            return add(message);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        lock.lock();
+        try {
+            return remove();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            InstructionMessage message;
+            while ((message = remove()) == null) {
+                notEmpty.await();
+            }
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            InstructionMessage message;
+            while ((message = remove()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        lock.lock();
+        try {
+            return drainAvailable(target, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (max <= 0) {
+            return 0;
+        }
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count + spilledCount() == 0) {
+                if (nanos <= 0) {
+                    return 0;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return drainAvailable(target, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        lock.lock();
+        try {
+            ArrayDeque<InstructionMessage> bucket = firstNonEmptyBucket();
+            InstructionMessage spilled = spillQueue == null ? null : spillQueue.peek();
+            if (bucket == null) {
+                return spilled;
+            }
+            return spilled != null && precedes(spilled, bucket.peekFirst()) ? spilled : bucket.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int count() {
+        lock.lock();
+        try {
+            return count + spilledCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    ArrayDeque<InstructionMessage> getBucket(Priority priority) {
+        return buckets[priority.ordinal()];
+    }
+
+    private void awaitSpace(int size) throws InterruptedException {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (capacity - count < size) {
+                notFull.await();
+            }
+        }
+    }
+
+    private OfferResult add(InstructionMessage message) {
+        ArrayDeque<InstructionMessage> bucket = buckets[priorityOf(message).ordinal()];
+        if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && (count == capacity || spilledCount() > 0)) {
+            spillQueue.enqueue(message);
+            notEmpty.signal();
+            return OfferResult.SPILLED;
+        }
+        OfferResult result = OfferResult.ACCEPTED;
+        if (count == capacity) {
+            ArrayDeque<InstructionMessage> low = buckets[Priority.LOW.ordinal()];
+            if (overflowPolicy != OverflowPolicy.DROP_OLDEST_LOW || low.isEmpty()) {
+                return OfferResult.REJECTED;
+            }
+            low.pollFirst();
+            count--;
+            result = OfferResult.ACCEPTED_AFTER_DROPPING_OLDEST_LOW;
+        }
+        bucket.addLast(message);
+        count++;
+        notEmpty.signal();
+        return result;
+    }
+
+    private InstructionMessage remove() {
+        ArrayDeque<InstructionMessage> bucket = firstNonEmptyBucket();
+        InstructionMessage spilled = spilledCount() > 0 ? spillQueue.peek() : null;
+        if (spilled != null && (bucket == null || precedes(spilled, bucket.peekFirst()))) {
+            return spillQueue.dequeue();
+        }
+        if (bucket == null) {
+            return null;
+        }
+        InstructionMessage message = bucket.pollFirst();
+        count--;
+        unspill();
+        // A producer waiting for a whole batch to fit must not absorb the wakeup of one waiting for one slot.
+        notFull.signalAll();
+        return message;
+    }
+
+    // Spilled messages are newer than the ones held in memory, so they go to the back of their buckets.
+    private void unspill() {
+        InstructionMessage spilled;
+        while (count < capacity && spilledCount() > 0 && (spilled = spillQueue.dequeue()) != null) {
+            buckets[priorityOf(spilled).ordinal()].addLast(spilled);
+            count++;
+        }
+    }
+
+    private int drainAvailable(Collection<? super InstructionMessage> target, int max) {
+        int drained = 0;
+        InstructionMessage message;
+        while (drained < max && (message = remove()) != null) {
+            target.add(message);
+            drained++;
+        }
+        return drained;
+    }
+
+    // Spilled messages are newer than the ones held in memory, so they only go first with a higher priority.
+    private boolean precedes(InstructionMessage spilled, InstructionMessage held) {
+        return priorityOf(spilled).ordinal() < priorityOf(held).ordinal();
+    }
+
+    private Priority priorityOf(InstructionMessage message) {
+        return message.getInstructionType().getPriority();
+    }
+
+    private int spilledCount() {
+        return spillQueue == null ? 0 : spillQueue.count();
+    }
+
+    private ArrayDeque<InstructionMessage> firstNonEmptyBucket() {
+        if (count == 0) {
+            return null;
+        }
+        for (ArrayDeque<InstructionMessage> bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+}
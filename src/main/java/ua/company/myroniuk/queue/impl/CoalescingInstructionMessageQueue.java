@@ -0,0 +1,171 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.CoalescingRule;
+import ua.company.myroniuk.queue.Queue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Priority queue that holds at most one pending message per instruction type, product code and unit of
+ * measure. Messages with different units of measure are never merged, so a rule can add up quantities
+ * without converting them. A message whose key is already pending is merged into the pending one by a
+ * {@link CoalescingRule} and takes over its place in the queue, so repeated updates never push a product to
+ * the back. As long as the rule merges, the queue size is bounded by the number of distinct keys rather than
+ * by the message rate.
+ * <p>
+ * A rule that cannot merge two messages returns {@code null}. The pending message then keeps its place and
+ * the incoming one is queued behind it as the new pending message of the key.
+ * <p>
+ * Entries wait in a FIFO bucket per {@link Priority} and the pending entry of each key in a map, so every
+ * operation is O(1).
+ * The queue is not thread-safe.
+ */
+public class CoalescingInstructionMessageQueue implements Queue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final CoalescingRule rule;
+
+    private final ArrayDeque<Entry>[] buckets;
+
+    private final Map<Key, Entry> pending = new HashMap<>();
+
+    private int count;
+
+    private long coalescedCount;
+
+    @SuppressWarnings("unchecked")
+    public CoalescingInstructionMessageQueue(CoalescingRule rule) {
+        this.rule = Objects.requireNonNull(rule);
+        buckets = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        Key key = new Key(message.getInstructionType(), message.getProductCode(), message.getUom());
+        Entry current = pending.get(key);
+        if (current != null) {
+            InstructionMessage merged = rule.merge(current.message, message);
+            if (merged != null) {
+                current.message = merged;
+                coalescedCount++;
+                return;
+            }
+        }
+        Entry entry = new Entry(key, message);
+        pending.put(key, entry);
+        buckets[message.getInstructionType().getPriority().ordinal()].addLast(entry);
+        count++;
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            enqueue(message);
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        for (ArrayDeque<Entry> bucket : buckets) {
+            Entry entry = bucket.pollFirst();
+            if (entry != null) {
+                // An entry that could not take a later message is no longer the pending one of its key.
+                pending.remove(entry.key, entry);
+                count--;
+                return entry.message;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        for (ArrayDeque<Entry> bucket : buckets) {
+            Entry entry = bucket.peekFirst();
+            if (entry != null) {
+                return entry.message;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public CoalescingRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Returns how many enqueued messages were merged into a pending one.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    private static final class Entry {
+
+        private final Key key;
+
+        private InstructionMessage message;
+
+        private Entry(Key key, InstructionMessage message) {
+            this.key = key;
+            this.message = message;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final InstructionType instructionType;
+
+        private final String productCode;
+
+        private final Integer uom;
+
+        private Key(InstructionType instructionType, String productCode, Integer uom) {
+            this.instructionType = instructionType;
+            this.productCode = productCode;
+            this.uom = uom;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return instructionType == key.instructionType && Objects.equals(productCode, key.productCode)
+                    && Objects.equals(uom, key.uom);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * instructionType.hashCode() + Objects.hashCode(productCode)) + Objects.hashCode(uom);
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.queue.CoalescingRule;
+import java.time.LocalDateTime;
+
+public final class CoalescingRules {
+
+    private CoalescingRules() {
+    }
+
+    /**
+     * Adds up the quantities, which share a unit of measure because only messages with equal units are merged.
+     * The merged message takes the other fields of the incoming message and the later of the two timestamps.
+     * Messages whose total would overflow an {@code int} are not merged, so both stay queued.
+     */
+    public static CoalescingRule sumQuantity() {
+        return (pending, incoming) -> {
+            long quantity = (long) quantityOf(pending) + quantityOf(incoming);
+            if (quantity > Integer.MAX_VALUE || quantity < Integer.MIN_VALUE) {
+                return null;
+            }
+            InstructionMessage merged = new InstructionMessage();
+            merged.setInstructionType(incoming.getInstructionType());
+            merged.setProductCode(incoming.getProductCode());
+            merged.setQuantity((int) quantity);
+            merged.setUom(incoming.getUom());
+            merged.setTimestamp(later(pending.getTimestamp(), incoming.getTimestamp()));
+            return merged;
+        };
+    }
+
+    /**
+     * Keeps the message with the later timestamp, the incoming one on a tie or when either has no timestamp.
+     */
+    public static CoalescingRule lastWriterWins() {
+        return (pending, incoming) -> pending.getTimestamp() != null && incoming.getTimestamp() != null
+                && pending.getTimestamp().isAfter(incoming.getTimestamp()) ? pending : incoming;
+    }
+
+    private static int quantityOf(InstructionMessage message) {
+        return message.getQuantity() == null ? 0 : message.getQuantity();
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+}
@@ -0,0 +1,21 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.DequeueScheduler;
+
+public class CompactInstructionMessageQueue extends AbstractPriorityBucketQueue<CompactInstructionMessage> {
+
+    public CompactInstructionMessageQueue() {
+    }
+
+    public CompactInstructionMessageQueue(DequeueScheduler scheduler) {
+        super(scheduler);
+    }
+
+    @Override
+    protected Priority getPriority(CompactInstructionMessage message) {
+        return message.getPriority();
+    }
+
+}
@@ -0,0 +1,177 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.BlockingQueue;
+import ua.company.myroniuk.queue.DequeueScheduler;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentInstructionMessageQueue implements BlockingQueue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final ConcurrentLinkedQueue<InstructionMessage>[] buckets;
+
+    private final Semaphore available;
+
+    private final DequeueScheduler scheduler;
+
+    public ConcurrentInstructionMessageQueue() {
+        this(DequeueScheduler.STRICT);
+    }
+
+    /**
+     * @param scheduler shared by all consumers, so it has to be thread-safe
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentInstructionMessageQueue(DequeueScheduler scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+        buckets = new ConcurrentLinkedQueue[PRIORITIES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        available = new Semaphore(0);
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        bucket(message).offer(message);
+        available.release();
+    }
+
+    // Permits are released once for the whole batch, so waiting consumers are woken up a single time.
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        int added = 0;
+        try {
+            for (InstructionMessage message : messages) {
+                Objects.requireNonNull(message);
+                bucket(message).offer(message);
+                added++;
+            }
+        } finally {
+            available.release(added);
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        return available.tryAcquire() ? pollAcquired() : null;
+    }
+
+    @Override
+    public InstructionMessage take() throws InterruptedException {
+        available.acquire();
+        return pollAcquired();
+    }
+
+    @Override
+    public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? pollAcquired() : null;
+    }
+
+    // Permits for the whole batch are taken at once, so a drain costs one update of the semaphore.
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        int permits = acquireUpTo(max);
+        for (int i = 0; i < permits; i++) {
+            target.add(pollAcquired());
+        }
+        return permits;
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        if (scheduler != DequeueScheduler.STRICT) {
+            int nonEmpty = nonEmptyBuckets();
+            return nonEmpty == 0 ? null : buckets[scheduler.peek(nonEmpty)].peek();
+        }
+        for (ConcurrentLinkedQueue<InstructionMessage> bucket : buckets) {
+            InstructionMessage message = bucket.peek();
+            if (message != null) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int count() {
+        return available.availablePermits();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public DequeueScheduler getScheduler() {
+        return scheduler;
+    }
+
+    ConcurrentLinkedQueue<InstructionMessage> getBucket(Priority priority) {
+        return buckets[priority.ordinal()];
+    }
+
+    private int acquireUpTo(int max) {
+        while (true) {
+            int permits = Math.min(max, available.availablePermits());
+            if (permits <= 0) {
+                return 0;
+            }
+            if (available.tryAcquire(permits)) {
+                return permits;
+            }
+        }
+    }
+
+    private ConcurrentLinkedQueue<InstructionMessage> bucket(InstructionMessage message) {
+        return buckets[message.getInstructionType().getPriority().ordinal()];
+    }
+
+    // Every acquired permit is backed by a message that is already in one of the buckets,
+    // so the loop only repeats while another consumer races us for the same bucket.
+    private InstructionMessage pollAcquired() {
+        if (scheduler != DequeueScheduler.STRICT) {
+            return pollScheduled();
+        }
+        while (true) {
+            for (ConcurrentLinkedQueue<InstructionMessage> bucket : buckets) {
+                InstructionMessage message = bucket.poll();
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+    }
+
+    // A bucket can be drained by another consumer between the emptiness check and the poll; the
+    // scheduler has then accounted for a dequeue that did not happen, which only skews fairness slightly.
+    private InstructionMessage pollScheduled() {
+        while (true) {
+            int nonEmpty = nonEmptyBuckets();
+            if (nonEmpty != 0) {
+                InstructionMessage message = buckets[scheduler.next(nonEmpty)].poll();
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+    }
+
+    private int nonEmptyBuckets() {
+        int nonEmpty = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (!buckets[i].isEmpty()) {
+                nonEmpty |= 1 << i;
+            }
+        }
+        return nonEmpty;
+    }
+
+}
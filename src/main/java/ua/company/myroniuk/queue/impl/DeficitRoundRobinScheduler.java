@@ -0,0 +1,84 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.DequeueScheduler;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves priorities in round-robin order, each with a quantum of as many messages as its weight, so that
+ * with weights 8:3:1 and every bucket backlogged 8 HIGH, 3 MEDIUM and 1 LOW message leave per round.
+ * A priority found empty loses the rest of its quantum, as in deficit round-robin; every message costs
+ * one, so the deficit never carries over.
+ * <p>
+ * The current priority and its remaining quantum are packed into one {@code long} updated by CAS, so the
+ * scheduler is lock-free and can be shared by concurrent consumers.
+ */
+public class DeficitRoundRobinScheduler implements DequeueScheduler {
+
+    private static final int PRIORITIES = Priority.values().length;
+
+    private final int[] weights;
+
+    private final AtomicLong state;
+
+    /**
+     * @param weights quantum of each priority, in {@link Priority} order
+     */
+    public DeficitRoundRobinScheduler(int... weights) {
+        if (weights.length != PRIORITIES) {
+            throw new IllegalArgumentException("Expected a weight for each of " + PRIORITIES + " priorities.");
+        }
+        for (int weight : weights) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Weights must be positive.");
+            }
+        }
+        this.weights = weights.clone();
+        state = new AtomicLong(pack(0, this.weights[0]));
+    }
+
+    @Override
+    public int next(int nonEmpty) {
+        while (true) {
+            long current = state.get();
+            long next = advance(current, nonEmpty);
+            if (state.compareAndSet(current, pack(priorityOf(next), quantumOf(next) - 1))) {
+                return priorityOf(next);
+            }
+        }
+    }
+
+    @Override
+    public int peek(int nonEmpty) {
+        return priorityOf(advance(state.get(), nonEmpty));
+    }
+
+    public int getWeight(Priority priority) {
+        return weights[priority.ordinal()];
+    }
+
+    // Moves on from the current priority while it is empty or has used up its quantum; terminates because
+    // at least one priority is not empty and every fresh quantum is positive.
+    private long advance(long state, int nonEmpty) {
+        int priority = priorityOf(state);
+        int quantum = quantumOf(state);
+        while (quantum == 0 || (nonEmpty & (1 << priority)) == 0) {
+            priority = priority + 1 == PRIORITIES ? 0 : priority + 1;
+            quantum = weights[priority];
+        }
+        return pack(priority, quantum);
+    }
+
+    private static long pack(int priority, int quantum) {
+        return ((long) priority << 32) | quantum;
+    }
+
+    private static int priorityOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int quantumOf(long state) {
+        return (int) state;
+    }
+
+}
@@ -0,0 +1,251 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.queue.BlockingQueue;
+import ua.company.myroniuk.queue.Queue;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe queue that holds scheduled messages back until they are due. Scheduled messages wait in a
+ * {@link TimingWheel}, where inserting and expiring a message take constant time whatever the number of
+ * pending messages, and are moved into a priority queue once their due time has passed. Messages enqueued
+ * directly go to the priority queue at once. Due times are rounded up to whole ticks, so a message is never
+ * released early but may be released up to one tick late.
+ * <p>
+ * The wheel is advanced by the consumers, on every dequeue, peek and count, so no timer thread is needed.
+ */
+public class DelayedInstructionMessageQueue implements BlockingQueue<InstructionMessage> {
+
+    private final Queue<InstructionMessage> readyQueue;
+
+    private final long tickMillis;
+
+    private final LongSupplier clock;
+
+    private final TimingWheel<InstructionMessage> wheel;
+
+    private final Consumer<InstructionMessage> makeReady;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    public DelayedInstructionMessageQueue() {
+        this(new PriorityBucketInstructionMessageQueue(), 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param readyQueue receives the messages that are due; it is only used under the lock of this queue and
+     *                   must not reject messages
+     */
+    public DelayedInstructionMessageQueue(Queue<InstructionMessage> readyQueue, long tickDuration, TimeUnit unit) {
+        this(readyQueue, unit.toMillis(tickDuration), System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds since the epoch
+     */
+    DelayedInstructionMessageQueue(Queue<InstructionMessage> readyQueue, long tickMillis, LongSupplier clock) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick duration must be at least one millisecond.");
+        }
+        this.readyQueue = Objects.requireNonNull(readyQueue);
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(clock.getAsLong() / tickMillis);
+        this.makeReady = readyQueue::enqueue;
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        lock.lock();
+        try {
+            readyQueue.enqueue(message);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            Objects.requireNonNull(message);
+        }
+        lock.lock();
+        try {
+            readyQueue.enqueueAll(messages);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the message back until the delay has passed.
+     */
+    public void schedule(InstructionMessage message, long delay, TimeUnit unit) {
+        long delayNanos = unit.toNanos(delay);
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(delayNanos);
+        if (TimeUnit.MILLISECONDS.toNanos(delayMillis) < delayNanos) {
+            delayMillis++;
+        }
+        scheduleAt(message, clock.getAsLong() + delayMillis);
+    }
+
+    /**
+     * Holds the message back until the given time.
+     */
+    public void schedule(InstructionMessage message, Instant dueTime) {
+        scheduleAt(message, dueTime.toEpochMilli());
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        lock.lock();
+        try {
+            release();
+            return readyQueue.dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                InstructionMessage message = dequeueReady();
+                if (message != null) {
+                    return message;
+                }
+                long event = wheel.nextEventTick();
+                if (event == Long.MAX_VALUE) {
+                    changed.await();
+                } else {
+                    changed.await(millisUntil(event), TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                InstructionMessage message = dequeueReady();
+                if (message != null || remaining <= 0) {
+                    return message;
+                }
+                long event = wheel.nextEventTick();
+                long wait = event == Long.MAX_VALUE
+                        ? remaining : Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(millisUntil(event)));
+                remaining -= wait - changed.awaitNanos(wait);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        lock.lock();
+        try {
+            release();
+            return readyQueue.drainTo(target, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        lock.lock();
+        try {
+            release();
+            return readyQueue.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of messages that are due; scheduled messages are counted by {@link #getPendingCount()}.
+     */
+    @Override
+    public int count() {
+        lock.lock();
+        try {
+            release();
+            return readyQueue.count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            release();
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void scheduleAt(InstructionMessage message, long dueMillis) {
+        Objects.requireNonNull(message);
+        long dueTick = (dueMillis + tickMillis - 1) / tickMillis;
+        lock.lock();
+        try {
+            release();
+            if (!wheel.add(message, dueTick)) {
+                readyQueue.enqueue(message);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Wakes up another consumer when more messages are ready than this one takes.
+    private InstructionMessage dequeueReady() {
+        release();
+        InstructionMessage message = readyQueue.dequeue();
+        if (message != null && !readyQueue.isEmpty()) {
+            changed.signal();
+        }
+        return message;
+    }
+
+    private void release() {
+        wheel.advance(clock.getAsLong() / tickMillis, makeReady);
+    }
+
+    private long millisUntil(long tick) {
+        return Math.max(1, tick * tickMillis - clock.getAsLong());
+    }
+
+}
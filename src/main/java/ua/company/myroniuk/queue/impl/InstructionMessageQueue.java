@@ -2,6 +2,7 @@ package ua.company.myroniuk.queue.impl;
 
 import ua.company.myroniuk.message.InstructionMessage;
 import ua.company.myroniuk.queue.Queue;
+import java.util.Collection;
 import java.util.PriorityQueue;
 
 public class InstructionMessageQueue implements Queue<InstructionMessage> {
@@ -21,11 +22,29 @@ public class InstructionMessageQueue implements Queue<InstructionMessage> {
         priorityQueue.offer(message);
     }
 
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        priorityQueue.addAll(messages);
+    }
+
     @Override
     public InstructionMessage dequeue() {
         return priorityQueue.poll();
     }
 
+    /**
+     * Polls the heap for every message, so a batch comes out in the same order as repeated {@link #dequeue()}
+     * calls; the heap's array order is not the poll order for messages of one priority.
+     */
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        int drained = Math.max(0, Math.min(max, priorityQueue.size()));
+        for (int i = 0; i < drained; i++) {
+            target.add(priorityQueue.poll());
+        }
+        return drained;
+    }
+
     @Override
     public InstructionMessage peek() {
         return priorityQueue.peek();
@@ -0,0 +1,304 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.metrics.QueueMetrics;
+import ua.company.myroniuk.queue.BlockingQueue;
+import ua.company.myroniuk.queue.BoundedQueue;
+import ua.company.myroniuk.queue.OfferResult;
+import ua.company.myroniuk.queue.OverflowPolicy;
+import ua.company.myroniuk.queue.Queue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decorates a queue with per-priority depth and wait time measurements. Enqueue times are kept in a ring
+ * of primitive slots per priority, indexed by sequence, so recording them allocates nothing. Wait times are
+ * exact for queues that are FIFO within a priority and approximate for the others, such as
+ * {@link InstructionMessageQueue}, for messages that race each other through a concurrent queue, and once
+ * more messages of a priority are queued than its ring holds: at least {@value #DEFAULT_RING_SIZE} times, or
+ * the capacity of a bounded queue.
+ * <p>
+ * Depths and enqueue times are only right if every enqueued message is dequeued exactly once, so queues
+ * that drop or merge messages are refused: {@link CoalescingInstructionMessageQueue} and a
+ * {@link BoundedInstructionMessageQueue} that drops the oldest low priority message. Use {@link #of} to
+ * keep the {@link BlockingQueue} or {@link BoundedQueue} capabilities of the decorated queue.
+ * <p>
+ * The decorator is as thread-safe as the decorated queue.
+ */
+public class InstrumentedInstructionMessageQueue implements Queue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private static final int DEFAULT_RING_SIZE = 1 << 12;
+
+    private static final int MAX_RING_SIZE = 1 << 20;
+
+    private final Queue<InstructionMessage> queue;
+
+    private final QueueMetrics metrics;
+
+    private final EnqueueTimes[] enqueueTimes;
+
+    /**
+     * @throws IllegalArgumentException if the queue drops or merges messages
+     */
+    public InstrumentedInstructionMessageQueue(Queue<InstructionMessage> queue, QueueMetrics metrics) {
+        if (queue instanceof CoalescingInstructionMessageQueue || (queue instanceof BoundedInstructionMessageQueue
+                && ((BoundedInstructionMessageQueue) queue).getOverflowPolicy() == OverflowPolicy.DROP_OLDEST_LOW)) {
+            throw new IllegalArgumentException("Queues that drop or merge messages cannot be instrumented.");
+        }
+        this.queue = queue;
+        this.metrics = metrics;
+        int ringSize = queue instanceof BoundedQueue
+                ? Math.max(DEFAULT_RING_SIZE, ((BoundedQueue<InstructionMessage>) queue).capacity())
+                : DEFAULT_RING_SIZE;
+        ringSize = Math.min(MAX_RING_SIZE, Integer.highestOneBit(Math.max(1, ringSize - 1)) << 1);
+        enqueueTimes = new EnqueueTimes[PRIORITIES.length];
+        for (int i = 0; i < enqueueTimes.length; i++) {
+            enqueueTimes[i] = new EnqueueTimes(ringSize);
+        }
+    }
+
+    /**
+     * Decorates the queue with a decorator that is a {@link BoundedQueue} or a {@link BlockingQueue} when the
+     * queue is one, so that for example a receiver still sees the bound.
+     */
+    public static InstrumentedInstructionMessageQueue of(Queue<InstructionMessage> queue, QueueMetrics metrics) {
+        if (queue instanceof BoundedQueue) {
+            return new Bounded((BoundedQueue<InstructionMessage>) queue, metrics);
+        }
+        if (queue instanceof BlockingQueue) {
+            return new Blocking((BlockingQueue<InstructionMessage>) queue, metrics);
+        }
+        return new InstrumentedInstructionMessageQueue(queue, metrics);
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Priority priority = message.getInstructionType().getPriority();
+        EnqueueTimes times = enqueueTimes[priority.ordinal()];
+        long sequence = times.add(System.nanoTime());
+        try {
+            queue.enqueue(message);
+        } catch (RuntimeException e) {
+            times.cancel(sequence);
+            throw e;
+        }
+        metrics.recordEnqueued(priority);
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        long enqueueTime = System.nanoTime();
+        long[] sequences = new long[messages.size()];
+        int i = 0;
+        for (InstructionMessage message : messages) {
+            sequences[i++] = enqueueTimes[message.getInstructionType().getPriority().ordinal()].add(enqueueTime);
+        }
+        try {
+            queue.enqueueAll(messages);
+        } catch (RuntimeException e) {
+            InstructionMessage[] added = messages.toArray(new InstructionMessage[0]);
+            for (i = added.length - 1; i >= 0; i--) {
+                enqueueTimes[added[i].getInstructionType().getPriority().ordinal()].cancel(sequences[i]);
+            }
+            throw e;
+        }
+        for (InstructionMessage message : messages) {
+            metrics.recordEnqueued(message.getInstructionType().getPriority());
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        return recordDequeued(queue.dequeue());
+    }
+
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        return recordDrained(queue.dequeueBatch(max), target);
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public int count() {
+        return queue.count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public Queue<InstructionMessage> getQueue() {
+        return queue;
+    }
+
+    InstructionMessage recordDequeued(InstructionMessage message) {
+        if (message != null) {
+            Priority priority = message.getInstructionType().getPriority();
+            long enqueueTime = enqueueTimes[priority.ordinal()].poll();
+            metrics.recordDequeued(priority, enqueueTime == EnqueueTimes.NONE ? 0 : System.nanoTime() - enqueueTime);
+        }
+        return message;
+    }
+
+    int recordDrained(List<InstructionMessage> drained, Collection<? super InstructionMessage> target) {
+        long now = System.nanoTime();
+        for (InstructionMessage message : drained) {
+            Priority priority = message.getInstructionType().getPriority();
+            long enqueueTime = enqueueTimes[priority.ordinal()].poll();
+            metrics.recordDequeued(priority, enqueueTime == EnqueueTimes.NONE ? 0 : now - enqueueTime);
+        }
+        target.addAll(drained);
+        return drained.size();
+    }
+
+    OfferResult recordOffer(InstructionMessage message, BoundedQueue<InstructionMessage> boundedQueue) {
+        Priority priority = message.getInstructionType().getPriority();
+        EnqueueTimes times = enqueueTimes[priority.ordinal()];
+        long sequence = times.add(System.nanoTime());
+        OfferResult result;
+        try {
+            result = boundedQueue.offer(message);
+        } catch (RuntimeException e) {
+            times.cancel(sequence);
+            throw e;
+        }
+        if (result.isAccepted()) {
+            metrics.recordEnqueued(priority);
+        } else {
+            times.cancel(sequence);
+        }
+        return result;
+    }
+
+    /**
+     * Enqueue times by sequence. A slot is published by storing its sequence plus one after the time, and
+     * cancelled by storing the negated value, which a poll skips. A slot overwritten by a later sequence
+     * before it was polled yields the later time.
+     */
+    private static final class EnqueueTimes {
+
+        static final long NONE = Long.MIN_VALUE;
+
+        private final AtomicLongArray times;
+
+        private final AtomicLongArray sequences;
+
+        private final int mask;
+
+        private final AtomicLong head = new AtomicLong();
+
+        private final AtomicLong tail = new AtomicLong();
+
+        private EnqueueTimes(int size) {
+            times = new AtomicLongArray(size);
+            sequences = new AtomicLongArray(size);
+            mask = size - 1;
+        }
+
+        long add(long time) {
+            long sequence = tail.getAndIncrement();
+            int index = (int) sequence & mask;
+            times.set(index, time);
+            sequences.set(index, sequence + 1);
+            return sequence;
+        }
+
+        // Gives the sequence back when nothing was added after it, so rejected messages do not use up the ring.
+        void cancel(long sequence) {
+            if (!tail.compareAndSet(sequence + 1, sequence)) {
+                sequences.compareAndSet((int) sequence & mask, sequence + 1, -(sequence + 1));
+            }
+        }
+
+        long poll() {
+            while (true) {
+                long sequence = head.get();
+                if (sequence >= tail.get()) {
+                    return NONE;
+                }
+                if (!head.compareAndSet(sequence, sequence + 1)) {
+                    continue;
+                }
+                int index = (int) sequence & mask;
+                long published;
+                // The slot was claimed by add, which publishes it a few instructions later.
+                while (Math.abs(published = sequences.get(index)) < sequence + 1) {
+                    Thread.yield();
+                }
+                if (published != -(sequence + 1)) {
+                    return times.get(index);
+                }
+            }
+        }
+
+    }
+
+    private static class Blocking extends InstrumentedInstructionMessageQueue
+            implements BlockingQueue<InstructionMessage> {
+
+        private final BlockingQueue<InstructionMessage> blockingQueue;
+
+        private Blocking(BlockingQueue<InstructionMessage> queue, QueueMetrics metrics) {
+            super(queue, metrics);
+            this.blockingQueue = queue;
+        }
+
+        @Override
+        public InstructionMessage take() throws InterruptedException {
+            return recordDequeued(blockingQueue.take());
+        }
+
+        @Override
+        public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return recordDequeued(blockingQueue.poll(timeout, unit));
+        }
+
+        @Override
+        public int drainTo(Collection<? super InstructionMessage> target, int max, long timeout, TimeUnit unit)
+                throws InterruptedException {
+            List<InstructionMessage> drained = new ArrayList<>();
+            blockingQueue.drainTo(drained, max, timeout, unit);
+            return recordDrained(drained, target);
+        }
+
+    }
+
+    private static final class Bounded extends Blocking implements BoundedQueue<InstructionMessage> {
+
+        private final BoundedQueue<InstructionMessage> boundedQueue;
+
+        private Bounded(BoundedQueue<InstructionMessage> queue, QueueMetrics metrics) {
+            super(queue, metrics);
+            this.boundedQueue = queue;
+        }
+
+        @Override
+        public OfferResult offer(InstructionMessage message) {
+            return recordOffer(message, boundedQueue);
+        }
+
+        @Override
+        public int capacity() {
+            return boundedQueue.capacity();
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return boundedQueue.remainingCapacity();
+        }
+
+    }
+
+}
@@ -0,0 +1,398 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.Lease;
+import ua.company.myroniuk.queue.LeasingQueue;
+import ua.company.myroniuk.queue.Queue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe priority queue with at-least-once delivery. A leased message is invisible until its visibility
+ * timeout passes; if it has not been acknowledged by then it becomes visible again, ahead of the messages of
+ * its priority that were never delivered. After {@code maxDeliveries} deliveries an unacknowledged message
+ * is moved to the dead-letter queue instead.
+ * <p>
+ * Lease deadlines are kept in a {@link TimingWheel} with millisecond ticks, so leasing and expiring cost
+ * constant time however many leases are outstanding. Acknowledging only marks the lease; its wheel entry is
+ * dropped when the deadline passes. The wheel is advanced by the callers, so no timer thread is needed.
+ * <p>
+ * Messages are moved to the dead-letter queue after the wheel has been advanced. If the dead-letter queue
+ * throws, the exception reaches the caller and the messages not moved yet are tried again by the next call.
+ */
+public class LeasingInstructionMessageQueue implements LeasingQueue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Queue<InstructionMessage> queue;
+
+    private final Queue<InstructionMessage> deadLetterQueue;
+
+    private final long visibilityTimeoutMillis;
+
+    private final int maxDeliveries;
+
+    private final LongSupplier clock;
+
+    private final ArrayDeque<InstructionMessageLease>[] redeliveries;
+
+    private final ArrayDeque<InstructionMessage> deadLetters = new ArrayDeque<>();
+
+    private final TimingWheel<InstructionMessageLease> deadlines;
+
+    private final Consumer<InstructionMessageLease> expire = this::expire;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition visible = lock.newCondition();
+
+    private int redeliveryCount;
+
+    private int leasedCount;
+
+    private long redeliveredCount;
+
+    private long deadLetteredCount;
+
+    /**
+     * @param queue holds the messages that were never delivered; it is only used under the lock of this queue
+     * @param deadLetterQueue receives the messages that were delivered {@code maxDeliveries} times without
+     *                        being acknowledged
+     */
+    public LeasingInstructionMessageQueue(Queue<InstructionMessage> queue, Queue<InstructionMessage> deadLetterQueue,
+                                          long visibilityTimeout, TimeUnit unit, int maxDeliveries) {
+        this(queue, deadLetterQueue, unit.toMillis(visibilityTimeout), maxDeliveries, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds since the epoch
+     */
+    @SuppressWarnings("unchecked")
+    LeasingInstructionMessageQueue(Queue<InstructionMessage> queue, Queue<InstructionMessage> deadLetterQueue,
+                                   long visibilityTimeoutMillis, int maxDeliveries, LongSupplier clock) {
+        if (visibilityTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Visibility timeout must be at least one millisecond.");
+        }
+        if (maxDeliveries < 1) {
+            throw new IllegalArgumentException("At least one delivery is required.");
+        }
+        this.queue = Objects.requireNonNull(queue);
+        this.deadLetterQueue = Objects.requireNonNull(deadLetterQueue);
+        this.visibilityTimeoutMillis = visibilityTimeoutMillis;
+        this.maxDeliveries = maxDeliveries;
+        this.clock = clock;
+        redeliveries = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < redeliveries.length; i++) {
+            redeliveries[i] = new ArrayDeque<>();
+        }
+        deadlines = new TimingWheel<>(clock.getAsLong());
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        lock.lock();
+        try {
+            queue.enqueue(message);
+            visible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            Objects.requireNonNull(message);
+        }
+        lock.lock();
+        try {
+            queue.enqueueAll(messages);
+            visible.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Lease<InstructionMessage> lease() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            advance(now);
+            return leaseVisible(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Lease<InstructionMessage> lease(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long now = clock.getAsLong();
+                advance(now);
+                Lease<InstructionMessage> lease = leaseVisible(now);
+                if (lease != null || remaining <= 0) {
+                    return lease;
+                }
+                long event = deadlines.nextEventTick();
+                long wait = event == Long.MAX_VALUE
+                        ? remaining : Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(Math.max(1, event - now)));
+                remaining -= wait - visible.awaitNanos(wait);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean ack(Lease<InstructionMessage> lease) {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            if (!isOutstanding(lease)) {
+                return false;
+            }
+            ((InstructionMessageLease) lease).outstanding = false;
+            leasedCount--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean release(Lease<InstructionMessage> lease) {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            if (!isOutstanding(lease)) {
+                return false;
+            }
+            expire((InstructionMessageLease) lease);
+            moveDeadLetters();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next visible message for good, without a lease.
+     */
+    @Override
+    public InstructionMessage dequeue() {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            ArrayDeque<InstructionMessageLease> redelivery = nextRedelivery();
+            if (redelivery == null) {
+                return queue.dequeue();
+            }
+            redeliveryCount--;
+            return redelivery.pollFirst().message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            ArrayDeque<InstructionMessageLease> redelivery = nextRedelivery();
+            return redelivery == null ? queue.peek() : redelivery.peekFirst().message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of visible messages; leased ones are counted by {@link #getLeasedCount()}.
+     */
+    @Override
+    public int count() {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            return queue.count() + redeliveryCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public int getLeasedCount() {
+        lock.lock();
+        try {
+            advance(clock.getAsLong());
+            return leasedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRedeliveredCount() {
+        lock.lock();
+        try {
+            return redeliveredCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDeadLetteredCount() {
+        lock.lock();
+        try {
+            return deadLetteredCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Queue<InstructionMessage> getDeadLetterQueue() {
+        return deadLetterQueue;
+    }
+
+    public long getVisibilityTimeoutMillis() {
+        return visibilityTimeoutMillis;
+    }
+
+    public int getMaxDeliveries() {
+        return maxDeliveries;
+    }
+
+    private void advance(long now) {
+        deadlines.advance(now, expire);
+        moveDeadLetters();
+    }
+
+    // Runs outside the wheel's expiry callback, which must not throw; a message stays here until the
+    // dead-letter queue has taken it.
+    private void moveDeadLetters() {
+        InstructionMessage message;
+        while ((message = deadLetters.peekFirst()) != null) {
+            deadLetterQueue.enqueue(message);
+            deadLetters.pollFirst();
+            deadLetteredCount++;
+        }
+    }
+
+    private Lease<InstructionMessage> leaseVisible(long now) {
+        ArrayDeque<InstructionMessageLease> redelivery = nextRedelivery();
+        InstructionMessage message;
+        int deliveryCount;
+        if (redelivery != null) {
+            InstructionMessageLease expired = redelivery.pollFirst();
+            redeliveryCount--;
+            redeliveredCount++;
+            message = expired.message;
+            deliveryCount = expired.deliveryCount + 1;
+        } else {
+            message = queue.dequeue();
+            if (message == null) {
+                return null;
+            }
+            deliveryCount = 1;
+        }
+        // The wheel never moves back, so after the wall clock went back a deadline before its tick would never
+        // expire.
+        InstructionMessageLease lease = new InstructionMessageLease(this, message, deliveryCount,
+                Math.max(now, deadlines.getCurrentTick()) + visibilityTimeoutMillis);
+        deadlines.add(lease, lease.deadline);
+        leasedCount++;
+        return lease;
+    }
+
+    // Messages to redeliver go before the never delivered messages of the same or a lower priority.
+    private ArrayDeque<InstructionMessageLease> nextRedelivery() {
+        if (redeliveryCount == 0) {
+            return null;
+        }
+        InstructionMessage head = queue.peek();
+        int headPriority = head == null ? PRIORITIES.length : priorityOf(head);
+        for (int i = 0; i <= headPriority && i < redeliveries.length; i++) {
+            if (!redeliveries[i].isEmpty()) {
+                return redeliveries[i];
+            }
+        }
+        return null;
+    }
+
+    private void expire(InstructionMessageLease lease) {
+        if (!lease.outstanding) {
+            return;
+        }
+        lease.outstanding = false;
+        leasedCount--;
+        if (lease.deliveryCount >= maxDeliveries) {
+            deadLetters.addLast(lease.message);
+            return;
+        }
+        redeliveries[priorityOf(lease.message)].addLast(lease);
+        redeliveryCount++;
+        visible.signal();
+    }
+
+    private boolean isOutstanding(Lease<InstructionMessage> lease) {
+        return lease instanceof InstructionMessageLease && ((InstructionMessageLease) lease).owner == this
+                && ((InstructionMessageLease) lease).outstanding;
+    }
+
+    private static int priorityOf(InstructionMessage message) {
+        return message.getInstructionType().getPriority().ordinal();
+    }
+
+    private static final class InstructionMessageLease implements Lease<InstructionMessage> {
+
+        private final LeasingInstructionMessageQueue owner;
+
+        private final InstructionMessage message;
+
+        private final int deliveryCount;
+
+        private final long deadline;
+
+        private boolean outstanding = true;
+
+        private InstructionMessageLease(LeasingInstructionMessageQueue owner, InstructionMessage message,
+                                        int deliveryCount, long deadline) {
+            this.owner = owner;
+            this.message = message;
+            this.deliveryCount = deliveryCount;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public InstructionMessage getMessage() {
+            return message;
+        }
+
+        @Override
+        public int getDeliveryCount() {
+            return deliveryCount;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+
+    }
+
+}
@@ -0,0 +1,269 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.exception.InstructionMessageStorageException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.Queue;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Keeps queued messages outside of the heap as fixed-width records in memory-mapped segment files,
+ * one chain of segments per {@link Priority}. Messages are materialized only by {@link #dequeue()}
+ * and {@link #peek()}. The files are scratch storage: they are deleted once drained or on {@link #close()}.
+ * <p>
+ * Record layout: type (1 byte), product code (4 ASCII bytes), quantity (4 bytes), uom (1 byte)
+ * and timestamp as epoch millis (8 bytes). Messages that do not fit it, such as a product code
+ * that is not four ASCII characters, are rejected with an {@link IllegalArgumentException}.
+ */
+public class MappedInstructionMessageQueue implements Queue<InstructionMessage>, Closeable {
+
+    private static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final int PRODUCT_CODE_LENGTH = 4;
+
+    private static final int RECORD_SIZE = 1 + PRODUCT_CODE_LENGTH + 4 + 1 + 8;
+
+    private static final int MAX_UOM = 255;
+
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private static final InstructionType[] INSTRUCTION_TYPES = InstructionType.values();
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Path directory;
+
+    private final int recordsPerSegment;
+
+    private final SegmentChain[] chains;
+
+    private final char[] productCode = new char[PRODUCT_CODE_LENGTH];
+
+    private long nextSegmentId;
+
+    private int count;
+
+    public MappedInstructionMessageQueue(Path directory) {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public MappedInstructionMessageQueue(Path directory, int recordsPerSegment) {
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Number of records per segment must be positive.");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to create queue directory " + directory, e);
+        }
+        chains = new SegmentChain[PRIORITIES.length];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = new SegmentChain();
+        }
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        checkRecord(message);
+        MappedByteBuffer buffer = chains[message.getInstructionType().getPriority().ordinal()].claimWrite();
+        buffer.put((byte) message.getInstructionType().ordinal());
+        String code = message.getProductCode();
+        for (int i = 0; i < PRODUCT_CODE_LENGTH; i++) {
+            buffer.put((byte) code.charAt(i));
+        }
+        buffer.putInt(message.getQuantity());
+        buffer.put((byte) message.getUom().intValue());
+        buffer.putLong(message.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        count++;
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        for (InstructionMessage message : messages) {
+            enqueue(message);
+        }
+    }
+
+    @Override
+    public InstructionMessage dequeue() {
+        SegmentChain chain = firstNonEmptyChain();
+        if (chain == null) {
+            return null;
+        }
+        InstructionMessage message = read(chain.head(), chain.readPosition);
+        chain.advanceRead();
+        count--;
+        return message;
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        SegmentChain chain = firstNonEmptyChain();
+        return chain == null ? null : read(chain.head(), chain.readPosition);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    // A mapping cannot be released explicitly before Java 9, so the memory of deleted segments
+    // is returned once their buffers are garbage collected. The queue stays usable and starts empty.
+    @Override
+    public void close() {
+        for (SegmentChain chain : chains) {
+            chain.clear();
+        }
+        count = 0;
+    }
+
+    private void checkRecord(InstructionMessage message) {
+        Objects.requireNonNull(message.getInstructionType());
+        String code = message.getProductCode();
+        if (code == null || code.length() != PRODUCT_CODE_LENGTH) {
+            throw new IllegalArgumentException("Product code must consist of " + PRODUCT_CODE_LENGTH + " characters.");
+        }
+        for (int i = 0; i < PRODUCT_CODE_LENGTH; i++) {
+            if (code.charAt(i) > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Product code must consist of ASCII characters.");
+            }
+        }
+        if (message.getQuantity() == null) {
+            throw new IllegalArgumentException("Quantity is missing.");
+        }
+        if (message.getUom() == null || message.getUom() < 0 || message.getUom() > MAX_UOM) {
+            throw new IllegalArgumentException("Uom must be between 0 and " + MAX_UOM + ".");
+        }
+        if (message.getTimestamp() == null || message.getTimestamp().getNano() % NANOS_PER_MILLI != 0) {
+            throw new IllegalArgumentException("Timestamp must have millisecond precision.");
+        }
+    }
+
+    private InstructionMessage read(MappedByteBuffer buffer, int position) {
+        int offset = position * RECORD_SIZE;
+        for (int i = 0; i < PRODUCT_CODE_LENGTH; i++) {
+            productCode[i] = (char) buffer.get(offset + 1 + i);
+        }
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(INSTRUCTION_TYPES[buffer.get(offset)]);
+        message.setProductCode(new String(productCode));
+        message.setQuantity(buffer.getInt(offset + 1 + PRODUCT_CODE_LENGTH));
+        message.setUom(buffer.get(offset + 5 + PRODUCT_CODE_LENGTH) & 0xFF);
+        message.setTimestamp(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(buffer.getLong(offset + 6 + PRODUCT_CODE_LENGTH)), ZoneOffset.UTC));
+        return message;
+    }
+
+    private SegmentChain firstNonEmptyChain() {
+        if (count == 0) {
+            return null;
+        }
+        for (SegmentChain chain : chains) {
+            if (!chain.isEmpty()) {
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    private Segment createSegment() {
+        Path path = directory.resolve(String.format("queue-%020d.dat", nextSegmentId++));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) recordsPerSegment * RECORD_SIZE));
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to create queue segment " + path, e);
+        }
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to delete queue segment " + segment.path, e);
+        }
+    }
+
+    private final class SegmentChain {
+
+        private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+        private int readPosition;
+
+        private int writePosition;
+
+        private MappedByteBuffer head() {
+            return segments.peekFirst().buffer;
+        }
+
+        private boolean isEmpty() {
+            return segments.isEmpty() || (segments.size() == 1 && readPosition == writePosition);
+        }
+
+        private MappedByteBuffer claimWrite() {
+            if (segments.isEmpty() || writePosition == recordsPerSegment) {
+                segments.addLast(createSegment());
+                writePosition = 0;
+            }
+            MappedByteBuffer buffer = segments.peekLast().buffer;
+            buffer.position(writePosition++ * RECORD_SIZE);
+            return buffer;
+        }
+
+        private void advanceRead() {
+            readPosition++;
+            if (segments.size() == 1 && readPosition == writePosition) {
+                readPosition = 0;
+                writePosition = 0;
+            } else if (readPosition == recordsPerSegment) {
+                delete(segments.pollFirst());
+                readPosition = 0;
+            }
+        }
+
+        private void clear() {
+            while (!segments.isEmpty()) {
+                delete(segments.pollFirst());
+            }
+            readPosition = 0;
+            writePosition = 0;
+        }
+
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+    }
+
+}
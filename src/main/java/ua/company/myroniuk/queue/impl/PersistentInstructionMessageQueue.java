@@ -0,0 +1,137 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.queue.log.FsyncPolicy;
+import ua.company.myroniuk.queue.log.InstructionMessageLog;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class PersistentInstructionMessageQueue implements Queue<InstructionMessage>, Closeable {
+
+    private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final InstructionMessageLog log;
+
+    private final ArrayDeque<Entry>[] buckets;
+
+    private int count;
+
+    public PersistentInstructionMessageQueue(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, FsyncPolicy.everyMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    public PersistentInstructionMessageQueue(Path directory, long segmentSize, FsyncPolicy fsyncPolicy) {
+        buckets = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        log = new InstructionMessageLog(directory, segmentSize, fsyncPolicy);
+        for (Map.Entry<Long, InstructionMessage> recovered : log.getRecovered().entrySet()) {
+            add(new Entry(recovered.getKey(), recovered.getValue()));
+        }
+    }
+
+    @Override
+    public synchronized void enqueue(InstructionMessage message) {
+        requirePriority(message);
+        add(new Entry(log.append(message), message));
+    }
+
+    @Override
+    public synchronized void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        List<InstructionMessage> batch = new ArrayList<>(messages);
+        for (InstructionMessage message : batch) {
+            requirePriority(message);
+        }
+        long[] ids = log.appendAll(batch);
+        for (int i = 0; i < ids.length; i++) {
+            add(new Entry(ids[i], batch.get(i)));
+        }
+    }
+
+    @Override
+    public synchronized InstructionMessage dequeue() {
+        ArrayDeque<Entry> bucket = firstNonEmptyBucket();
+        if (bucket == null) {
+            return null;
+        }
+        Entry entry = bucket.peekFirst();
+        log.acknowledge(entry.id);
+        bucket.pollFirst();
+        count--;
+        return entry.message;
+    }
+
+    @Override
+    public synchronized InstructionMessage peek() {
+        ArrayDeque<Entry> bucket = firstNonEmptyBucket();
+        return bucket == null ? null : bucket.peekFirst().message;
+    }
+
+    @Override
+    public synchronized int count() {
+        return count;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    public synchronized void sync() {
+        log.sync();
+    }
+
+    @Override
+    public synchronized void close() {
+        log.close();
+    }
+
+    // Checked before the message is written, so the log never holds a message the queue could not take.
+    private void requirePriority(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(message.getInstructionType());
+    }
+
+    private void add(Entry entry) {
+        buckets[entry.message.getInstructionType().getPriority().ordinal()].addLast(entry);
+        count++;
+    }
+
+    private ArrayDeque<Entry> firstNonEmptyBucket() {
+        if (count == 0) {
+            return null;
+        }
+        for (ArrayDeque<Entry> bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    private static final class Entry {
+
+        private final long id;
+
+        private final InstructionMessage message;
+
+        private Entry(long id, InstructionMessage message) {
+            this.id = id;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.DequeueScheduler;
+
+public class PriorityBucketInstructionMessageQueue extends AbstractPriorityBucketQueue<InstructionMessage> {
+
+    public PriorityBucketInstructionMessageQueue() {
+    }
+
+    public PriorityBucketInstructionMessageQueue(DequeueScheduler scheduler) {
+        super(scheduler);
+    }
+
+    @Override
+    protected Priority getPriority(InstructionMessage message) {
+        return message.getInstructionType().getPriority();
+    }
+
+}
@@ -0,0 +1,349 @@
+package ua.company.myroniuk.queue.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.BlockingQueue;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue that partitions messages across lock-free shards, each holding a FIFO bucket per {@link Priority}.
+ * Every shard is meant to have its own consumer, see {@link #consumer(int)}: a consumer polls its home
+ * shard first and steals from the other shards when the home shard has nothing of the priority it is after.
+ * <p>
+ * Priority precedence is global: a dequeue looks for a message of a priority in every shard before it
+ * moves on to the next priority. A message is therefore never dequeued while a message of higher priority,
+ * whose enqueue completed before the dequeue started, is waiting in any shard; only messages enqueued
+ * concurrently with the dequeue can be overtaken. FIFO order holds per shard and priority, so with
+ * {@link Sharding#PRODUCT_CODE_HASH} messages of one product code are dequeued in order by a single consumer.
+ * <p>
+ * There is no queue-wide counter: every shard counts its own messages and consumers poll the buckets directly.
+ * Consumers that find the queue empty in {@link #take()} or {@link #poll(long, TimeUnit)} register as waiters
+ * and park on a condition; producers only read the number of waiters and take the lock to wake one up when
+ * somebody is actually parked, so a busy queue never touches shared state outside the shards.
+ */
+public class ShardedInstructionMessageQueue implements BlockingQueue<InstructionMessage> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Shard[] shards;
+
+    private final Sharding sharding;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private final LongAdder steals = new LongAdder();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    public enum Sharding {
+
+        PRODUCT_CODE_HASH,
+
+        ROUND_ROBIN
+
+    }
+
+    public ShardedInstructionMessageQueue() {
+        this(Runtime.getRuntime().availableProcessors(), Sharding.PRODUCT_CODE_HASH);
+    }
+
+    public ShardedInstructionMessageQueue(int shardCount, Sharding sharding) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive.");
+        }
+        this.sharding = Objects.requireNonNull(sharding);
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @Override
+    public void enqueue(InstructionMessage message) {
+        Objects.requireNonNull(message);
+        add(message);
+        if (waiters.get() > 0) {
+            signalWaiters(false);
+        }
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+        int added = 0;
+        try {
+            for (InstructionMessage message : messages) {
+                Objects.requireNonNull(message);
+                add(message);
+                added++;
+            }
+        } finally {
+            if (added > 0 && waiters.get() > 0) {
+                signalWaiters(true);
+            }
+        }
+    }
+
+    /**
+     * Dequeues with the calling thread's home shard, which is derived from its id.
+     */
+    @Override
+    public InstructionMessage dequeue() {
+        return poll(homeShard());
+    }
+
+    @Override
+    public InstructionMessage take() throws InterruptedException {
+        return take(homeShard());
+    }
+
+    @Override
+    public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(homeShard(), unit.toNanos(timeout));
+    }
+
+    @Override
+    public int drainTo(Collection<? super InstructionMessage> target, int max) {
+        return drainTo(target, max, homeShard());
+    }
+
+    @Override
+    public InstructionMessage peek() {
+        for (int priority = 0; priority < PRIORITIES.length; priority++) {
+            for (Shard shard : shards) {
+                InstructionMessage message = shard.buckets[priority].peek();
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sums the shard counts, so the result is only a snapshot while producers and consumers are active.
+     */
+    @Override
+    public int count() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.size.get();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    /**
+     * Returns a view of this queue whose dequeue operations start from the given shard.
+     */
+    public BlockingQueue<InstructionMessage> consumer(int shard) {
+        if (shard < 0 || shard >= shards.length) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shards.length - 1) + ".");
+        }
+        return new ShardConsumer(shard);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns how many messages were dequeued from another shard than the consumer's home shard.
+     */
+    public long getStealCount() {
+        return steals.sum();
+    }
+
+    ConcurrentLinkedQueue<InstructionMessage> getBucket(int shard, Priority priority) {
+        return shards[shard].buckets[priority.ordinal()];
+    }
+
+    // The shard count goes up before the message becomes visible, so it never drops below zero
+    // when a consumer polls the message before the producer returns.
+    private void add(InstructionMessage message) {
+        Shard shard = shards[shardOf(message)];
+        shard.size.incrementAndGet();
+        shard.buckets[message.getInstructionType().getPriority().ordinal()].offer(message);
+    }
+
+    private int shardOf(InstructionMessage message) {
+        if (shards.length == 1) {
+            return 0;
+        }
+        if (sharding == Sharding.ROUND_ROBIN || message.getProductCode() == null) {
+            return Math.floorMod(nextShard.getAndIncrement(), shards.length);
+        }
+        int hash = message.getProductCode().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private int drainTo(Collection<? super InstructionMessage> target, int max, int home) {
+        int drained = 0;
+        InstructionMessage message;
+        while (drained < max && (message = poll(home)) != null) {
+            target.add(message);
+            drained++;
+        }
+        return drained;
+    }
+
+    private int homeShard() {
+        return (int) (Thread.currentThread().getId() % shards.length);
+    }
+
+    private InstructionMessage poll(int home) {
+        for (int priority = 0; priority < PRIORITIES.length; priority++) {
+            for (int i = 0; i < shards.length; i++) {
+                int index = home + i < shards.length ? home + i : home + i - shards.length;
+                Shard shard = shards[index];
+                InstructionMessage message = shard.buckets[priority].poll();
+                if (message != null) {
+                    shard.size.decrementAndGet();
+                    if (index != home) {
+                        steals.increment();
+                    }
+                    return message;
+                }
+            }
+        }
+        return null;
+    }
+
+    private InstructionMessage take(int home) throws InterruptedException {
+        InstructionMessage message = poll(home);
+        return message != null ? message : await(home, false, 0L);
+    }
+
+    private InstructionMessage poll(int home, long nanos) throws InterruptedException {
+        InstructionMessage message = poll(home);
+        return message != null || nanos <= 0 ? message : await(home, true, nanos);
+    }
+
+    // The waiter is registered before the buckets are polled again, and producers read the number of
+    // waiters after their offer, so either the poll sees the message or the producer sees the waiter.
+    // A signalled waiter always polls before it gives up, so a wake-up is never lost on a timeout.
+    private InstructionMessage await(int home, boolean timed, long nanos) throws InterruptedException {
+        waiters.incrementAndGet();
+        try {
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    InstructionMessage message = poll(home);
+                    if (message != null) {
+                        return message;
+                    }
+                    if (!timed) {
+                        notEmpty.await();
+                    } else if (nanos > 0) {
+                        nanos = notEmpty.awaitNanos(nanos);
+                    } else {
+                        return null;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private void signalWaiters(boolean all) {
+        lock.lock();
+        try {
+            if (all) {
+                notEmpty.signalAll();
+            } else {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Shard {
+
+        private final ConcurrentLinkedQueue<InstructionMessage>[] buckets;
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        private Shard() {
+            buckets = new ConcurrentLinkedQueue[PRIORITIES.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+    }
+
+    private final class ShardConsumer implements BlockingQueue<InstructionMessage> {
+
+        private final int home;
+
+        private ShardConsumer(int home) {
+            this.home = home;
+        }
+
+        @Override
+        public void enqueue(InstructionMessage message) {
+            ShardedInstructionMessageQueue.this.enqueue(message);
+        }
+
+        @Override
+        public void enqueueAll(Collection<? extends InstructionMessage> messages) {
+            ShardedInstructionMessageQueue.this.enqueueAll(messages);
+        }
+
+        @Override
+        public InstructionMessage dequeue() {
+            return ShardedInstructionMessageQueue.this.poll(home);
+        }
+
+        @Override
+        public InstructionMessage take() throws InterruptedException {
+            return ShardedInstructionMessageQueue.this.take(home);
+        }
+
+        @Override
+        public InstructionMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return ShardedInstructionMessageQueue.this.poll(home, unit.toNanos(timeout));
+        }
+
+        @Override
+        public int drainTo(Collection<? super InstructionMessage> target, int max) {
+            return ShardedInstructionMessageQueue.this.drainTo(target, max, home);
+        }
+
+        @Override
+        public InstructionMessage peek() {
+            return ShardedInstructionMessageQueue.this.peek();
+        }
+
+        @Override
+        public int count() {
+            return ShardedInstructionMessageQueue.this.count();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ShardedInstructionMessageQueue.this.isEmpty();
+        }
+
+    }
+
+}
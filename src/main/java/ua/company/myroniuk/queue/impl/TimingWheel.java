@@ -0,0 +1,206 @@
+package ua.company.myroniuk.queue.impl;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel of {@value #LEVELS} levels with 64 slots each. An entry due at tick {@code d} is
+ * kept at the level of the highest 6-bit group in which {@code d} differs from the current tick, in the slot
+ * given by that group of {@code d}; entries further away than 2^36 ticks wait in an overflow list. When the
+ * current tick reaches the start of a slot on a higher level, its entries are cascaded to lower levels, so
+ * every entry is moved at most {@value #LEVELS} times before it expires.
+ * <p>
+ * Entries are kept in parallel arrays linked by index, so a timer costs no object of its own. A bitmap of the
+ * occupied slots on each level lets {@link #advance} jump straight to the next tick that has work to do.
+ * The wheel is not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final int LEVELS = 6;
+
+    private static final int WHEEL_BITS = SLOT_BITS * LEVELS;
+
+    private static final int OVERFLOW = LEVELS * SLOTS;
+
+    private static final int NIL = -1;
+
+    private final int[] heads = new int[OVERFLOW + 1];
+
+    private final int[] tails = new int[OVERFLOW + 1];
+
+    private final long[] occupied = new long[LEVELS];
+
+    private Object[] items;
+
+    private long[] deadlines;
+
+    private int[] next;
+
+    private int free = NIL;
+
+    private int allocated;
+
+    private int size;
+
+    private long currentTick;
+
+    TimingWheel(long currentTick) {
+        this(currentTick, 64);
+    }
+
+    TimingWheel(long currentTick, int initialCapacity) {
+        this.currentTick = currentTick;
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+        int capacity = Math.max(1, initialCapacity);
+        items = new Object[capacity];
+        deadlines = new long[capacity];
+        next = new int[capacity];
+    }
+
+    /**
+     * Adds the item unless it is already due.
+     *
+     * @return {@code false} if {@code deadline} is not after the current tick and nothing was added
+     */
+    boolean add(T item, long deadline) {
+        if (deadline <= currentTick) {
+            return false;
+        }
+        int entry = allocate();
+        items[entry] = item;
+        deadlines[entry] = deadline;
+        place(entry);
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code tick}, passing every item due by then to {@code expired} in order of
+     * their deadlines, and of insertion for equal deadlines. {@code expired} must not throw.
+     */
+    void advance(long tick, Consumer<? super T> expired) {
+        while (size > 0) {
+            long event = nextEventTick();
+            if (event > tick) {
+                break;
+            }
+            currentTick = event;
+            if ((event & ((1L << WHEEL_BITS) - 1)) == 0) {
+                cascade(OVERFLOW, expired);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = level * SLOT_BITS;
+                if ((event & ((1L << shift) - 1)) == 0) {
+                    cascade(indexOf(level, (int) (event >>> shift) & SLOT_MASK), expired);
+                }
+            }
+            cascade(indexOf(0, (int) event & SLOT_MASK), expired);
+        }
+        if (tick > currentTick) {
+            currentTick = tick;
+        }
+    }
+
+    /**
+     * Returns the first tick at which {@link #advance} has work to do: an expiry or a cascade, which may turn
+     * out to expire nothing. Returns {@link Long#MAX_VALUE} if the wheel is empty.
+     */
+    long nextEventTick() {
+        long event = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            if (occupied[level] != 0) {
+                int shift = level * SLOT_BITS;
+                long base = currentTick >>> (shift + SLOT_BITS) << (shift + SLOT_BITS);
+                event = Math.min(event, base | (long) Long.numberOfTrailingZeros(occupied[level]) << shift);
+            }
+        }
+        if (heads[OVERFLOW] != NIL) {
+            event = Math.min(event, ((currentTick >>> WHEEL_BITS) + 1) << WHEEL_BITS);
+        }
+        return event;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The deadline is after the current tick, so their highest differing bit is set in the deadline and the
+    // slot comes after the current one on its level.
+    private void place(int entry) {
+        long deadline = deadlines[entry];
+        int level = (63 - Long.numberOfLeadingZeros(deadline ^ currentTick)) / SLOT_BITS;
+        int index;
+        if (level >= LEVELS) {
+            index = OVERFLOW;
+        } else {
+            int slot = (int) (deadline >>> (level * SLOT_BITS)) & SLOT_MASK;
+            occupied[level] |= 1L << slot;
+            index = indexOf(level, slot);
+        }
+        next[entry] = NIL;
+        if (heads[index] == NIL) {
+            heads[index] = entry;
+        } else {
+            next[tails[index]] = entry;
+        }
+        tails[index] = entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cascade(int index, Consumer<? super T> expired) {
+        int entry = heads[index];
+        if (entry == NIL) {
+            return;
+        }
+        heads[index] = NIL;
+        tails[index] = NIL;
+        if (index < OVERFLOW) {
+            occupied[index / SLOTS] &= ~(1L << (index & SLOT_MASK));
+        }
+        while (entry != NIL) {
+            int following = next[entry];
+            if (deadlines[entry] <= currentTick) {
+                T item = (T) items[entry];
+                items[entry] = null;
+                next[entry] = free;
+                free = entry;
+                size--;
+                expired.accept(item);
+            } else {
+                place(entry);
+            }
+            entry = following;
+        }
+    }
+
+    private int allocate() {
+        if (free != NIL) {
+            int entry = free;
+            free = next[entry];
+            return entry;
+        }
+        if (allocated == items.length) {
+            int capacity = items.length * 2;
+            items = Arrays.copyOf(items, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return allocated++;
+    }
+
+    private static int indexOf(int level, int slot) {
+        return level * SLOTS + slot;
+    }
+
+}
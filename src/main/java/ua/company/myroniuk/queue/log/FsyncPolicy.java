@@ -0,0 +1,42 @@
+package ua.company.myroniuk.queue.log;
+
+import java.util.concurrent.TimeUnit;
+
+public final class FsyncPolicy {
+
+    private final int messages;
+
+    private final long intervalNanos;
+
+    private FsyncPolicy(int messages, long intervalNanos) {
+        this.messages = messages;
+        this.intervalNanos = intervalNanos;
+    }
+
+    public static FsyncPolicy everyMessage() {
+        return new FsyncPolicy(1, 0);
+    }
+
+    public static FsyncPolicy everyMessages(int messages) {
+        if (messages < 1) {
+            throw new IllegalArgumentException("Number of messages between syncs must be positive.");
+        }
+        return new FsyncPolicy(messages, 0);
+    }
+
+    /**
+     * Syncs once the oldest unsynced record is older than the interval. The interval is checked
+     * when records are written, so an idle log is synced only when it is closed.
+     */
+    public static FsyncPolicy interval(long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive.");
+        }
+        return new FsyncPolicy(Integer.MAX_VALUE, unit.toNanos(interval));
+    }
+
+    boolean shouldSync(int unsyncedRecords, long nanosSinceFirstUnsynced) {
+        return unsyncedRecords >= messages || (intervalNanos > 0 && nanosSinceFirstUnsynced >= intervalNanos);
+    }
+
+}
@@ -0,0 +1,395 @@
+package ua.company.myroniuk.queue.log;
+
+import ua.company.myroniuk.exception.InstructionMessageStorageException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of enqueued instruction messages and their acknowledgements, split into segment files.
+ * Each record is stored as {@code [int length][int crc32][payload]}; a segment is deleted as soon as it
+ * and every older segment hold no unacknowledged message.
+ */
+public class InstructionMessageLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SEGMENT_NAME_FORMAT = SEGMENT_PREFIX + "%020d" + SEGMENT_SUFFIX;
+
+    private static final byte ENQUEUE = 1;
+
+    private static final byte ACKNOWLEDGE = 2;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final int PRODUCT_CODE = 1;
+
+    private static final int QUANTITY = 1 << 1;
+
+    private static final int UOM = 1 << 2;
+
+    private static final int TIMESTAMP = 1 << 3;
+
+    private static final int INSTRUCTION_TYPE = 1 << 4;
+
+    private static final InstructionType[] INSTRUCTION_TYPES = InstructionType.values();
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private final NavigableMap<Long, Segment> segmentsByFirstId = new TreeMap<>();
+
+    private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_SIZE);
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+    private final CRC32 crc = new CRC32();
+
+    private final Map<Long, InstructionMessage> recovered;
+
+    private FileChannel channel;
+
+    private long position;
+
+    private long nextId;
+
+    private int unsyncedRecords;
+
+    private long firstUnsyncedNanos;
+
+    public InstructionMessageLog(Path directory, long segmentSize, FsyncPolicy fsyncPolicy) {
+        if (segmentSize < HEADER_SIZE + MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + (HEADER_SIZE + MAX_PAYLOAD_SIZE));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        try {
+            Files.createDirectories(directory);
+            recovered = recover();
+            deleteAcknowledgedSegments();
+            openLastSegment();
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to open message log in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the messages that were appended but not acknowledged before the log was opened, keyed by id
+     * in append order.
+     */
+    public Map<Long, InstructionMessage> getRecovered() {
+        return Collections.unmodifiableMap(recovered);
+    }
+
+    public long append(InstructionMessage message) {
+        long id = write(message);
+        syncIfNeeded();
+        return id;
+    }
+
+    public long[] appendAll(List<? extends InstructionMessage> messages) {
+        long[] ids = new long[messages.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = write(messages.get(i));
+        }
+        syncIfNeeded();
+        return ids;
+    }
+
+    public void acknowledge(long id) {
+        payload.clear();
+        payload.put(ACKNOWLEDGE).putLong(id);
+        writeRecord();
+        Map.Entry<Long, Segment> entry = segmentsByFirstId.floorEntry(id);
+        if (entry != null) {
+            entry.getValue().live--;
+        }
+        deleteAcknowledgedSegments();
+        syncIfNeeded();
+    }
+
+    public void sync() {
+        try {
+            flush();
+            channel.force(false);
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to sync message log", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+            channel.close();
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to close message log", e);
+        }
+    }
+
+    private long write(InstructionMessage message) {
+        long id = nextId++;
+        payload.clear();
+        payload.put(ENQUEUE).putLong(id);
+        encode(message, payload);
+        writeRecord();
+        register(segments.peekLast(), id);
+        return id;
+    }
+
+    private void writeRecord() {
+        payload.flip();
+        int recordSize = HEADER_SIZE + payload.remaining();
+        try {
+            if (position + recordSize > segmentSize) {
+                rollSegment();
+            }
+            if (writeBuffer.remaining() < recordSize) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new InstructionMessageStorageException("Failed to write message log", e);
+        }
+        crc.reset();
+        crc.update(payload.array(), 0, payload.limit());
+        writeBuffer.putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload);
+        position += recordSize;
+        if (unsyncedRecords++ == 0) {
+            firstUnsyncedNanos = System.nanoTime();
+        }
+    }
+
+    private void syncIfNeeded() {
+        if (unsyncedRecords > 0 && fsyncPolicy.shouldSync(unsyncedRecords, System.nanoTime() - firstUnsyncedNanos)) {
+            sync();
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        flush();
+        channel.force(false);
+        channel.close();
+        unsyncedRecords = 0;
+        Segment segment = new Segment(segments.peekLast().index + 1);
+        segments.addLast(segment);
+        openSegment(segment);
+    }
+
+    private void openLastSegment() throws IOException {
+        if (segments.isEmpty()) {
+            segments.addLast(new Segment(0));
+        }
+        openSegment(segments.peekLast());
+    }
+
+    private void openSegment(Segment segment) throws IOException {
+        channel = FileChannel.open(segmentPath(segment.index),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        position = channel.size();
+    }
+
+    private void deleteAcknowledgedSegments() {
+        while (segments.size() > 1 && segments.peekFirst().live == 0) {
+            Segment segment = segments.pollFirst();
+            segmentsByFirstId.remove(segment.firstId);
+            try {
+                Files.deleteIfExists(segmentPath(segment.index));
+            } catch (IOException e) {
+                throw new InstructionMessageStorageException("Failed to delete message log segment", e);
+            }
+        }
+    }
+
+    private Map<Long, InstructionMessage> recover() throws IOException {
+        Map<Long, InstructionMessage> pending = new LinkedHashMap<>();
+        List<Long> indexes = segmentIndexes();
+        for (int i = 0; i < indexes.size(); i++) {
+            Segment segment = new Segment(indexes.get(i));
+            segments.addLast(segment);
+            recoverSegment(segment, pending, i == indexes.size() - 1);
+        }
+        return pending;
+    }
+
+    // A torn record can only be the result of a crash while appending, so it is tolerated (and cut off)
+    // in the last segment only.
+    private void recoverSegment(Segment segment, Map<Long, InstructionMessage> pending, boolean last)
+            throws IOException {
+        Path path = segmentPath(segment.index);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            if (!readRecord(buffer)) {
+                if (!last) {
+                    throw new InstructionMessageStorageException("Message log segment is corrupted: " + path);
+                }
+                try (FileChannel truncated = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    truncated.truncate(start);
+                }
+                break;
+            }
+            byte kind = payload.get();
+            long id = payload.getLong();
+            if (kind == ENQUEUE) {
+                pending.put(id, decode(payload));
+                register(segment, id);
+                nextId = Math.max(nextId, id + 1);
+            } else if (pending.remove(id) != null) {
+                segmentsByFirstId.floorEntry(id).getValue().live--;
+            }
+        }
+    }
+
+    private void register(Segment segment, long id) {
+        if (segment.firstId < 0) {
+            segment.firstId = id;
+            segmentsByFirstId.put(id, segment);
+        }
+        segment.live++;
+    }
+
+    private boolean readRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > MAX_PAYLOAD_SIZE || buffer.remaining() < length) {
+            return false;
+        }
+        payload.clear();
+        payload.put(buffer.array(), buffer.position(), length).flip();
+        buffer.position(buffer.position() + length);
+        crc.reset();
+        crc.update(payload.array(), 0, length);
+        return (int) crc.getValue() == checksum;
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        String glob = SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                indexes.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format(SEGMENT_NAME_FORMAT, index));
+    }
+
+    private static void encode(InstructionMessage message, ByteBuffer buffer) {
+        int flags = (message.getInstructionType() != null ? INSTRUCTION_TYPE : 0)
+                | (message.getProductCode() != null ? PRODUCT_CODE : 0)
+                | (message.getQuantity() != null ? QUANTITY : 0)
+                | (message.getUom() != null ? UOM : 0)
+                | (message.getTimestamp() != null ? TIMESTAMP : 0);
+        buffer.put((byte) flags);
+        if (message.getInstructionType() != null) {
+            buffer.put((byte) message.getInstructionType().ordinal());
+        }
+        if (message.getProductCode() != null) {
+            byte[] productCode = message.getProductCode().getBytes(StandardCharsets.UTF_8);
+            if (productCode.length > Short.MAX_VALUE) {
+                throw new InstructionMessageStorageException("Product code is too long to be stored");
+            }
+            buffer.putShort((short) productCode.length).put(productCode);
+        }
+        if (message.getQuantity() != null) {
+            buffer.putInt(message.getQuantity());
+        }
+        if (message.getUom() != null) {
+            buffer.putInt(message.getUom());
+        }
+        if (message.getTimestamp() != null) {
+            LocalDateTime timestamp = message.getTimestamp();
+            buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC)).putInt(timestamp.getNano());
+        }
+    }
+
+    private static InstructionMessage decode(ByteBuffer buffer) {
+        int flags = buffer.get();
+        InstructionMessage message = new InstructionMessage();
+        if ((flags & INSTRUCTION_TYPE) != 0) {
+            message.setInstructionType(INSTRUCTION_TYPES[buffer.get()]);
+        }
+        if ((flags & PRODUCT_CODE) != 0) {
+            byte[] productCode = new byte[buffer.getShort()];
+            buffer.get(productCode);
+            message.setProductCode(new String(productCode, StandardCharsets.UTF_8));
+        }
+        if ((flags & QUANTITY) != 0) {
+            message.setQuantity(buffer.getInt());
+        }
+        if ((flags & UOM) != 0) {
+            message.setUom(buffer.getInt());
+        }
+        if ((flags & TIMESTAMP) != 0) {
+            message.setTimestamp(LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC));
+        }
+        return message;
+    }
+
+    private static final class Segment {
+
+        private final long index;
+
+        private long firstId = -1;
+
+        private int live;
+
+        private Segment(long index) {
+            this.index = index;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package ua.company.myroniuk.receiver;
+
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BatchReceiveResult {
+
+    private final int acceptedCount;
+
+    private final int duplicateCount;
+
+    private final Map<Integer, Result<?>> rejections;
+
+    private Map<Integer, RuntimeException> exceptions;
+
+    /**
+     * @param rejections failed results of the rejected messages, keyed by the message index in the batch
+     */
+    public BatchReceiveResult(int acceptedCount, Map<Integer, Result<?>> rejections) {
+        this(acceptedCount, 0, rejections);
+    }
+
+    /**
+     * @param duplicateCount number of messages dropped as duplicates, which are not counted as accepted
+     */
+    public BatchReceiveResult(int acceptedCount, int duplicateCount, Map<Integer, Result<?>> rejections) {
+        this.acceptedCount = acceptedCount;
+        this.duplicateCount = duplicateCount;
+        this.rejections = Collections.unmodifiableMap(rejections);
+    }
+
+    public int getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public int getRejectedCount() {
+        return rejections.size();
+    }
+
+    public Map<Integer, ErrorCode> getRejectionCodes() {
+        Map<Integer, ErrorCode> codes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Result<?>> rejection : rejections.entrySet()) {
+            codes.put(rejection.getKey(), rejection.getValue().getErrorCode());
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the reason each rejected message was not received, keyed by the message index in the batch.
+     * The exceptions are only created on the first call.
+     */
+    public synchronized Map<Integer, RuntimeException> getRejections() {
+        if (exceptions == null) {
+            Map<Integer, RuntimeException> map = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Result<?>> rejection : rejections.entrySet()) {
+                map.put(rejection.getKey(), rejection.getValue().toException());
+            }
+            exceptions = Collections.unmodifiableMap(map);
+        }
+        return exceptions;
+    }
+
+    public boolean isFullyAccepted() {
+        return rejections.isEmpty();
+    }
+
+}
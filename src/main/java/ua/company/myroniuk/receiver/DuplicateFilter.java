@@ -0,0 +1,27 @@
+package ua.company.myroniuk.receiver;
+
+import ua.company.myroniuk.message.InstructionMessage;
+
+/**
+ * Remembers received messages so that exact duplicates, equal under {@link InstructionMessage#equals(Object)},
+ * can be dropped. By default nothing is remembered and no message is a duplicate.
+ */
+public interface DuplicateFilter {
+
+    DuplicateFilter NONE = new DuplicateFilter() {
+    };
+
+    /**
+     * Returns {@code true} if an equal message was seen before, and otherwise remembers this one.
+     */
+    default boolean isDuplicate(InstructionMessage message) {
+        return false;
+    }
+
+    /**
+     * Forgets the message, so that it is received again, for example after it could not be enqueued.
+     */
+    default void forget(InstructionMessage message) {
+    }
+
+}
@@ -1,7 +1,35 @@
 package ua.company.myroniuk.receiver;
 
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.result.Result;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface MessageReceiver {
 
     void receive(String message);
 
+    /**
+     * Receives every message of the batch; a message that fails parsing or validation is reported in the
+     * result instead of aborting the batch. The default implementation receives one message at a time;
+     * implementations override it to enqueue the whole batch in one operation.
+     */
+    default BatchReceiveResult receiveAll(List<String> messages) {
+        Map<Integer, Result<?>> rejections = new LinkedHashMap<>();
+        int index = 0;
+        for (String message : messages) {
+            try {
+                receive(message);
+            } catch (InstructionMessageParseException e) {
+                rejections.put(index, Result.failure(e));
+            } catch (InstructionMessageValidationException e) {
+                rejections.put(index, Result.failure(e));
+            }
+            index++;
+        }
+        return new BatchReceiveResult(messages.size() - rejections.size(), rejections);
+    }
+
 }
@@ -1,10 +1,23 @@
 package ua.company.myroniuk.receiver.impl;
 
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
 import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.metrics.ReceiverMetrics;
 import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.queue.BoundedQueue;
+import ua.company.myroniuk.queue.OfferResult;
 import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.receiver.BatchReceiveResult;
+import ua.company.myroniuk.receiver.DuplicateFilter;
 import ua.company.myroniuk.receiver.MessageReceiver;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
 import ua.company.myroniuk.validator.Validator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class InstructionMessageReceiver implements MessageReceiver {
 
@@ -14,6 +27,10 @@ public class InstructionMessageReceiver implements MessageReceiver {
 
     private Queue<InstructionMessage> queue;
 
+    private ReceiverMetrics metrics = ReceiverMetrics.NOOP;
+
+    private DuplicateFilter duplicateFilter = DuplicateFilter.NONE;
+
     public InstructionMessageReceiver(Parser<InstructionMessage> parser,
                                       Validator<InstructionMessage> validator, Queue<InstructionMessage> queue) {
         this.parser = parser;
@@ -21,11 +38,101 @@ public class InstructionMessageReceiver implements MessageReceiver {
         this.queue = queue;
     }
 
+    /**
+     * Receives the message, or drops it silently when the {@link DuplicateFilter} has seen it before.
+     */
     @Override
     public void receive(String message) {
-        InstructionMessage instructionMessage = parser.parse(message);
-        validator.validate(instructionMessage);
-        queue.enqueue(instructionMessage);
+        InstructionMessage instructionMessage = parseAndValidate(message);
+        if (instructionMessage == null) {
+            return;
+        }
+        try {
+            if (!metrics.isEnabled()) {
+                queue.enqueue(instructionMessage);
+                return;
+            }
+            long start = System.nanoTime();
+            queue.enqueue(instructionMessage);
+            metrics.recordEnqueue(1, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            duplicateFilter.forget(instructionMessage);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchReceiveResult receiveAll(List<String> messages) {
+        List<InstructionMessage> instructionMessages = new ArrayList<>(messages.size());
+        Map<Integer, Result<?>> rejections = new LinkedHashMap<>();
+        int duplicates = 0;
+        int index = 0;
+        for (String message : messages) {
+            Result<InstructionMessage> result = tryParseAndValidate(message);
+            if (result == null) {
+                duplicates++;
+            } else if (result.isSuccess()) {
+                instructionMessages.add(result.getValue());
+            } else {
+                rejections.put(index, result);
+            }
+            index++;
+        }
+        try {
+            if (!metrics.isEnabled()) {
+                queue.enqueueAll(instructionMessages);
+            } else {
+                long start = System.nanoTime();
+                queue.enqueueAll(instructionMessages);
+                metrics.recordEnqueue(instructionMessages.size(), System.nanoTime() - start);
+            }
+        } catch (RuntimeException e) {
+            for (InstructionMessage instructionMessage : instructionMessages) {
+                duplicateFilter.forget(instructionMessage);
+            }
+            throw e;
+        }
+        return new BatchReceiveResult(instructionMessages.size(), duplicates, rejections);
+    }
+
+    /**
+     * Receives the message without waiting for space in a {@link BoundedQueue}, so callers can apply
+     * backpressure themselves. Unbounded queues always accept the message.
+     */
+    public OfferResult tryReceive(String message) {
+        InstructionMessage instructionMessage = parseAndValidate(message);
+        if (instructionMessage == null) {
+            return OfferResult.DUPLICATE;
+        }
+        return offer(instructionMessage);
+    }
+
+    /**
+     * Receives a message the caller has already parsed, for example in place from a network buffer. Like
+     * {@link #tryReceive(String)} it does not wait for space in a {@link BoundedQueue}, and a message that
+     * fails validation is returned as a failure rather than thrown.
+     */
+    public Result<OfferResult> tryReceiveParsed(InstructionMessage instructionMessage) {
+        boolean measured = metrics.isEnabled();
+        if (duplicateFilter.isDuplicate(instructionMessage)) {
+            if (measured) {
+                metrics.recordDuplicate();
+            }
+            return Result.success(OfferResult.DUPLICATE);
+        }
+        long start = measured ? System.nanoTime() : 0;
+        Result<Void> validated = validator.tryValidate(instructionMessage);
+        if (!validated.isSuccess()) {
+            duplicateFilter.forget(instructionMessage);
+            if (measured) {
+                metrics.recordValidationRejection();
+            }
+            return Result.failure(validated.getErrorCode(), validated.getErrorMessage());
+        }
+        if (measured) {
+            metrics.recordValidation(System.nanoTime() - start);
+        }
+        return Result.success(offer(instructionMessage));
     }
 
     public Parser<InstructionMessage> getParser() {
@@ -52,4 +159,137 @@ public class InstructionMessageReceiver implements MessageReceiver {
         this.queue = queue;
     }
 
+    public ReceiverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(ReceiverMetrics metrics) {
+        this.metrics = metrics == null ? ReceiverMetrics.NOOP : metrics;
+    }
+
+    public DuplicateFilter getDuplicateFilter() {
+        return duplicateFilter;
+    }
+
+    /**
+     * Sets the filter that drops duplicates right after parsing, before they are validated and queued.
+     */
+    public void setDuplicateFilter(DuplicateFilter duplicateFilter) {
+        this.duplicateFilter = duplicateFilter == null ? DuplicateFilter.NONE : duplicateFilter;
+    }
+
+    // Returns null for a duplicate. A message that fails validation is forgotten again, so that a
+    // retry after a rejection is validated rather than dropped.
+    private InstructionMessage parseAndValidate(String message) {
+        if (!metrics.isEnabled()) {
+            InstructionMessage instructionMessage = parser.parse(message);
+            if (duplicateFilter.isDuplicate(instructionMessage)) {
+                return null;
+            }
+            validate(instructionMessage);
+            return instructionMessage;
+        }
+        long start = System.nanoTime();
+        InstructionMessage instructionMessage;
+        try {
+            instructionMessage = parser.parse(message);
+        } catch (InstructionMessageParseException e) {
+            metrics.recordParseRejection();
+            throw e;
+        }
+        long parsed = System.nanoTime();
+        metrics.recordParse(parsed - start);
+        if (duplicateFilter.isDuplicate(instructionMessage)) {
+            metrics.recordDuplicate();
+            return null;
+        }
+        try {
+            validate(instructionMessage);
+        } catch (InstructionMessageValidationException e) {
+            metrics.recordValidationRejection();
+            throw e;
+        }
+        metrics.recordValidation(System.nanoTime() - parsed);
+        return instructionMessage;
+    }
+
+    private void validate(InstructionMessage instructionMessage) {
+        try {
+            validator.validate(instructionMessage);
+        } catch (RuntimeException e) {
+            duplicateFilter.forget(instructionMessage);
+            throw e;
+        }
+    }
+
+    private OfferResult offer(InstructionMessage instructionMessage) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        OfferResult result;
+        try {
+            if (queue instanceof BoundedQueue) {
+                result = ((BoundedQueue<InstructionMessage>) queue).offer(instructionMessage);
+            } else {
+                queue.enqueue(instructionMessage);
+                result = OfferResult.ACCEPTED;
+            }
+        } catch (RuntimeException e) {
+            duplicateFilter.forget(instructionMessage);
+            throw e;
+        }
+        if (!result.isAccepted()) {
+            duplicateFilter.forget(instructionMessage);
+        }
+        if (metrics.isEnabled() && result.isAccepted()) {
+            metrics.recordEnqueue(1, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    // Returns null for a duplicate, like parseAndValidate.
+    private Result<InstructionMessage> tryParseAndValidate(String message) {
+        boolean measured = metrics.isEnabled();
+        long start = measured ? System.nanoTime() : 0;
+        Result<InstructionMessage> parsed;
+        try {
+            parsed = parser.tryParse(message);
+        } catch (RuntimeException e) {
+            // A parser that throws on some input must not abort the rest of the batch.
+            parsed = Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+        }
+        if (!parsed.isSuccess()) {
+            if (measured) {
+                metrics.recordParseRejection();
+            }
+            return parsed;
+        }
+        long validationStart = measured ? System.nanoTime() : 0;
+        if (measured) {
+            metrics.recordParse(validationStart - start);
+        }
+        if (duplicateFilter.isDuplicate(parsed.getValue())) {
+            if (measured) {
+                metrics.recordDuplicate();
+            }
+            return null;
+        }
+        Result<Void> validated;
+        try {
+            validated = validator.tryValidate(parsed.getValue());
+        } catch (RuntimeException e) {
+            // Like a throwing parser, a throwing validator only rejects the message at hand.
+            validated = Result.failure(ErrorCode.NOT_VALID_MESSAGE);
+        }
+        if (!validated.isSuccess()) {
+            duplicateFilter.forget(parsed.getValue());
+            if (measured) {
+                metrics.recordValidationRejection();
+            }
+            return Result.failure(validated.getErrorCode(), validated.getErrorMessage());
+        }
+        if (measured) {
+            metrics.recordValidation(System.nanoTime() - validationStart);
+        }
+        return parsed;
+    }
+
 }
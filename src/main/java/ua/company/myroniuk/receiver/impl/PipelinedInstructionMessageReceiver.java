@@ -0,0 +1,405 @@
+package ua.company.myroniuk.receiver.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.receiver.BatchReceiveResult;
+import ua.company.myroniuk.receiver.MessageReceiver;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import ua.company.myroniuk.validator.Validator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Receiver that runs parsing, validation and enqueueing on dedicated worker threads connected by a
+ * bounded ring buffer. Every message gets a sequence number when it is submitted; parse and validate
+ * workers may process messages out of order, but a single enqueue worker adds them to the queue in
+ * sequence order, so messages of each producer reach the queue in the order they were submitted.
+ * <p>
+ * The parser and the validator are shared by their stage's workers and must be thread-safe. The queue
+ * is only touched by the enqueue worker. Producers block while the ring buffer is full. A thread waiting
+ * for another stage spins and yields for a while and then blocks until that stage signals progress, so
+ * idle workers cost no CPU.
+ */
+public class PipelinedInstructionMessageReceiver implements MessageReceiver, AutoCloseable {
+
+    private static final int DEFAULT_RING_SIZE = 1024;
+
+    private static final int SPIN_ATTEMPTS = 100;
+
+    private static final int YIELD_ATTEMPTS = 200;
+
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Parser<InstructionMessage> parser;
+
+    private final Validator<InstructionMessage> validator;
+
+    private final Queue<InstructionMessage> queue;
+
+    private final Slot[] ring;
+
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong();
+
+    private final AtomicLong parseCursor = new AtomicLong();
+
+    private final AtomicLong validateCursor = new AtomicLong();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Signal publishedSignal = new Signal();
+
+    private final Signal parsedSignal = new Signal();
+
+    private final Signal validatedSignal = new Signal();
+
+    private final Signal committedSignal = new Signal();
+
+    private volatile long committed = -1;
+
+    private volatile boolean stopped;
+
+    public PipelinedInstructionMessageReceiver(Parser<InstructionMessage> parser,
+                                               Validator<InstructionMessage> validator,
+                                               Queue<InstructionMessage> queue) {
+        this(parser, validator, queue, DEFAULT_RING_SIZE,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 1);
+    }
+
+    public PipelinedInstructionMessageReceiver(Parser<InstructionMessage> parser,
+                                               Validator<InstructionMessage> validator,
+                                               Queue<InstructionMessage> queue,
+                                               int ringSize, int parseWorkers, int validateWorkers) {
+        if (ringSize < 1 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two.");
+        }
+        if (parseWorkers < 1 || validateWorkers < 1) {
+            throw new IllegalArgumentException("Every stage needs at least one worker.");
+        }
+        this.parser = parser;
+        this.validator = validator;
+        this.queue = queue;
+        this.ring = new Slot[ringSize];
+        this.mask = ringSize - 1;
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Slot();
+        }
+        for (int i = 0; i < parseWorkers; i++) {
+            startWorker("instruction-message-parser-" + i, this::runParser);
+        }
+        for (int i = 0; i < validateWorkers; i++) {
+            startWorker("instruction-message-validator-" + i, this::runValidator);
+        }
+        startWorker("instruction-message-enqueuer", this::runEnqueuer);
+    }
+
+    /**
+     * Blocks until the message is enqueued and rethrows the exception it was rejected with, if any.
+     */
+    @Override
+    public void receive(String message) {
+        try {
+            receiveAsync(message).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @Override
+    public BatchReceiveResult receiveAll(List<String> messages) {
+        Batch batch = new Batch(messages.size());
+        int index = 0;
+        for (String message : messages) {
+            submit(message, null, batch, index++);
+        }
+        batch.done.join();
+        if (batch.error != null) {
+            throw batch.error;
+        }
+        Map<Integer, Result<?>> rejections = new LinkedHashMap<>();
+        for (int i = 0; i < batch.rejections.length; i++) {
+            if (batch.rejections[i] != null) {
+                rejections.put(i, batch.rejections[i]);
+            }
+        }
+        return new BatchReceiveResult(messages.size() - rejections.size(), rejections);
+    }
+
+    /**
+     * Submits the message to the pipeline. The returned future completes with the enqueued message, or
+     * exceptionally with the exception the message was rejected with.
+     */
+    public CompletableFuture<InstructionMessage> receiveAsync(String message) {
+        CompletableFuture<InstructionMessage> future = new CompletableFuture<>();
+        submit(message, future, null, 0);
+        return future;
+    }
+
+    /**
+     * Stops accepting messages, waits until every submitted message has gone through the pipeline
+     * and stops the workers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        long end = claimed.getAndSet(CLOSED);
+        if (end < 0) {
+            return;
+        }
+        committedSignal.await(() -> committed >= end - 1);
+        stopped = true;
+        publishedSignal.signalAll();
+        parsedSignal.signalAll();
+        validatedSignal.signalAll();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public Parser<InstructionMessage> getParser() {
+        return parser;
+    }
+
+    public Validator<InstructionMessage> getValidator() {
+        return validator;
+    }
+
+    public Queue<InstructionMessage> getQueue() {
+        return queue;
+    }
+
+    // A message is reported either through its future or, when it is part of a batch, through the batch.
+    private void submit(String message, CompletableFuture<InstructionMessage> future, Batch batch, int index) {
+        long sequence = claimed.getAndIncrement();
+        if (sequence < 0) {
+            throw new IllegalStateException("Receiver is closed.");
+        }
+        if (sequence - ring.length > committed) {
+            committedSignal.await(() -> sequence - ring.length <= committed);
+        }
+        Slot slot = ring[(int) sequence & mask];
+        slot.raw = message;
+        slot.future = future;
+        slot.batch = batch;
+        slot.index = index;
+        slot.published = sequence;
+        publishedSignal.signalAll();
+    }
+
+    private void startWorker(String name, Runnable task) {
+        Thread worker = new Thread(task, name);
+        worker.setDaemon(true);
+        workers.add(worker);
+        worker.start();
+    }
+
+    private void runParser() {
+        while (true) {
+            long sequence = parseCursor.getAndIncrement();
+            Slot slot = ring[(int) sequence & mask];
+            if (slot.published != sequence) {
+                publishedSignal.await(() -> slot.published == sequence || stopped);
+                if (slot.published != sequence) {
+                    return;
+                }
+            }
+            Result<InstructionMessage> result;
+            try {
+                result = parser.tryParse(slot.raw);
+            } catch (RuntimeException e) {
+                // Reported as a rejection of this message, like InstructionMessageReceiver does.
+                result = Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT);
+            }
+            if (result.isSuccess()) {
+                slot.message = result.getValue();
+            } else {
+                slot.rejection = result;
+            }
+            slot.parsed = sequence;
+            parsedSignal.signalAll();
+        }
+    }
+
+    private void runValidator() {
+        while (true) {
+            long sequence = validateCursor.getAndIncrement();
+            Slot slot = ring[(int) sequence & mask];
+            if (slot.parsed != sequence) {
+                parsedSignal.await(() -> slot.parsed == sequence || stopped);
+                if (slot.parsed != sequence) {
+                    return;
+                }
+            }
+            if (slot.message != null) {
+                try {
+                    Result<Void> result = validator.tryValidate(slot.message);
+                    if (!result.isSuccess()) {
+                        slot.rejection = result;
+                    }
+                } catch (RuntimeException e) {
+                    // Reported as a rejection of this message, like a throwing parser.
+                    slot.rejection = Result.failure(ErrorCode.NOT_VALID_MESSAGE);
+                }
+            }
+            slot.validated = sequence;
+            validatedSignal.signalAll();
+        }
+    }
+
+    private void runEnqueuer() {
+        for (long sequence = 0; ; sequence++) {
+            Slot slot = ring[(int) sequence & mask];
+            if (slot.validated != sequence) {
+                long expected = sequence;
+                validatedSignal.await(() -> slot.validated == expected || stopped);
+                if (slot.validated != sequence) {
+                    return;
+                }
+            }
+            InstructionMessage message = slot.message;
+            Result<?> rejection = slot.rejection;
+            RuntimeException error = null;
+            CompletableFuture<InstructionMessage> future = slot.future;
+            Batch batch = slot.batch;
+            int index = slot.index;
+            if (rejection == null) {
+                try {
+                    queue.enqueue(message);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            slot.clear();
+            committed = sequence;
+            committedSignal.signalAll();
+            if (batch != null) {
+                batch.complete(index, rejection, error);
+            } else if (error != null) {
+                future.completeExceptionally(error);
+            } else if (rejection != null) {
+                future.completeExceptionally(rejection.toException());
+            } else {
+                future.complete(message);
+            }
+        }
+    }
+
+    // Blocks waiters once spinning and yielding have not helped. A waiter registers before it checks the
+    // condition under the lock and a signaller checks for waiters after it has made progress, so either the
+    // waiter sees the progress or the signaller sees the waiter; signalling costs one volatile read otherwise.
+    private static final class Signal {
+
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition progress = lock.newCondition();
+
+        private void await(BooleanSupplier ready) {
+            for (int attempts = 0; attempts < SPIN_ATTEMPTS + YIELD_ATTEMPTS; attempts++) {
+                if (ready.getAsBoolean()) {
+                    return;
+                }
+                if (attempts >= SPIN_ATTEMPTS) {
+                    Thread.yield();
+                }
+            }
+            waiters.incrementAndGet();
+            lock.lock();
+            try {
+                while (!ready.getAsBoolean()) {
+                    progress.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+                waiters.decrementAndGet();
+            }
+        }
+
+        private void signalAll() {
+            if (waiters.get() > 0) {
+                lock.lock();
+                try {
+                    progress.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+    }
+
+    // Plain fields are published to the next stage by the volatile write of the stage's sequence.
+    private static final class Slot {
+
+        private String raw;
+
+        private InstructionMessage message;
+
+        private Result<?> rejection;
+
+        private CompletableFuture<InstructionMessage> future;
+
+        private Batch batch;
+
+        private int index;
+
+        private volatile long published = -1;
+
+        private volatile long parsed = -1;
+
+        private volatile long validated = -1;
+
+        private void clear() {
+            raw = null;
+            message = null;
+            rejection = null;
+            future = null;
+            batch = null;
+        }
+
+    }
+
+    // Only the enqueue worker writes to a batch; the completion of its future publishes the writes.
+    private static final class Batch {
+
+        private final Result<?>[] rejections;
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private int remaining;
+
+        private RuntimeException error;
+
+        private Batch(int size) {
+            rejections = new Result<?>[size];
+            remaining = size;
+            if (size == 0) {
+                done.complete(null);
+            }
+        }
+
+        private void complete(int index, Result<?> rejection, RuntimeException e) {
+            rejections[index] = rejection;
+            if (e != null && error == null) {
+                error = e;
+            }
+            if (--remaining == 0) {
+                done.complete(null);
+            }
+        }
+
+    }
+
+}
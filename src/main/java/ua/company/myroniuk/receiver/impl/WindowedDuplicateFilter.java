@@ -0,0 +1,233 @@
+package ua.company.myroniuk.receiver.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.receiver.DuplicateFilter;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the 64-bit fingerprints of the messages seen within a time window, up to a bounded number of
+ * them; the oldest fingerprint is evicted first when either limit is reached. Fingerprints are kept in
+ * primitive open-addressing tables, striped into segments with a lock each, so a lookup allocates nothing.
+ * <p>
+ * Two different messages are taken for duplicates only if their fingerprints collide; with a million
+ * remembered messages the chance that any two collide is about 3 in 100 million.
+ */
+public class WindowedDuplicateFilter implements DuplicateFilter {
+
+    private static final int SEGMENTS = 16;
+
+    private static final int SEGMENT_SHIFT = 60;
+
+    private static final long EMPTY = 0;
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final long NULL_FIELD = Long.MIN_VALUE + 1;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final long window;
+
+    private final LongSupplier clock;
+
+    public WindowedDuplicateFilter(int capacity, long window, TimeUnit unit) {
+        this(capacity, window, unit, System::nanoTime);
+    }
+
+    /**
+     * @param clock current time in nanoseconds
+     */
+    WindowedDuplicateFilter(int capacity, long window, TimeUnit unit, LongSupplier clock) {
+        if (capacity < 1 || window < 1) {
+            throw new IllegalArgumentException("Capacity and window must be positive.");
+        }
+        this.window = unit.toNanos(window);
+        this.clock = clock;
+        int segmentCapacity = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Override
+    public boolean isDuplicate(InstructionMessage message) {
+        long fingerprint = fingerprint(message);
+        return segmentOf(fingerprint).isDuplicate(fingerprint, clock.getAsLong(), window);
+    }
+
+    @Override
+    public void forget(InstructionMessage message) {
+        long fingerprint = fingerprint(message);
+        segmentOf(fingerprint).forget(fingerprint);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Hashes every field compared by {@link InstructionMessage#equals(Object)}, finished with the MurmurHash3
+     * mixer so that all 64 bits depend on every field. Never returns zero.
+     */
+    static long fingerprint(InstructionMessage message) {
+        long hash = mix(0, message.getInstructionType() == null ? NULL_FIELD : message.getInstructionType().ordinal());
+        String productCode = message.getProductCode();
+        if (productCode == null) {
+            hash = mix(hash, NULL_FIELD);
+        } else {
+            hash = mix(hash, productCode.length());
+            for (int i = 0; i < productCode.length(); i++) {
+                hash = mix(hash, productCode.charAt(i));
+            }
+        }
+        hash = mix(hash, message.getQuantity() == null ? NULL_FIELD : message.getQuantity());
+        hash = mix(hash, message.getUom() == null ? NULL_FIELD : message.getUom());
+        LocalDateTime timestamp = message.getTimestamp();
+        if (timestamp == null) {
+            hash = mix(hash, NULL_FIELD);
+        } else {
+            hash = mix(hash, timestamp.toEpochSecond(ZoneOffset.UTC));
+            hash = mix(hash, timestamp.getNano());
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft((hash ^ value) * MULTIPLIER, 31);
+    }
+
+    private Segment segmentOf(long fingerprint) {
+        return segments[(int) (fingerprint >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Linear-probing table of fingerprints with the time each was remembered, plus a ring of the same
+     * entries in insertion order for eviction. A forgotten entry stays in the ring until it is evicted,
+     * and eviction only removes a table entry remembered at the same time as the ring entry.
+     */
+    private static final class Segment {
+
+        private final long[] fingerprints;
+
+        private final long[] times;
+
+        private final int mask;
+
+        private final long[] ringFingerprints;
+
+        private final long[] ringTimes;
+
+        private int ringHead;
+
+        private int ringSize;
+
+        private int size;
+
+        private Segment(int capacity) {
+            int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            fingerprints = new long[tableSize];
+            times = new long[tableSize];
+            mask = tableSize - 1;
+            ringFingerprints = new long[capacity];
+            ringTimes = new long[capacity];
+        }
+
+        private synchronized boolean isDuplicate(long fingerprint, long now, long window) {
+            while (ringSize > 0 && now - ringTimes[ringHead] >= window) {
+                evictOldest();
+            }
+            int slot = indexOf(fingerprint);
+            while (fingerprints[slot] != EMPTY) {
+                if (fingerprints[slot] == fingerprint) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (ringSize == ringFingerprints.length) {
+                evictOldest();
+                slot = indexOf(fingerprint);
+                while (fingerprints[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+            }
+            fingerprints[slot] = fingerprint;
+            times[slot] = now;
+            size++;
+            int tail = (ringHead + ringSize) % ringFingerprints.length;
+            ringFingerprints[tail] = fingerprint;
+            ringTimes[tail] = now;
+            ringSize++;
+            return false;
+        }
+
+        private synchronized void forget(long fingerprint) {
+            int slot = find(fingerprint);
+            if (slot >= 0) {
+                delete(slot);
+            }
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private void evictOldest() {
+            int slot = find(ringFingerprints[ringHead]);
+            if (slot >= 0 && times[slot] == ringTimes[ringHead]) {
+                delete(slot);
+            }
+            ringHead = ringHead + 1 == ringFingerprints.length ? 0 : ringHead + 1;
+            ringSize--;
+        }
+
+        private int find(long fingerprint) {
+            int slot = indexOf(fingerprint);
+            while (fingerprints[slot] != EMPTY) {
+                if (fingerprints[slot] == fingerprint) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        // Backward-shift deletion: later entries of the probe run move into the hole when their home
+        // slot is not between the hole and themselves, so no tombstones are needed.
+        private void delete(int slot) {
+            int hole = slot;
+            int i = slot;
+            while (true) {
+                i = (i + 1) & mask;
+                if (fingerprints[i] == EMPTY) {
+                    break;
+                }
+                int home = indexOf(fingerprints[i]);
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    fingerprints[hole] = fingerprints[i];
+                    times[hole] = times[i];
+                    hole = i;
+                }
+            }
+            fingerprints[hole] = EMPTY;
+            size--;
+        }
+
+        private int indexOf(long fingerprint) {
+            return (int) fingerprint & mask;
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package ua.company.myroniuk.result;
+
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+
+public enum ErrorCode {
+
+    NOT_VALID_MESSAGE_FORMAT(true, "Message format is not valid. Expected format: \n   " +
+            "\"InstructionMessage <InstructionType> <ProductCode> <Quantity> <UOM> <Timestamp>\"\n" +
+            "Timestamp must use the format: \"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'\".\n" +
+            "Message must end with a newline character."),
+
+    NOT_VALID_PRODUCT_CODE(false,
+            "Product code is not valid. Expected value: two uppercase letters followed by two digits."),
+
+    NOT_VALID_QUANTITY(false, "Quantity is not valid. Expected value: positive integer number."),
+
+    NOT_VALID_UOM(false, "Uom is not valid. Expected value: integer number between " +
+            InstructionMessageValidator.MIN_UOM_VALUE + " and " + InstructionMessageValidator.MAX_UOM_VALUE +
+            " inclusively."),
+
+    NOT_VALID_TIMESTAMP(false, "Timestamp is not valid. Expected value: timestamp being greater than unix epoch " +
+            "and less or equal than current data time."),
+
+    NOT_VALID_MESSAGE(false, "Message is not valid.");
+
+    private final boolean parseError;
+
+    private final String message;
+
+    ErrorCode(boolean parseError, String message) {
+        this.parseError = parseError;
+        this.message = message;
+    }
+
+    public boolean isParseError() {
+        return parseError;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public RuntimeException toException() {
+        return toException(message);
+    }
+
+    public RuntimeException toException(String message) {
+        return parseError
+                ? new InstructionMessageParseException(this, message)
+                : new InstructionMessageValidationException(this, message);
+    }
+
+}
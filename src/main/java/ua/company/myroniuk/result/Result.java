@@ -0,0 +1,98 @@
+package ua.company.myroniuk.result;
+
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import java.util.Objects;
+
+/**
+ * Outcome of parsing or validating a message without throwing. A failure carries an {@link ErrorCode}
+ * and a message; failures with the code's own message are shared instances, so reporting bad input
+ * allocates nothing.
+ */
+public final class Result<T> {
+
+    private static final Result<?>[] FAILURES = new Result<?>[ErrorCode.values().length];
+
+    private static final Result<?> EMPTY = new Result<>(null, null, null);
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            FAILURES[errorCode.ordinal()] = new Result<>(null, errorCode, errorCode.getMessage());
+        }
+    }
+
+    private final T value;
+
+    private final ErrorCode errorCode;
+
+    private final String errorMessage;
+
+    private Result(T value, ErrorCode errorCode, String errorMessage) {
+        this.value = value;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public static <T> Result<T> success(T value) {
+        return new Result<>(value, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Result<T> success() {
+        return (Result<T>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Result<T> failure(ErrorCode errorCode) {
+        return (Result<T>) FAILURES[errorCode.ordinal()];
+    }
+
+    public static <T> Result<T> failure(ErrorCode errorCode, String errorMessage) {
+        if (errorCode.getMessage().equals(errorMessage)) {
+            return failure(errorCode);
+        }
+        return new Result<>(null, Objects.requireNonNull(errorCode), errorMessage);
+    }
+
+    public static <T> Result<T> failure(InstructionMessageParseException e) {
+        return failure(e.getErrorCode() == null ? ErrorCode.NOT_VALID_MESSAGE_FORMAT : e.getErrorCode(), e.getMessage());
+    }
+
+    public static <T> Result<T> failure(InstructionMessageValidationException e) {
+        return failure(e.getErrorCode() == null ? ErrorCode.NOT_VALID_MESSAGE : e.getErrorCode(), e.getMessage());
+    }
+
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Returns the value, or throws the exception the throwing API reports this failure with.
+     */
+    public T getOrThrow() {
+        if (errorCode != null) {
+            throw toException();
+        }
+        return value;
+    }
+
+    public RuntimeException toException() {
+        if (errorCode == null) {
+            throw new IllegalStateException("Result is not a failure.");
+        }
+        return errorCode.toException(errorMessage);
+    }
+
+}
@@ -0,0 +1,15 @@
+package ua.company.myroniuk.server;
+
+import java.net.InetSocketAddress;
+
+public interface MessageServer extends AutoCloseable {
+
+    InetSocketAddress getLocalAddress();
+
+    /**
+     * Stops accepting connections, closes the open ones and waits until the server has stopped.
+     */
+    @Override
+    void close() throws InterruptedException;
+
+}
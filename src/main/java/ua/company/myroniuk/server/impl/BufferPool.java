@@ -0,0 +1,39 @@
+package ua.company.myroniuk.server.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of equally sized direct buffers, so that connections do not allocate and free native memory as they
+ * come and go. Keeps at most {@code maxPooled} idle buffers. Not thread-safe.
+ */
+final class BufferPool {
+
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+
+    private final int bufferSize;
+
+    private final int maxPooled;
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.pollFirst();
+        return buffer == null ? ByteBuffer.allocateDirect(bufferSize) : buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (buffers.size() < maxPooled) {
+            buffer.clear();
+            buffers.addFirst(buffer);
+        }
+    }
+
+    int getPooledCount() {
+        return buffers.size();
+    }
+
+}
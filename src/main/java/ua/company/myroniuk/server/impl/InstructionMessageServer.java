@@ -0,0 +1,394 @@
+package ua.company.myroniuk.server.impl;
+
+import ua.company.myroniuk.exception.InstructionMessageStorageException;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.ByteBufferCharSequence;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.OfferResult;
+import ua.company.myroniuk.receiver.impl.InstructionMessageReceiver;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import ua.company.myroniuk.server.MessageServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Non-blocking TCP server for clients that stream newline-delimited instruction messages. Every message is
+ * answered with one line, in the order the messages were sent: {@code OK <OfferResult>} when it is accepted,
+ * {@code ERR <ErrorCode>} or {@code ERR REJECTED} when it is not, {@code ERR LINE_TOO_LONG} for a line that
+ * does not fit the read buffer and {@code ERR FAILED} when the receiver throws. Clients may send any number of
+ * messages without waiting for the answers.
+ * <p>
+ * A single selector thread serves all connections, so the receiver and its queue are only ever called from
+ * that thread. Frames are scanned in place from pooled direct buffers and answers are written from
+ * precomputed bytes. While a client does not read its answers, the server stops reading from it.
+ */
+public class InstructionMessageServer implements MessageServer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    private static final int DEFAULT_POOLED_BUFFERS = 256;
+
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private static final byte NEWLINE = '\n';
+
+    private static final byte[][] OFFER_RESPONSES = new byte[OfferResult.values().length][];
+
+    private static final byte[][] ERROR_RESPONSES = new byte[ErrorCode.values().length][];
+
+    private static final byte[] LINE_TOO_LONG = response("ERR LINE_TOO_LONG");
+
+    private static final byte[] FAILED = response("ERR FAILED");
+
+    private static final int MAX_RESPONSE_LENGTH;
+
+    static {
+        int maxLength = Math.max(LINE_TOO_LONG.length, FAILED.length);
+        for (OfferResult result : OfferResult.values()) {
+            OFFER_RESPONSES[result.ordinal()] = response((result.isAccepted() ? "OK " : "ERR ") + result.name());
+            maxLength = Math.max(maxLength, OFFER_RESPONSES[result.ordinal()].length);
+        }
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            ERROR_RESPONSES[errorCode.ordinal()] = response("ERR " + errorCode.name());
+            maxLength = Math.max(maxLength, ERROR_RESPONSES[errorCode.ordinal()].length);
+        }
+        MAX_RESPONSE_LENGTH = maxLength;
+    }
+
+    private final ScanningInstructionMessageParser parser;
+
+    private final InstructionMessageReceiver receiver;
+
+    private final BufferPool pool;
+
+    private final MutableInstructionMessage target = new MutableInstructionMessage();
+
+    private final ByteBufferCharSequence frame = new ByteBufferCharSequence();
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final InetSocketAddress localAddress;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    private volatile IOException failure;
+
+    // Written by the selector thread only.
+    private volatile int connectionCount;
+
+    private volatile long acceptedCount;
+
+    private volatile long rejectedCount;
+
+    public InstructionMessageServer(InetSocketAddress address, ScanningInstructionMessageParser parser,
+                                    InstructionMessageReceiver receiver) {
+        this(address, parser, receiver, DEFAULT_BUFFER_SIZE, DEFAULT_POOLED_BUFFERS);
+    }
+
+    /**
+     * @param bufferSize size of the read and the write buffer of each connection, which bounds the length of a line
+     * @param pooledBuffers how many buffers of closed connections are kept for new ones
+     */
+    public InstructionMessageServer(InetSocketAddress address, ScanningInstructionMessageParser parser,
+                                    InstructionMessageReceiver receiver, int bufferSize, int pooledBuffers) {
+        if (bufferSize < MIN_BUFFER_SIZE || pooledBuffers < 0) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE
+                    + " bytes and the number of pooled buffers must not be negative.");
+        }
+        this.parser = parser;
+        this.receiver = receiver;
+        this.pool = new BufferPool(bufferSize, pooledBuffers);
+        Selector selector = null;
+        ServerSocketChannel serverChannel = null;
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            this.localAddress = (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            throw new InstructionMessageStorageException("Failed to bind instruction message server to " + address, e);
+        }
+        this.selector = selector;
+        this.serverChannel = serverChannel;
+        this.thread = new Thread(this::serve, "instruction-message-server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * @throws InstructionMessageStorageException if the server had stopped because its selector failed
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        selector.wakeup();
+        thread.join();
+        if (failure != null) {
+            throw new InstructionMessageStorageException("Instruction message server failed", failure);
+        }
+    }
+
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        ((Connection) key.attachment()).onReady(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+        }
+    }
+
+    // A failure to set up one incoming connection only closes that connection.
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // For example too many open files; the connection stays pending for a later select.
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                continue;
+            }
+            Connection connection = new Connection(channel);
+            try {
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+
+    private byte[] receive(ByteBuffer buffer, int start, int end) {
+        if (!parser.tryParseInto(frame.wrap(buffer, start, end), target)) {
+            rejectedCount++;
+            return ERROR_RESPONSES[ErrorCode.NOT_VALID_MESSAGE_FORMAT.ordinal()];
+        }
+        Result<OfferResult> result;
+        try {
+            result = receiver.tryReceiveParsed(target.toInstructionMessage());
+        } catch (RuntimeException e) {
+            rejectedCount++;
+            return FAILED;
+        }
+        if (!result.isSuccess()) {
+            rejectedCount++;
+            return ERROR_RESPONSES[result.getErrorCode().ordinal()];
+        }
+        if (result.getValue().isAccepted()) {
+            acceptedCount++;
+        } else {
+            rejectedCount++;
+        }
+        return OFFER_RESPONSES[result.getValue().ordinal()];
+    }
+
+    private static byte[] response(String line) {
+        return (line + '\n').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // Nothing left to do with a channel that fails to close.
+            }
+        }
+    }
+
+    /**
+     * Both buffers stay in write mode: {@code in} holds bytes read but not yet answered, of which the first
+     * {@code scanned} have no newline after the last framed line; {@code out} holds answers not yet sent.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer in = pool.acquire();
+
+        private final ByteBuffer out = pool.acquire();
+
+        private SelectionKey key;
+
+        private int scanned;
+
+        private boolean skipping;
+
+        private boolean inputClosed;
+
+        private boolean blocked;
+
+        private boolean released;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            connectionCount++;
+        }
+
+        private void onReady(SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    flush();
+                }
+                if (key.isReadable() && channel.read(in) == -1) {
+                    inputClosed = true;
+                }
+                process();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        // Repeats while answers could be sent at once to make room for more.
+        private void process() throws IOException {
+            do {
+                int framed = frame();
+                in.flip();
+                in.position(framed);
+                in.compact();
+                scanned -= framed;
+                if (!blocked) {
+                    if (framed == 0 && !in.hasRemaining()) {
+                        rejectLine(LINE_TOO_LONG);
+                    } else if (inputClosed && in.position() > 0) {
+                        rejectLine(ERROR_RESPONSES[ErrorCode.NOT_VALID_MESSAGE_FORMAT.ordinal()]);
+                    }
+                }
+                flush();
+            } while (blocked && out.remaining() >= MAX_RESPONSE_LENGTH);
+            if (inputClosed && in.position() == 0 && out.position() == 0) {
+                close();
+                return;
+            }
+            int ops = out.position() > 0 ? SelectionKey.OP_WRITE : 0;
+            if (!inputClosed && !blocked) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        // Answers complete lines until the output buffer might not hold another answer, and returns the
+        // index just after the last line framed.
+        private int frame() {
+            blocked = false;
+            int start = 0;
+            for (int i = scanned; i < in.position(); i++) {
+                if (in.get(i) == NEWLINE) {
+                    if (skipping) {
+                        skipping = false;
+                    } else if (out.remaining() < MAX_RESPONSE_LENGTH) {
+                        blocked = true;
+                        scanned = i;
+                        return start;
+                    } else {
+                        out.put(receive(in, start, i + 1));
+                    }
+                    start = i + 1;
+                }
+            }
+            scanned = in.position();
+            return start;
+        }
+
+        // Drops everything read so far; the rest of an over-long line is skipped up to its newline.
+        private void rejectLine(byte[] response) {
+            if (out.remaining() < MAX_RESPONSE_LENGTH) {
+                blocked = true;
+                return;
+            }
+            if (!skipping) {
+                rejectedCount++;
+                out.put(response);
+            }
+            skipping = !inputClosed;
+            in.clear();
+            scanned = 0;
+        }
+
+        private void flush() throws IOException {
+            if (out.position() > 0) {
+                out.flip();
+                channel.write(out);
+                out.compact();
+            }
+        }
+
+        // Also called for connections closed already whose cancelled key is still registered when the server stops.
+        private void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+            pool.release(in);
+            pool.release(out);
+            connectionCount--;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package ua.company.myroniuk.time;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall clock of the system default zone that is read from a cached value refreshed every
+ * {@code tolerance} by a daemon thread, so a read costs a volatile load instead of a time zone lookup.
+ * {@link #now()} may lag the real time by up to the tolerance, and {@link #latest()} is the latest
+ * time the wall clock can currently show; checks that must not reject the present compare with it.
+ * <p>
+ * Millisecond values are the local date-time read as UTC, the convention of the compact message forms.
+ * A clock with zero tolerance reads the system clock on every call and starts no thread.
+ */
+public class CoarseClock implements AutoCloseable {
+
+    private final long toleranceMillis;
+
+    private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+
+    private final ScheduledExecutorService ticker;
+
+    private volatile Tick tick;
+
+    public CoarseClock(long tolerance, TimeUnit unit) {
+        toleranceMillis = unit.toMillis(tolerance);
+        if (toleranceMillis < 0) {
+            throw new IllegalArgumentException("Tolerance must not be negative.");
+        }
+        if (toleranceMillis == 0) {
+            ticker = null;
+            return;
+        }
+        tick = read();
+        ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> tick = read(), toleranceMillis, toleranceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static CoarseClock exact() {
+        return new CoarseClock(0, TimeUnit.MILLISECONDS);
+    }
+
+    public LocalDateTime now() {
+        return current().now;
+    }
+
+    public long millis() {
+        return current().millis;
+    }
+
+    public LocalDateTime latest() {
+        return current().latest;
+    }
+
+    public long latestMillis() {
+        return current().latestMillis;
+    }
+
+    public long getToleranceMillis() {
+        return toleranceMillis;
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    private Tick current() {
+        return ticker == null ? read() : tick;
+    }
+
+    private Tick read() {
+        Instant instant = Instant.now();
+        LocalDateTime now = LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(),
+                zoneRules.getOffset(instant));
+        return new Tick(now, now.toInstant(ZoneOffset.UTC).toEpochMilli(), toleranceMillis);
+    }
+
+    private static final class Tick {
+
+        private final LocalDateTime now;
+
+        private final long millis;
+
+        private final LocalDateTime latest;
+
+        private final long latestMillis;
+
+        private Tick(LocalDateTime now, long millis, long toleranceMillis) {
+            this.now = now;
+            this.millis = millis;
+            this.latest = toleranceMillis == 0 ? now : now.plus(toleranceMillis, ChronoUnit.MILLIS);
+            this.latestMillis = millis + toleranceMillis;
+        }
+
+    }
+
+}
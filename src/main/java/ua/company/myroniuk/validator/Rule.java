@@ -0,0 +1,22 @@
+package ua.company.myroniuk.validator;
+
+import ua.company.myroniuk.result.ErrorCode;
+
+/**
+ * Single check of a validation rule chain.
+ */
+public interface Rule<T> {
+
+    /**
+     * Returns the error code of the violation, or {@code null} if the rule holds.
+     */
+    ErrorCode check(T t);
+
+    /**
+     * Relative cost of {@link #check(Object)}; cheaper rules run first.
+     */
+    default int cost() {
+        return 0;
+    }
+
+}
@@ -1,7 +1,23 @@
 package ua.company.myroniuk.validator;
 
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.result.Result;
+
 public interface Validator<T> {
 
     void validate(T t);
 
+    /**
+     * Validates without throwing on bad input. The default implementation falls back to
+     * {@link #validate(Object)}; implementations override it to avoid the cost of the exception.
+     */
+    default Result<Void> tryValidate(T t) {
+        try {
+            validate(t);
+            return Result.success();
+        } catch (InstructionMessageValidationException e) {
+            return Result.failure(e);
+        }
+    }
+
 }
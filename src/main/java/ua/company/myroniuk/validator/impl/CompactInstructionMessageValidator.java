@@ -0,0 +1,112 @@
+package ua.company.myroniuk.validator.impl;
+
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import ua.company.myroniuk.time.CoarseClock;
+import ua.company.myroniuk.validator.Validator;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+/**
+ * Applies the checks of {@link InstructionMessageValidator} to the primitive message forms. As there,
+ * the timestamp is compared with the system default zone's wall clock.
+ */
+public class CompactInstructionMessageValidator implements Validator<CompactInstructionMessage> {
+
+    private static final int PRODUCT_CODE_LENGTH = 4;
+
+    private static final int MIN_QUANTITY_VALUE = 1;
+
+    private static final int MIN_UOM_VALUE = 0;
+
+    private static final int MAX_UOM_VALUE = 255;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+
+    private final long unixEpoch = zoneRules.getOffset(Instant.EPOCH).getTotalSeconds() * MILLIS_PER_SECOND;
+
+    private final CoarseClock clock;
+
+    public CompactInstructionMessageValidator() {
+        this(null);
+    }
+
+    /**
+     * @param clock clock to read the time from, timestamps up to its tolerance ahead are accepted;
+     *              {@code null} reads the system clock for every message
+     */
+    public CompactInstructionMessageValidator(CoarseClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void validate(CompactInstructionMessage message) {
+        throwIfNotValid(check(message));
+    }
+
+    public void validate(MutableInstructionMessage message) {
+        throwIfNotValid(check(message));
+    }
+
+    @Override
+    public Result<Void> tryValidate(CompactInstructionMessage message) {
+        return toResult(check(message));
+    }
+
+    public Result<Void> tryValidate(MutableInstructionMessage message) {
+        return toResult(check(message));
+    }
+
+    private ErrorCode check(CompactInstructionMessage message) {
+        if (!InstructionMessageRules.isProductCode(message.getProductCode())) {
+            return ErrorCode.NOT_VALID_PRODUCT_CODE;
+        }
+        return check(message.getQuantity(), message.getUom(), message.getTimestamp());
+    }
+
+    private ErrorCode check(MutableInstructionMessage message) {
+        if (message.getProductCodeLength() != PRODUCT_CODE_LENGTH
+                || !InstructionMessageRules.isProductCode(message.getProductCodeChar(0), message.getProductCodeChar(1),
+                message.getProductCodeChar(2), message.getProductCodeChar(3))) {
+            return ErrorCode.NOT_VALID_PRODUCT_CODE;
+        }
+        return check(message.getQuantity(), message.getUom(), message.getTimestamp());
+    }
+
+    private ErrorCode check(int quantity, int uom, long timestamp) {
+        if (quantity < MIN_QUANTITY_VALUE) {
+            return ErrorCode.NOT_VALID_QUANTITY;
+        }
+        if (uom < MIN_UOM_VALUE || uom > MAX_UOM_VALUE) {
+            return ErrorCode.NOT_VALID_UOM;
+        }
+        if (timestamp <= unixEpoch || timestamp > latest()) {
+            return ErrorCode.NOT_VALID_TIMESTAMP;
+        }
+        return null;
+    }
+
+    private void throwIfNotValid(ErrorCode errorCode) {
+        if (errorCode != null) {
+            throw errorCode.toException();
+        }
+    }
+
+    private Result<Void> toResult(ErrorCode errorCode) {
+        return errorCode == null ? Result.success() : Result.failure(errorCode);
+    }
+
+    private long latest() {
+        if (clock != null) {
+            return clock.latestMillis();
+        }
+        Instant now = Instant.now();
+        return now.toEpochMilli() + zoneRules.getOffset(now).getTotalSeconds() * MILLIS_PER_SECOND;
+    }
+
+}
@@ -0,0 +1,33 @@
+package ua.company.myroniuk.validator.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.time.CoarseClock;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High-throughput counterpart of {@link InstructionMessageValidator}: it checks the product code without
+ * a regular expression and reads the time from a {@link CoarseClock}. It reports the same errors, except
+ * that timestamps up to the clock's tolerance in the future are accepted.
+ */
+public class FastInstructionMessageValidator extends RuleChainValidator<InstructionMessage> {
+
+    private static final long DEFAULT_TOLERANCE_MILLIS = 10;
+
+    public FastInstructionMessageValidator() {
+        this(DefaultClock.INSTANCE);
+    }
+
+    public FastInstructionMessageValidator(CoarseClock clock) {
+        super(Arrays.asList(InstructionMessageRules.productCode(), InstructionMessageRules.quantity(),
+                InstructionMessageRules.uom(), InstructionMessageRules.timestamp(clock)));
+    }
+
+    // Validators created without a clock share one, so they do not start a thread each.
+    private static final class DefaultClock {
+
+        private static final CoarseClock INSTANCE = new CoarseClock(DEFAULT_TOLERANCE_MILLIS, TimeUnit.MILLISECONDS);
+
+    }
+
+}
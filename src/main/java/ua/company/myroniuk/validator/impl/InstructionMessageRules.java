@@ -0,0 +1,92 @@
+package ua.company.myroniuk.validator.impl;
+
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.time.CoarseClock;
+import ua.company.myroniuk.validator.Rule;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Rules with the semantics and error codes of {@link InstructionMessageValidator}.
+ */
+public final class InstructionMessageRules {
+
+    private static final int PRODUCT_CODE_LENGTH = 4;
+
+    private static final int MIN_QUANTITY_VALUE = 1;
+
+    private static final int MIN_UOM_VALUE = 0;
+
+    private static final int MAX_UOM_VALUE = 255;
+
+    private static final int CHEAP = 1;
+
+    private static final int CLOCK_READ = 2;
+
+    private InstructionMessageRules() {
+    }
+
+    public static Rule<InstructionMessage> productCode() {
+        return rule(CHEAP, message -> isProductCode(message.getProductCode()) ? null : ErrorCode.NOT_VALID_PRODUCT_CODE);
+    }
+
+    public static Rule<InstructionMessage> quantity() {
+        return rule(CHEAP, message -> message.getQuantity() < MIN_QUANTITY_VALUE ? ErrorCode.NOT_VALID_QUANTITY : null);
+    }
+
+    public static Rule<InstructionMessage> uom() {
+        return rule(CHEAP, message -> message.getUom() < MIN_UOM_VALUE || message.getUom() > MAX_UOM_VALUE
+                ? ErrorCode.NOT_VALID_UOM
+                : null);
+    }
+
+    /**
+     * Accepts timestamps after the unix epoch in the system default zone and not after the clock's
+     * {@link CoarseClock#latest()}, so a clock with tolerance may accept timestamps up to that much ahead.
+     */
+    public static Rule<InstructionMessage> timestamp(CoarseClock clock) {
+        LocalDateTime unixEpoch = LocalDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault());
+        return rule(CLOCK_READ, message -> {
+            LocalDateTime timestamp = message.getTimestamp();
+            return timestamp.isAfter(unixEpoch) && !timestamp.isAfter(clock.latest())
+                    ? null
+                    : ErrorCode.NOT_VALID_TIMESTAMP;
+        });
+    }
+
+    static boolean isProductCode(String productCode) {
+        return productCode.length() == PRODUCT_CODE_LENGTH && isProductCode(productCode.charAt(0),
+                productCode.charAt(1), productCode.charAt(2), productCode.charAt(3));
+    }
+
+    static boolean isProductCode(char letter1, char letter2, char digit1, char digit2) {
+        return isUpperCaseLetter(letter1) && isUpperCaseLetter(letter2) && isDigit(digit1) && isDigit(digit2);
+    }
+
+    private static boolean isUpperCaseLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static Rule<InstructionMessage> rule(int cost, Rule<InstructionMessage> check) {
+        return new Rule<InstructionMessage>() {
+
+            @Override
+            public ErrorCode check(InstructionMessage message) {
+                return check.check(message);
+            }
+
+            @Override
+            public int cost() {
+                return cost;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+package ua.company.myroniuk.validator.impl;
+
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import ua.company.myroniuk.validator.Rule;
+import ua.company.myroniuk.validator.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Validator that runs its rules in order of {@link Rule#cost()} and reports the first violation.
+ * Rules of equal cost keep the order they were given in. The order is fixed on construction.
+ */
+public class RuleChainValidator<T> implements Validator<T> {
+
+    private final Rule<T>[] rules;
+
+    @SuppressWarnings("unchecked")
+    public RuleChainValidator(List<? extends Rule<T>> rules) {
+        List<Rule<T>> ordered = new ArrayList<>(rules);
+        ordered.sort(Comparator.comparingInt(Rule::cost));
+        this.rules = ordered.toArray(new Rule[0]);
+    }
+
+    @SafeVarargs
+    public static <T> RuleChainValidator<T> of(Rule<T>... rules) {
+        return new RuleChainValidator<>(Arrays.asList(rules));
+    }
+
+    /**
+     * Returns a new chain with the given rule added.
+     */
+    public RuleChainValidator<T> and(Rule<T> rule) {
+        List<Rule<T>> extended = new ArrayList<>(getRules());
+        extended.add(rule);
+        return new RuleChainValidator<>(extended);
+    }
+
+    @Override
+    public void validate(T t) {
+        ErrorCode errorCode = check(t);
+        if (errorCode != null) {
+            throw errorCode.toException();
+        }
+    }
+
+    @Override
+    public Result<Void> tryValidate(T t) {
+        ErrorCode errorCode = check(t);
+        return errorCode == null ? Result.success() : Result.failure(errorCode);
+    }
+
+    public List<Rule<T>> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    private ErrorCode check(T t) {
+        for (Rule<T> rule : rules) {
+            ErrorCode errorCode = rule.check(t);
+            if (errorCode != null) {
+                return errorCode;
+            }
+        }
+        return null;
+    }
+
+}
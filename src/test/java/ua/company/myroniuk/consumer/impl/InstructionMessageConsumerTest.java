@@ -0,0 +1,230 @@
+package ua.company.myroniuk.consumer.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.consumer.MessageHandler;
+import ua.company.myroniuk.consumer.RetryPolicy;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.queue.impl.ConcurrentInstructionMessageQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InstructionMessageConsumerTest {
+
+    private ConcurrentInstructionMessageQueue queue;
+
+    private ExecutorService executor;
+
+    private InstructionMessageConsumer consumer;
+
+    @Before
+    public void init() {
+        queue = new ConcurrentInstructionMessageQueue();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void cleanUp() throws InterruptedException {
+        if (consumer != null) {
+            consumer.shutdown(5, TimeUnit.SECONDS);
+        }
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void shouldHandleEveryEnqueuedMessage() throws Exception {
+        int total = 1000;
+        Set<InstructionMessage> handled = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(total);
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            handled.add(message);
+            done.countDown();
+        });
+        InstructionType[] types = InstructionType.values();
+        for (int i = 0; i < total; i++) {
+            queue.enqueue(createInstructionMessage(types[i % types.length], i));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(total, handled.size());
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(total, consumer.getHandledCount());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldNotExceedConcurrencyLimitOfPriority() throws Exception {
+        int total = 40;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(total);
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            done.countDown();
+        }, executor, RetryPolicy.NONE, 4, 4, 2);
+        for (int i = 0; i < total; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.C, i));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldRetryFailedMessageWithBackoff() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("Downstream is unavailable.");
+            }
+            done.countDown();
+        }, executor, RetryPolicies.fixedDelay(3, 1, TimeUnit.MILLISECONDS), 1, 1, 1);
+        queue.enqueue(createInstructionMessage(InstructionType.A, 1));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertEquals(2, consumer.getRetryCount());
+        assertEquals(1, consumer.getHandledCount());
+        assertEquals(0, consumer.getFailedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReportMessageWhenRetriesAreExhausted() throws Exception {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.B, 1);
+        AtomicReference<InstructionMessage> failed = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        consumer = new InstructionMessageConsumer(queue, new MessageHandler() {
+            @Override
+            public void handle(InstructionMessage message) {
+                throw new IllegalStateException("Downstream is unavailable.");
+            }
+
+            @Override
+            public void onFailure(InstructionMessage message, Exception cause) {
+                failed.set(message);
+                done.countDown();
+            }
+        }, executor, RetryPolicies.fixedDelay(2, 1, TimeUnit.MILLISECONDS), 1, 1, 1);
+        queue.enqueue(instructionMessage);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(instructionMessage, failed.get());
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, consumer.getRetryCount());
+        assertEquals(1, consumer.getFailedCount());
+        assertEquals(0, consumer.getHandledCount());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldWaitForMessagesInFlightOnShutdown() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            started.countDown();
+            release.await();
+        }, executor, RetryPolicy.NONE, 1, 1, 1);
+        queue.enqueue(createInstructionMessage(InstructionType.A, 1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(consumer.shutdown(50, TimeUnit.MILLISECONDS));
+        assertFalse(consumer.isRunning());
+        assertEquals(1, consumer.getInFlightCount());
+        queue.enqueue(createInstructionMessage(InstructionType.A, 2));
+        release.countDown();
+
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, consumer.getHandledCount());
+        assertEquals(1, queue.count());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldDispatchOtherPrioritiesWhilePriorityIsAtLimit() throws Exception {
+        CountDownLatch lowStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch highHandled = new CountDownLatch(1);
+        AtomicInteger lowHandled = new AtomicInteger();
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            if (message.getInstructionType() == InstructionType.A) {
+                highHandled.countDown();
+                return;
+            }
+            lowStarted.countDown();
+            release.await();
+            lowHandled.incrementAndGet();
+        }, executor, RetryPolicy.NONE, 1, 1, 1);
+        queue.enqueue(createInstructionMessage(InstructionType.C, 1));
+        assertTrue(lowStarted.await(5, TimeUnit.SECONDS));
+        queue.enqueue(createInstructionMessage(InstructionType.D, 2));
+        Thread.sleep(50);
+
+        queue.enqueue(createInstructionMessage(InstructionType.A, 3));
+
+        assertTrue(highHandled.await(5, TimeUnit.SECONDS));
+        // The handler counts down before the consumer marks the message as finished.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (consumer.getInFlightCount() != 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, consumer.getInFlightCount());
+        release.countDown();
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(2, lowHandled.get());
+        assertEquals(3, consumer.getHandledCount());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldStopDispatcherWaitingForSlotOnShutdown() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        consumer = new InstructionMessageConsumer(queue, message -> {
+            started.countDown();
+            release.await();
+        }, executor, RetryPolicy.NONE, 1, 1, 1);
+        queue.enqueue(createInstructionMessage(InstructionType.B, 1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 4; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.B, i));
+        }
+        Thread.sleep(50);
+
+        assertFalse(consumer.shutdown(50, TimeUnit.MILLISECONDS));
+        assertEquals(3, consumer.getInFlightCount());
+        assertEquals(1, queue.count());
+        release.countDown();
+
+        assertTrue(consumer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, consumer.getHandledCount());
+        assertEquals(1, queue.count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireConcurrencyLimitForEveryPriority() {
+        new InstructionMessageConsumer(queue, message -> {
+        }, executor, RetryPolicy.NONE, 1, 1);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, int quantity) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode("MZ89");
+        message.setQuantity(quantity);
+        return message;
+    }
+
+}
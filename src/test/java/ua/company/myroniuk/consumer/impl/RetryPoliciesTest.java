@@ -0,0 +1,45 @@
+package ua.company.myroniuk.consumer.impl;
+
+import org.junit.Test;
+import ua.company.myroniuk.consumer.RetryPolicy;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPoliciesTest {
+
+    private static final Exception CAUSE = new IllegalStateException();
+
+    @Test
+    public void shouldRetryWithFixedDelayUntilAttemptsAreExhausted() {
+        RetryPolicy policy = RetryPolicies.fixedDelay(3, 5, TimeUnit.MILLISECONDS);
+
+        assertEquals(5_000_000, policy.backoffNanos(1, CAUSE));
+        assertEquals(5_000_000, policy.backoffNanos(2, CAUSE));
+        assertTrue(policy.backoffNanos(3, CAUSE) < 0);
+    }
+
+    @Test
+    public void shouldDoubleBackoffUpToMaximumDelay() {
+        RetryPolicy policy = RetryPolicies.exponentialBackoff(100, 10, 100, TimeUnit.NANOSECONDS);
+
+        for (int i = 0; i < 100; i++) {
+            assertBetween(5, 10, policy.backoffNanos(1, CAUSE));
+            assertBetween(10, 20, policy.backoffNanos(2, CAUSE));
+            assertBetween(40, 80, policy.backoffNanos(4, CAUSE));
+            assertBetween(50, 100, policy.backoffNanos(5, CAUSE));
+            assertBetween(50, 100, policy.backoffNanos(99, CAUSE));
+        }
+        assertTrue(policy.backoffNanos(100, CAUSE) < 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAtLeastOneAttempt() {
+        RetryPolicies.fixedDelay(0, 1, TimeUnit.SECONDS);
+    }
+
+    private void assertBetween(long min, long max, long actual) {
+        assertTrue(actual + " is not between " + min + " and " + max, actual >= min && actual <= max);
+    }
+
+}
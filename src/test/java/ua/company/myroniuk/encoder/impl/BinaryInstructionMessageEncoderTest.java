@@ -0,0 +1,153 @@
+package ua.company.myroniuk.encoder.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.BinaryInstructionMessageParser;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryInstructionMessageEncoderTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000);
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private BinaryInstructionMessageEncoder encoder;
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void init() {
+        encoder = new BinaryInstructionMessageEncoder();
+        buffer = ByteBuffer.allocate(64);
+    }
+
+    @Test
+    public void shouldEncodeMessage() {
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 5678, 50), buffer);
+
+        long timestamp = CompactInstructionMessage.toEpochMilli(TIMESTAMP);
+        byte[] expected = ByteBuffer.allocate(16)
+                .put((byte) 'A').put(new byte[] {'M', 'Z', '8', '9'}).put((byte) 0xAE).put((byte) 0x2C)
+                .put((byte) 50).putLong(timestamp).array();
+        assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    public void shouldGrowFrameWithQuantity() {
+        int[] quantities = {0, 127, 128, 16_383, 16_384, 2_097_151, 2_097_152, 268_435_455, 268_435_456,
+                Integer.MAX_VALUE};
+        int[] lengths = {15, 15, 16, 16, 17, 17, 18, 18, 19, 19};
+        for (int i = 0; i < quantities.length; i++) {
+            buffer.clear();
+            encoder.encode(createInstructionMessage(InstructionType.B, "MZ89", quantities[i], 255), buffer);
+
+            assertEquals(lengths[i], buffer.position());
+            assertEquals(lengths[i], BinaryInstructionMessageEncoder.frameLength(quantities[i]));
+        }
+    }
+
+    @Test
+    public void shouldBeParsedBackByBinaryParser() {
+        BinaryInstructionMessageParser parser = new BinaryInstructionMessageParser();
+        MutableInstructionMessage result = new MutableInstructionMessage();
+        int[] quantities = {0, 1, 300, 70_000, Integer.MAX_VALUE};
+        for (int quantity : quantities) {
+            buffer.clear();
+            encoder.encode(createInstructionMessage(InstructionType.C, "ab12", quantity, 7), buffer);
+            buffer.flip();
+
+            assertTrue(parser.tryParseInto(buffer, result));
+            assertEquals(InstructionType.C, result.getInstructionType());
+            assertEquals("ab12", result.getProductCode());
+            assertEquals(quantity, result.getQuantity());
+            assertEquals(7, result.getUom());
+            assertEquals(TIMESTAMP, result.toLocalDateTime());
+        }
+    }
+
+    @Test
+    public void shouldEncodeMutableMessageLikeMessage() {
+        MutableInstructionMessage mutableMessage = new MutableInstructionMessage();
+        mutableMessage.setInstructionType(InstructionType.D);
+        mutableMessage.setProductCode("XY12");
+        mutableMessage.setQuantity(1_000);
+        mutableMessage.setUom(9);
+        mutableMessage.setTimestamp(CompactInstructionMessage.toEpochMilli(TIMESTAMP));
+
+        encoder.encode(createInstructionMessage(InstructionType.D, "XY12", 1_000, 9), buffer);
+        byte[] expected = Arrays.copyOf(buffer.array(), buffer.position());
+        buffer.clear();
+        encoder.encode(mutableMessage, buffer);
+
+        assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    public void shouldNotWriteIfBufferIsTooSmall() {
+        buffer = ByteBuffer.allocate(16);
+        buffer.position(1);
+        try {
+            encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 5678, 50), buffer);
+            fail("Expected BufferOverflowException");
+        } catch (BufferOverflowException e) {
+            assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    public void shouldNotMovePositionIfProductCodeIsNotAscii() {
+        try {
+            encoder.encode(createInstructionMessage(InstructionType.A, "MZ8é", 1, 1), buffer);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfProductCodeIsNotFourCharactersLong() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ890", 1, 1), buffer);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfUomDoesNotFitOneByte() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 1, 256), buffer);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfQuantityIsNegative() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", -1, 1), buffer);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, String productCode,
+                                                        int quantity, int uom) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(uom);
+        message.setTimestamp(TIMESTAMP);
+        return message;
+    }
+
+}
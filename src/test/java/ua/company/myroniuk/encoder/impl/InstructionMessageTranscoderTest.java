@@ -0,0 +1,91 @@
+package ua.company.myroniuk.encoder.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InstructionMessageTranscoderTest {
+
+    private static final String[] MESSAGES = {
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage B mz89 0 0 1970-01-01T00:00:00.000Z\n",
+            "InstructionMessage C AB12 2147483647 255 0001-01-01T00:00:00.000Z\n",
+            "InstructionMessage D 9999 128 1 9999-12-31T23:59:59.999Z\n"
+    };
+
+    private InstructionMessageTranscoder transcoder;
+
+    @Before
+    public void init() {
+        transcoder = new InstructionMessageTranscoder();
+    }
+
+    @Test
+    public void shouldConvertTextToBinaryAndBack() {
+        for (String message : MESSAGES) {
+            ByteBuffer binary = ByteBuffer.allocate(64);
+            ByteBuffer text = ByteBuffer.allocate(128);
+
+            assertTrue(transcoder.textToBinary(message, binary));
+            binary.flip();
+            assertTrue(binary.remaining() <= 19);
+            assertTrue(transcoder.binaryToText(binary, text));
+
+            assertFalse(binary.hasRemaining());
+            assertEquals(message, new String(text.array(), 0, text.position(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void shouldConvertTextFromBuffer() {
+        ByteBuffer source = ByteBuffer.wrap(MESSAGES[0].getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer binary = ByteBuffer.allocate(64);
+
+        assertTrue(transcoder.textToBinary(source, binary));
+
+        assertFalse(source.hasRemaining());
+        assertEquals(16, binary.position());
+    }
+
+    @Test
+    public void shouldNotConvertMalformedText() {
+        ByteBuffer binary = ByteBuffer.allocate(64);
+
+        assertFalse(transcoder.textToBinary("InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n", binary));
+
+        assertEquals(0, binary.position());
+    }
+
+    @Test
+    public void shouldKeepSourcePositionIfTextDoesNotFit() {
+        ByteBuffer binary = ByteBuffer.allocate(64);
+        transcoder.textToBinary(MESSAGES[0], binary);
+        binary.flip();
+        try {
+            transcoder.binaryToText(binary, ByteBuffer.allocate(16));
+            fail("Expected BufferOverflowException");
+        } catch (BufferOverflowException e) {
+            assertEquals(0, binary.position());
+        }
+    }
+
+    @Test
+    public void shouldNotConvertIncompleteFrame() {
+        ByteBuffer binary = ByteBuffer.allocate(64);
+        transcoder.textToBinary(MESSAGES[0], binary);
+        binary.flip().limit(10);
+        ByteBuffer text = ByteBuffer.allocate(128);
+
+        assertFalse(transcoder.binaryToText(binary, text));
+
+        assertEquals(0, binary.position());
+        assertEquals(0, text.position());
+    }
+
+}
@@ -0,0 +1,156 @@
+package ua.company.myroniuk.encoder.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TextInstructionMessageEncoderTest {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private TextInstructionMessageEncoder encoder;
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void init() {
+        encoder = new TextInstructionMessageEncoder();
+        buffer = ByteBuffer.allocate(128);
+    }
+
+    @Test
+    public void shouldEncodeMessage() {
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 5678, 50,
+                LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000)), buffer);
+
+        assertEquals("InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n", readLine());
+    }
+
+    @Test
+    public void shouldEncodeTimestampsLikeFormatter() {
+        LocalDateTime[] timestamps = {
+                LocalDateTime.of(1, 1, 1, 0, 0),
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000),
+                LocalDateTime.of(1970, 1, 1, 0, 0),
+                LocalDateTime.of(2000, 2, 29, 12, 0),
+                LocalDateTime.of(2100, 3, 1, 0, 0),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_000_000)
+        };
+        for (LocalDateTime timestamp : timestamps) {
+            assertTimestampEncoded(timestamp);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            assertTimestampEncoded(LocalDateTime.of(1 + random.nextInt(9999), 1, 1, 0, 0)
+                    .plusDays(random.nextInt(365)).plusNanos(random.nextInt(86_400_000) * 1_000_000L));
+        }
+    }
+
+    @Test
+    public void shouldBeParsedBackByScanningParser() {
+        ScanningInstructionMessageParser parser = new ScanningInstructionMessageParser();
+        InstructionMessage message = createInstructionMessage(InstructionType.D, "a1B2c3", Integer.MAX_VALUE, 0,
+                LocalDateTime.of(2016, 2, 29, 23, 59, 59, 999_000_000));
+
+        encoder.encode(message, buffer);
+        InstructionMessage result = parser.parse(readLine());
+
+        assertEquals(message.getInstructionType(), result.getInstructionType());
+        assertEquals(message.getProductCode(), result.getProductCode());
+        assertEquals(message.getQuantity(), result.getQuantity());
+        assertEquals(message.getUom(), result.getUom());
+        assertEquals(message.getTimestamp(), result.getTimestamp());
+    }
+
+    @Test
+    public void shouldEncodeMutableMessageLikeMessage() {
+        InstructionMessage message = createInstructionMessage(InstructionType.B, "XY12", 7, 300,
+                LocalDateTime.of(2020, 1, 2, 3, 4, 5));
+        MutableInstructionMessage mutableMessage = new MutableInstructionMessage();
+        new ScanningInstructionMessageParser().parseInto(
+                "InstructionMessage B XY12 7 300 2020-01-02T03:04:05.000Z\n", mutableMessage);
+
+        encoder.encode(message, buffer);
+        String expected = readLine();
+        buffer.clear();
+        encoder.encode(mutableMessage, buffer);
+
+        assertEquals(expected, readLine());
+    }
+
+    @Test
+    public void shouldNotWriteIfBufferIsTooSmall() {
+        buffer = ByteBuffer.allocate(58);
+        buffer.position(1);
+        try {
+            encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 5678, 50,
+                    LocalDateTime.of(2015, 3, 5, 10, 4, 56)), buffer);
+            fail("Expected BufferOverflowException");
+        } catch (BufferOverflowException e) {
+            assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfProductCodeCannotBeParsedBack() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ-89", 1, 1,
+                LocalDateTime.of(2015, 3, 5, 10, 4, 56)), buffer);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfYearHasMoreThanFourDigits() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", 1, 1,
+                LocalDateTime.of(10000, 1, 1, 0, 0)), buffer);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfQuantityIsNegative() {
+        expectedException.expect(IllegalArgumentException.class);
+
+        encoder.encode(createInstructionMessage(InstructionType.A, "MZ89", -1, 1,
+                LocalDateTime.of(2015, 3, 5, 10, 4, 56)), buffer);
+    }
+
+    private void assertTimestampEncoded(LocalDateTime timestamp) {
+        buffer.clear();
+        encoder.encode(createInstructionMessage(InstructionType.C, "MZ89", 1, 1, timestamp), buffer);
+
+        assertEquals("InstructionMessage C MZ89 1 1 " + timestamp.format(DATE_FORMATTER) + "\n", readLine());
+    }
+
+    private String readLine() {
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, String productCode,
+                                                        int quantity, int uom, LocalDateTime timestamp) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(uom);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+}
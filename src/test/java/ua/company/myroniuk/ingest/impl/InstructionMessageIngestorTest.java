@@ -0,0 +1,232 @@
+package ua.company.myroniuk.ingest.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import ua.company.myroniuk.exception.InstructionMessageStorageException;
+import ua.company.myroniuk.ingest.IngestResult;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.queue.impl.PriorityBucketInstructionMessageQueue;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class InstructionMessageIngestorTest {
+
+    private static final String[] MESSAGES = {
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage B AB12 1 1 2016-01-01T00:00:00.000Z\n",
+            "InstructionMessage C XY34 42 255 2017-12-31T23:59:59.999Z\n",
+            "InstructionMessage D CD56 7 0 2018-06-15T12:30:00.500Z\n"
+    };
+
+    private static final String NOT_VALID_FORMAT_MESSAGE = "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String NOT_VALID_MESSAGE = "InstructionMessage A MZ89 0 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String UNTERMINATED_MESSAGE = "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z";
+
+    private static final int BUFFER_SIZE = 64;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private ScanningInstructionMessageParser parser;
+
+    private PriorityBucketInstructionMessageQueue queue;
+
+    private InstructionMessageIngestor ingestor;
+
+    @Before
+    public void init() {
+        parser = new ScanningInstructionMessageParser();
+        queue = new PriorityBucketInstructionMessageQueue();
+        ingestor = new InstructionMessageIngestor(parser, new InstructionMessageValidator(), queue,
+                BUFFER_SIZE, BUFFER_SIZE);
+    }
+
+    @Test
+    public void shouldIngestMessagesThatCrossBufferBoundariesFromStream() {
+        String input = String.join("", MESSAGES);
+
+        IngestResult result = ingestor.ingest(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))));
+
+        assertEquals(MESSAGES.length, result.getAcceptedCount());
+        assertTrue(result.isFullyAccepted());
+        assertEquals(input.length(), result.getByteCount());
+        assertQueued(MESSAGES);
+    }
+
+    @Test
+    public void shouldIngestMessagesThatCrossMappedWindowsFromFile() throws IOException {
+        String input = String.join("", MESSAGES);
+        Path file = write(input);
+
+        IngestResult result = ingestor.ingest(file);
+
+        assertEquals(MESSAGES.length, result.getAcceptedCount());
+        assertEquals(0, result.getRejectedCount());
+        assertEquals(input.length(), result.getByteCount());
+        assertQueued(MESSAGES);
+    }
+
+    @Test
+    public void shouldIngestFileChannelFromItsPosition() throws IOException {
+        Path file = write(MESSAGES[0] + MESSAGES[1]);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(MESSAGES[0].length());
+            IngestResult result = ingestor.ingest(channel);
+
+            assertEquals(1, result.getAcceptedCount());
+            assertEquals(channel.size(), channel.position());
+        }
+        assertQueued(MESSAGES[1]);
+    }
+
+    @Test
+    public void shouldSkipRejectedMessagesFromStream() {
+        IngestResult result = ingestor.ingest(Channels.newChannel(new ByteArrayInputStream(
+                createInputWithRejections().getBytes(StandardCharsets.US_ASCII))));
+
+        assertRejections(result);
+    }
+
+    @Test
+    public void shouldSkipRejectedMessagesFromFile() throws IOException {
+        IngestResult result = ingestor.ingest(write(createInputWithRejections()));
+
+        assertRejections(result);
+    }
+
+    @Test
+    public void shouldIngestSameMessagesAsParserWithDefaultBuffers() throws IOException {
+        StringBuilder input = new StringBuilder();
+        List<InstructionMessage> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String message = MESSAGES[i % MESSAGES.length];
+            input.append(message);
+            expected.add(parser.parse(message));
+        }
+        InstructionMessageIngestor defaultIngestor = new InstructionMessageIngestor(parser,
+                new InstructionMessageValidator(), queue);
+
+        IngestResult result = defaultIngestor.ingest(write(input.toString()));
+
+        assertEquals(expected.size(), result.getAcceptedCount());
+        List<InstructionMessage> actual = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            actual.add(queue.dequeue());
+        }
+        assertEquals(expected.size(), actual.size());
+        assertTrue(actual.containsAll(expected));
+    }
+
+    @Test
+    public void shouldThrowStorageExceptionWhenFileDoesNotExist() {
+        thrown.expect(InstructionMessageStorageException.class);
+        ingestor.ingest(temporaryFolder.getRoot().toPath().resolve("missing.txt"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldKeepReadFailureWhenFlushAfterItFails() {
+        IllegalStateException flushFailure = new IllegalStateException();
+        Queue<InstructionMessage> failingQueue = mock(Queue.class);
+        doThrow(flushFailure).when(failingQueue).enqueueAll(anyCollection());
+        ingestor = new InstructionMessageIngestor(parser, new InstructionMessageValidator(), failingQueue,
+                BUFFER_SIZE, BUFFER_SIZE);
+        ReadableByteChannel channel = new ReadableByteChannel() {
+            private boolean read;
+
+            @Override
+            public int read(ByteBuffer target) throws IOException {
+                if (read) {
+                    throw new IOException();
+                }
+                read = true;
+                target.put(MESSAGES[0].getBytes(StandardCharsets.US_ASCII));
+                return MESSAGES[0].length();
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try {
+            ingestor.ingest(channel);
+            fail();
+        } catch (InstructionMessageStorageException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertArrayEquals(new Throwable[] {flushFailure}, e.getSuppressed());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveBufferSize() {
+        new InstructionMessageIngestor(parser, new InstructionMessageValidator(), queue, 0, BUFFER_SIZE);
+    }
+
+    // A line longer than the buffer, a bad format, a failed validation and an unterminated last line.
+    private String createInputWithRejections() {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < BUFFER_SIZE * 3; i++) {
+            longLine.append('x');
+        }
+        return MESSAGES[0] + longLine + "\n" + MESSAGES[1] + NOT_VALID_FORMAT_MESSAGE + NOT_VALID_MESSAGE
+                + "\n" + MESSAGES[2] + UNTERMINATED_MESSAGE;
+    }
+
+    private void assertRejections(IngestResult result) {
+        assertEquals(3, result.getAcceptedCount());
+        assertEquals(5, result.getRejectedCount());
+        assertFalse(result.isFullyAccepted());
+        assertQueued(MESSAGES[0], MESSAGES[1], MESSAGES[2]);
+    }
+
+    private void assertQueued(String... messages) {
+        assertEquals(messages.length, queue.count());
+        for (String message : messages) {
+            assertEquals(parser.parse(message), queue.dequeue());
+        }
+    }
+
+    private Path write(String input) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, input.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+}
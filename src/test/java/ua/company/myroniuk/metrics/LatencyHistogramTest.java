@@ -0,0 +1,64 @@
+package ua.company.myroniuk.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void init() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void shouldReturnZeroWhenNothingIsRecorded() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void shouldRecordSmallValuesExactly() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(10, histogram.getMax());
+        assertEquals(5.5, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void shouldKeepRelativeErrorOfLargeValuesWithinBucketPrecision() {
+        for (long value = 1; value < Long.MAX_VALUE / 3; value *= 3) {
+            int index = LatencyHistogram.indexOf(value);
+            long reported = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(reported >= value);
+            assertTrue((double) (reported - value) / value < 1.0 / 32);
+            assertEquals(index, LatencyHistogram.indexOf(reported));
+        }
+    }
+
+    @Test
+    public void shouldReportPercentilesOfUniformDistribution() {
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 / 32);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 / 32);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionWhenPercentileIsOutOfRange() {
+        histogram.getValueAtPercentile(101);
+    }
+
+}
@@ -0,0 +1,58 @@
+package ua.company.myroniuk.metrics.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.Priority;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class InstructionMessageMetricsTest {
+
+    private InstructionMessageMetrics metrics;
+
+    @Before
+    public void init() {
+        metrics = new InstructionMessageMetrics();
+    }
+
+    @Test
+    public void shouldTrackQueueDepthPerPriority() {
+        metrics.recordEnqueued(Priority.HIGH);
+        metrics.recordEnqueued(Priority.HIGH);
+        metrics.recordEnqueued(Priority.LOW);
+        metrics.recordDequeued(Priority.HIGH, 1000);
+
+        assertEquals(1, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(0, metrics.getQueueDepth(Priority.MEDIUM));
+        assertEquals(1, metrics.getQueueDepth(Priority.LOW));
+        assertEquals(1, metrics.getQueueWaitTime(Priority.HIGH).getCount());
+    }
+
+    @Test
+    public void shouldExposeMetricsOverJmx() throws Exception {
+        metrics.recordParseRejection();
+        metrics.recordValidationRejection();
+        metrics.recordValidationRejection();
+        metrics.recordEnqueue(3, 500);
+        metrics.recordParse(200);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = metrics.register("test");
+        try {
+            assertEquals(3L, server.getAttribute(name, "AcceptedCount"));
+            assertEquals(1L, server.getAttribute(name, "ParseRejectionCount"));
+            assertEquals(2L, server.getAttribute(name, "ValidationRejectionCount"));
+            CompositeData parseLatency = (CompositeData) server.getAttribute(name, "ParseLatency");
+            assertEquals(1L, parseLatency.get("count"));
+            assertEquals(200L, parseLatency.get("max"));
+        } finally {
+            metrics.unregister("test");
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+}
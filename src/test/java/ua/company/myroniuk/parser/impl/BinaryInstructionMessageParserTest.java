@@ -0,0 +1,162 @@
+package ua.company.myroniuk.parser.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryInstructionMessageParserTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000);
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private BinaryInstructionMessageParser parser;
+
+    @Before
+    public void init() {
+        parser = new BinaryInstructionMessageParser();
+    }
+
+    @Test
+    public void shouldParseValidFrame() {
+        ByteBuffer buffer = createFrame('A', "MZ89", new byte[] {(byte) 0xAE, 0x2C}, 50, TIMESTAMP);
+        MutableInstructionMessage target = new MutableInstructionMessage();
+
+        assertTrue(parser.tryParseInto(buffer, target));
+
+        assertEquals(16, buffer.position());
+        assertEquals(InstructionType.A, target.getInstructionType());
+        assertEquals("MZ89", target.getProductCode());
+        assertEquals(5678, target.getQuantity());
+        assertEquals(50, target.getUom());
+        assertEquals(TIMESTAMP, target.toLocalDateTime());
+    }
+
+    @Test
+    public void shouldParseQuantityAndUomOverTheirSignedRanges() {
+        ByteBuffer buffer = createFrame('D', "mz89", new byte[] {-1, -1, -1, -1, 0x07}, 255, TIMESTAMP);
+        MutableInstructionMessage target = new MutableInstructionMessage();
+
+        assertTrue(parser.tryParseInto(buffer, target));
+
+        assertEquals(BinaryInstructionMessageParser.MAX_FRAME_LENGTH, buffer.position());
+        assertEquals(Integer.MAX_VALUE, target.getQuantity());
+        assertEquals(255, target.getUom());
+    }
+
+    @Test
+    public void shouldParseConsecutiveFrames() {
+        ByteBuffer first = createFrame('B', "AB12", new byte[] {0}, 1, TIMESTAMP);
+        ByteBuffer second = createFrame('C', "CD34", new byte[] {(byte) 0x80, 0x01}, 2, TIMESTAMP.plusDays(1));
+        ByteBuffer buffer = ByteBuffer.allocate(first.remaining() + second.remaining());
+        buffer.put(first).put(second).flip();
+        MutableInstructionMessage target = new MutableInstructionMessage();
+
+        assertTrue(parser.tryParseInto(buffer, target));
+        assertEquals("AB12", target.getProductCode());
+        assertEquals(0, target.getQuantity());
+        assertTrue(parser.tryParseInto(buffer, target));
+        assertEquals("CD34", target.getProductCode());
+        assertEquals(128, target.getQuantity());
+        assertEquals(TIMESTAMP.plusDays(1), target.toLocalDateTime());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void shouldNotParseIncompleteFrame() {
+        ByteBuffer frame = createFrame('A', "MZ89", new byte[] {(byte) 0xAE, 0x2C}, 50, TIMESTAMP);
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        for (int limit = 0; limit < frame.capacity(); limit++) {
+            frame.limit(limit);
+
+            assertEquals(-1, BinaryInstructionMessageParser.frameLength(frame));
+            assertFalse(parser.tryParseInto(frame, target));
+            assertEquals(0, frame.position());
+        }
+        frame.limit(frame.capacity());
+        assertEquals(16, BinaryInstructionMessageParser.frameLength(frame));
+    }
+
+    @Test
+    public void shouldNotParseMalformedFrames() {
+        ByteBuffer[] frames = {
+                createFrame('E', "MZ89", new byte[] {1}, 50, TIMESTAMP),
+                createFrame('a', "MZ89", new byte[] {1}, 50, TIMESTAMP),
+                createFrame('A', "MZ-9", new byte[] {1}, 50, TIMESTAMP),
+                createFrame('A', "MZ 9", new byte[] {1}, 50, TIMESTAMP),
+                createFrame('A', "MZ89", new byte[] {-1, -1, -1, -1, 0x08}, 50, TIMESTAMP),
+                createFrame('A', "MZ89", new byte[] {-1, -1, -1, -1, 0x10}, 50, TIMESTAMP),
+                createFrame('A', "MZ89", new byte[] {-1, -1, -1, -1, (byte) 0x81}, 50, TIMESTAMP)
+        };
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        target.setProductCode("KEPT");
+
+        for (ByteBuffer frame : frames) {
+            assertFalse(parser.tryParseInto(frame, target));
+            assertEquals(0, frame.position());
+        }
+        assertEquals("KEPT", target.getProductCode());
+        assertEquals(null, target.getInstructionType());
+    }
+
+    @Test
+    public void shouldParseFrameFromString() {
+        InstructionMessage result = parser.parse(toString(createFrame('A', "MZ89", new byte[] {0x05}, 50, TIMESTAMP)));
+
+        assertEquals(InstructionType.A, result.getInstructionType());
+        assertEquals("MZ89", result.getProductCode());
+        assertEquals(Integer.valueOf(5), result.getQuantity());
+        assertEquals(Integer.valueOf(50), result.getUom());
+        assertEquals(TIMESTAMP, result.getTimestamp());
+    }
+
+    @Test
+    public void shouldNotParseStringWithTrailingBytes() {
+        String message = toString(createFrame('A', "MZ89", new byte[] {0x05}, 50, TIMESTAMP)) + "\n";
+
+        Result<InstructionMessage> result = parser.tryParse(message);
+
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, result.getErrorCode());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfStringIsNotFrame() {
+        expectedException.expect(InstructionMessageParseException.class);
+
+        parser.parse("InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n");
+    }
+
+    private ByteBuffer createFrame(char type, String productCode, byte[] quantity, int uom, LocalDateTime timestamp) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + productCode.length() + quantity.length + 1 + 8);
+        buffer.put((byte) type)
+                .put(productCode.getBytes(StandardCharsets.ISO_8859_1))
+                .put(quantity)
+                .put((byte) uom)
+                .putLong(CompactInstructionMessage.toEpochMilli(timestamp));
+        buffer.flip();
+        return buffer;
+    }
+
+    private String toString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -0,0 +1,85 @@
+package ua.company.myroniuk.parser.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import java.time.LocalDateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CompactInstructionMessageParserTest {
+
+    private static final String VALID_MESSAGE =
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String OTHER_VALID_MESSAGE =
+            "InstructionMessage D XY1234 1 255 1970-01-01T00:00:00.001Z\n";
+
+    private static final String MESSAGE_WITH_INVALID_INSTRUCTION_TYPE =
+            "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String EXCEPTION_MESSAGE =
+            "Message format is not valid. Expected format: \n   " +
+                    "\"InstructionMessage <InstructionType> <ProductCode> <Quantity> <UOM> <Timestamp>\"\n" +
+                    "Timestamp must use the format: \"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'\".\n" +
+                    "Message must end with a newline character.";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private CompactInstructionMessageParser parser;
+
+    @Before
+    public void init() {
+        parser = new CompactInstructionMessageParser();
+    }
+
+    @Test
+    public void shouldParseValidMessage() {
+        CompactInstructionMessage result = parser.parse(VALID_MESSAGE);
+
+        assertEquals(InstructionType.A, result.getInstructionType());
+        assertEquals("MZ89", result.getProductCode());
+        assertEquals(5678, result.getQuantity());
+        assertEquals(50, result.getUom());
+        assertEquals(LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000),
+                CompactInstructionMessage.toLocalDateTime(result.getTimestamp()));
+    }
+
+    @Test
+    public void shouldConvertToSameMessageAsRegexParser() {
+        InstructionMessage expected = new InstructionMessageParser().parse(VALID_MESSAGE);
+        CompactInstructionMessage result = parser.parse(VALID_MESSAGE);
+
+        assertEquals(CompactInstructionMessage.of(expected), result);
+        assertEquals(CompactInstructionMessage.of(expected).hashCode(), result.hashCode());
+        assertEquals(expected, result.toInstructionMessage());
+    }
+
+    @Test
+    public void shouldReuseMutableInstructionMessage() {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+
+        parser.parseInto(OTHER_VALID_MESSAGE, target);
+        assertEquals("XY1234", target.getProductCode());
+        assertEquals(1, target.getTimestamp());
+
+        parser.parseInto(VALID_MESSAGE, target);
+        assertEquals(parser.parse(VALID_MESSAGE), target.toCompact());
+        assertNotEquals(parser.parse(OTHER_VALID_MESSAGE), target.toCompact());
+    }
+
+    @Test
+    public void shouldFailWhenMessageHasInvalidInstructionType() {
+        expectedException.expect(InstructionMessageParseException.class);
+        expectedException.expectMessage(EXCEPTION_MESSAGE);
+        parser.parse(MESSAGE_WITH_INVALID_INSTRUCTION_TYPE);
+    }
+
+}
@@ -5,6 +5,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.result.ErrorCode;
+import static org.junit.Assert.assertEquals;
 
 public class InstructionMessageParserTest {
 
@@ -58,6 +60,12 @@ public class InstructionMessageParserTest {
     private static final String MESSAGE_WITH_REDUNDANT_SPACES =
             "InstructionMessage  A MZ89 5678  50 2015-03-05T10:04:56.012Z \n";
 
+    private static final String MESSAGE_WITH_OVERFLOWING_QUANTITY =
+            "InstructionMessage A MZ89 99999999999 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String MESSAGE_WITH_OVERFLOWING_UOM =
+            "InstructionMessage A MZ89 5678 2147483648 2015-03-05T10:04:56.012Z\n";
+
     private static final String EXCEPTION_MESSAGE =
             "Message format is not valid. Expected format: \n   " +
                     "\"InstructionMessage <InstructionType> <ProductCode> <Quantity> <UOM> <Timestamp>\"\n" +
@@ -197,4 +205,17 @@ public class InstructionMessageParserTest {
         parser.parse(MESSAGE_WITH_REDUNDANT_SPACES);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldFailWhenQuantityOverflows() {
+        expectedException.expect(InstructionMessageParseException.class);
+        expectedException.expectMessage(EXCEPTION_MESSAGE);
+        parser.parse(MESSAGE_WITH_OVERFLOWING_QUANTITY);
+    }
+
+    @Test
+    public void shouldReturnFailureWhenNumbersOverflow() {
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, parser.tryParse(MESSAGE_WITH_OVERFLOWING_QUANTITY).getErrorCode());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, parser.tryParse(MESSAGE_WITH_OVERFLOWING_UOM).getErrorCode());
+    }
+
+}
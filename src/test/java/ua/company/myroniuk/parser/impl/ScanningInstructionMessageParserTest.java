@@ -0,0 +1,156 @@
+package ua.company.myroniuk.parser.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
+import java.time.LocalDateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScanningInstructionMessageParserTest {
+
+    private static final String VALID_MESSAGE =
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String MESSAGE_WITH_OVERFLOWING_QUANTITY =
+            "InstructionMessage A MZ89 2147483648 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String[] MESSAGES = {
+            VALID_MESSAGE,
+            "InstructionMessage B mz89 0 0 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage C MZ89 0005678 255 2016-02-30T23:59:59.999Z\n",
+            "InstructionMessage D MZ89 2147483647 256 2015-04-31T00:00:00.000Z\n",
+            "InstructionMessage D MZ89 1 1 2015-13-05T10:04:56.012Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T24:04:56.012Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T24:00:00.000Z\n",
+            "InstructionMessage D MZ89 1 1 2015-12-31T24:00:00.000Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T24:00:00.001Z\n",
+            "InstructionMessage D MZ89 1 1 0000-03-05T10:04:56.012Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T10:04:56.01Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T10:04:56.012\n",
+            "InstructionMessage D MZ89 1 1 +12015-03-05T10:04:56.012Z\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T10:04:56.012Z\n\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T10:04:56.012Z\r\n",
+            "InstructionMessage D MZ89 1 1 2015-03-05T10:04:56.012Z",
+            "InstructionMessage D MZ-89 1 1 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage E MZ89 1 1 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage AB MZ89 1 1 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage A MZ89 -1 1 2015-03-05T10:04:56.012Z\n",
+            "InstructionMessage  A MZ89 5678  50 2015-03-05T10:04:56.012Z \n",
+            "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z redundant parts\n",
+            "InstructionMessage \n",
+            "InstructionMessage",
+            ""
+    };
+
+    private static final String EXCEPTION_MESSAGE =
+            "Message format is not valid. Expected format: \n   " +
+                    "\"InstructionMessage <InstructionType> <ProductCode> <Quantity> <UOM> <Timestamp>\"\n" +
+                    "Timestamp must use the format: \"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'\".\n" +
+                    "Message must end with a newline character.";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private ScanningInstructionMessageParser parser;
+
+    private InstructionMessageParser regexParser;
+
+    @Before
+    public void init() {
+        parser = new ScanningInstructionMessageParser();
+        regexParser = new InstructionMessageParser();
+    }
+
+    @Test
+    public void shouldParseValidMessage() {
+        InstructionMessage result = parser.parse(VALID_MESSAGE);
+
+        assertEquals(InstructionType.A, result.getInstructionType());
+        assertEquals("MZ89", result.getProductCode());
+        assertEquals(Integer.valueOf(5678), result.getQuantity());
+        assertEquals(Integer.valueOf(50), result.getUom());
+        assertEquals(LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000), result.getTimestamp());
+    }
+
+    @Test
+    public void shouldBehaveAsRegexParser() {
+        for (String message : MESSAGES) {
+            InstructionMessage expected = parseWith(regexParser, message);
+            InstructionMessage actual = parseWith(parser, message);
+            assertEquals(message, expected, actual);
+        }
+    }
+
+    @Test
+    public void shouldResolveHour24ToNextDayLikeRegexParser() {
+        InstructionMessage result = parser.parse("InstructionMessage D MZ89 1 1 2015-12-31T24:00:00.000Z\n");
+
+        assertEquals(LocalDateTime.of(2016, 1, 1, 0, 0), result.getTimestamp());
+    }
+
+    @Test
+    public void shouldFailWhenMessageIsNull() {
+        expectedException.expect(NullPointerException.class);
+        parser.parse((String) null);
+    }
+
+    @Test
+    public void shouldFailWhenQuantityOverflows() {
+        expectedException.expect(InstructionMessageParseException.class);
+        expectedException.expectMessage(EXCEPTION_MESSAGE);
+        parser.parse(MESSAGE_WITH_OVERFLOWING_QUANTITY);
+    }
+
+    private InstructionMessage parseWith(InstructionMessageParser parser, String message) {
+        try {
+            return parser.parse(message);
+        } catch (InstructionMessageParseException e) {
+            assertEquals(EXCEPTION_MESSAGE, e.getMessage());
+            return null;
+        }
+    }
+
+    private InstructionMessage parseWith(ScanningInstructionMessageParser parser, String message) {
+        try {
+            return parser.parse(message);
+        } catch (InstructionMessageParseException e) {
+            assertEquals(EXCEPTION_MESSAGE, e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            fail(message + " -> " + e);
+            return null;
+        }
+    }
+
+    @Test
+    public void shouldReturnSameResultsAsRegexParserWithoutThrowing() {
+        for (String message : MESSAGES) {
+            Result<InstructionMessage> expected = regexParser.tryParse(message);
+            Result<InstructionMessage> actual = parser.tryParse(message);
+            assertEquals(message, expected.getValue(), actual.getValue());
+            assertEquals(message, expected.getErrorCode(), actual.getErrorCode());
+        }
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, parser.tryParse(MESSAGE_WITH_OVERFLOWING_QUANTITY).getErrorCode());
+    }
+
+    @Test
+    public void shouldLeaveTargetUnchangedWhenTryParseIntoFails() {
+        MutableInstructionMessage target = new MutableInstructionMessage();
+        assertTrue(parser.tryParseInto(VALID_MESSAGE, target));
+
+        assertFalse(parser.tryParseInto(MESSAGE_WITH_OVERFLOWING_QUANTITY, target));
+
+        assertEquals(Integer.valueOf(5678), target.toInstructionMessage().getQuantity());
+    }
+
+}
@@ -0,0 +1,148 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AgingInstructionMessageQueueTest {
+
+    private static final long AGING_INTERVAL = 100;
+
+    private AtomicLong clock;
+
+    private AgingInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        clock = new AtomicLong();
+        queue = new AgingInstructionMessageQueue(AgingInstructionMessageQueue.AgeSource.ENQUEUE_TIME,
+                AGING_INTERVAL, TimeUnit.NANOSECONDS, clock::get);
+    }
+
+    @Test
+    public void shouldReturnNullWhenDequeueEmptyQueue() {
+        assertNull(queue.dequeue());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        queue.enqueue(null);
+    }
+
+    @Test
+    public void shouldDequeueByPriorityWhenMessagesHaveNotAged() {
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        queue.enqueue(low);
+        queue.enqueue(medium);
+        queue.enqueue(high);
+
+        assertEquals(3, queue.count());
+        assertSame(high, queue.peek());
+        assertSame(high, queue.dequeue());
+        assertSame(medium, queue.dequeue());
+        assertSame(low, queue.dequeue());
+        assertEquals(0, queue.getPromotedCount());
+    }
+
+    @Test
+    public void shouldDequeueAgedLowPriorityMessageBeforeNewerHighPriorityMessages() {
+        InstructionMessage low = createInstructionMessage(InstructionType.C);
+        queue.enqueue(low);
+        clock.set(2 * AGING_INTERVAL - 1);
+        InstructionMessage high1 = createInstructionMessage(InstructionType.A);
+        queue.enqueue(high1);
+        clock.set(2 * AGING_INTERVAL + 1);
+        InstructionMessage high2 = createInstructionMessage(InstructionType.A);
+        queue.enqueue(high2);
+
+        assertSame(high1, queue.dequeue());
+        assertSame(low, queue.dequeue());
+        assertSame(high2, queue.dequeue());
+        assertEquals(1, queue.getPromotedCount());
+    }
+
+    @Test
+    public void shouldNotStarveLowPriorityMessageUnderSteadyHighPriorityStream() {
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        queue.enqueue(low);
+        InstructionMessage dequeued = null;
+        for (int tick = 0; tick < 10 * AGING_INTERVAL && dequeued != low; tick++) {
+            clock.incrementAndGet();
+            queue.enqueue(createInstructionMessage(InstructionType.A));
+            dequeued = queue.dequeue();
+        }
+
+        assertSame(low, dequeued);
+        assertTrue(clock.get() <= 2 * AGING_INTERVAL + 1);
+    }
+
+    @Test
+    public void shouldKeepFifoOrderWithinPriority() {
+        InstructionMessage first = createInstructionMessage(InstructionType.B);
+        InstructionMessage second = createInstructionMessage(InstructionType.B);
+        queue.enqueue(first);
+        clock.set(AGING_INTERVAL * 5);
+        queue.enqueue(second);
+
+        assertSame(first, queue.dequeue());
+        assertSame(second, queue.dequeue());
+    }
+
+    @Test
+    public void shouldApplyAgingIntervalPerPriority() {
+        queue.setAgingInterval(Priority.LOW, AGING_INTERVAL * 10, TimeUnit.NANOSECONDS);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        queue.enqueue(low);
+        clock.set(3 * AGING_INTERVAL);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        queue.enqueue(high);
+
+        assertEquals(AGING_INTERVAL * 10, queue.getAgingInterval(Priority.LOW, TimeUnit.NANOSECONDS));
+        assertSame(high, queue.dequeue());
+        assertSame(low, queue.dequeue());
+    }
+
+    @Test
+    public void shouldAgeByMessageTimestamp() {
+        AgingInstructionMessageQueue timestampQueue = new AgingInstructionMessageQueue(
+                AgingInstructionMessageQueue.AgeSource.MESSAGE_TIMESTAMP, 1, TimeUnit.SECONDS, () -> 10_000L);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        high.setTimestamp(LocalDateTime.of(1970, 1, 1, 0, 0, 9));
+        InstructionMessage newerLow = createInstructionMessage(InstructionType.C);
+        newerLow.setTimestamp(LocalDateTime.of(1970, 1, 1, 0, 0, 8));
+        InstructionMessage olderLow = createInstructionMessage(InstructionType.D);
+        olderLow.setTimestamp(LocalDateTime.of(1970, 1, 1, 0, 0, 5));
+        timestampQueue.enqueue(high);
+        timestampQueue.enqueue(newerLow);
+        timestampQueue.enqueue(olderLow);
+
+        assertSame(olderLow, timestampQueue.dequeue());
+        assertSame(high, timestampQueue.dequeue());
+        assertSame(newerLow, timestampQueue.dequeue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveAgingInterval() {
+        new AgingInstructionMessageQueue(0, TimeUnit.MILLISECONDS);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        return message;
+    }
+
+}
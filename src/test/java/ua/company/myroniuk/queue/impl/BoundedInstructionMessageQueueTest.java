@@ -0,0 +1,323 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageQueueFullException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.OfferResult;
+import ua.company.myroniuk.queue.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedInstructionMessageQueueTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void shouldRejectOfferWhenQueueIsFull() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, OverflowPolicy.REJECT);
+
+        assertEquals(OfferResult.ACCEPTED, queue.offer(createInstructionMessage(InstructionType.A)));
+        assertEquals(OfferResult.ACCEPTED, queue.offer(createInstructionMessage(InstructionType.D)));
+        assertEquals(OfferResult.REJECTED, queue.offer(createInstructionMessage(InstructionType.A)));
+        assertEquals(2, queue.count());
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenEnqueueIntoFullQueue() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.REJECT);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+
+        thrown.expect(InstructionMessageQueueFullException.class);
+        thrown.expectMessage("Instruction message queue is full. Capacity: 1.");
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+    }
+
+    @Test
+    public void shouldRejectWholeBatchThatDoesNotFit() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, OverflowPolicy.REJECT);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+
+        try {
+            queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.B),
+                    createInstructionMessage(InstructionType.C)));
+        } catch (Exception e) {
+            assertEquals(InstructionMessageQueueFullException.class, e.getClass());
+        }
+
+        assertEquals(1, queue.count());
+    }
+
+    @Test
+    public void shouldDropOldestLowPriorityMessageWhenQueueIsFull() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(3, OverflowPolicy.DROP_OLDEST_LOW);
+        InstructionMessage low1 = createInstructionMessage(InstructionType.D);
+        InstructionMessage low2 = createInstructionMessage(InstructionType.C);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        queue.enqueue(low1);
+        queue.enqueue(low2);
+        queue.enqueue(medium);
+
+        assertEquals(OfferResult.ACCEPTED_AFTER_DROPPING_OLDEST_LOW, queue.offer(high));
+
+        assertSame(high, queue.dequeue());
+        assertSame(medium, queue.dequeue());
+        assertSame(low2, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldRejectWhenQueueIsFullWithoutLowPriorityMessages() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.DROP_OLDEST_LOW);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+
+        assertEquals(OfferResult.REJECTED, queue.offer(createInstructionMessage(InstructionType.D)));
+        assertEquals(Priority.HIGH, queue.peek().getInstructionType().getPriority());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldBlockProducerUntilSpaceIsAvailable() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.BLOCK);
+        InstructionMessage first = createInstructionMessage(InstructionType.A);
+        InstructionMessage second = createInstructionMessage(InstructionType.B);
+        queue.enqueue(first);
+        CountDownLatch enqueued = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            queue.enqueue(second);
+            enqueued.countDown();
+        });
+        producer.start();
+
+        assertFalse(enqueued.await(100, TimeUnit.MILLISECONDS));
+        assertSame(first, queue.take());
+        assertTrue(enqueued.await(5, TimeUnit.SECONDS));
+        assertSame(second, queue.take());
+        producer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void shouldStopWaitingForSpaceWhenInterrupted() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.BLOCK);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> interrupted = Collections.synchronizedList(new ArrayList<>());
+        Thread producer = new Thread(() -> {
+            try {
+                queue.enqueue(createInstructionMessage(InstructionType.B));
+            } catch (InstructionMessageQueueFullException e) {
+                failures.add(e);
+                interrupted.add(Thread.currentThread().isInterrupted());
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+
+        producer.interrupt();
+        producer.join();
+
+        assertEquals(1, failures.size());
+        assertEquals(InterruptedException.class, failures.get(0).getCause().getClass());
+        assertEquals(Collections.singletonList(true), interrupted);
+        assertEquals(1, queue.count());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldPropagateInterruptFromPut() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.BLOCK);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        Thread.currentThread().interrupt();
+
+        thrown.expect(InterruptedException.class);
+        queue.put(createInstructionMessage(InstructionType.B));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldWaitUntilWholeBatchFits() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, OverflowPolicy.BLOCK);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        CountDownLatch enqueued = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.B),
+                    createInstructionMessage(InstructionType.C)));
+            enqueued.countDown();
+        });
+        producer.start();
+
+        assertFalse(enqueued.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.count());
+        queue.take();
+        assertTrue(enqueued.await(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.count());
+        producer.join();
+    }
+
+    @Test
+    public void shouldRejectWholeBatchWhenNotEnoughLowPriorityMessagesCanBeDropped() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(3, OverflowPolicy.DROP_OLDEST_LOW);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.enqueue(low);
+
+        try {
+            queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.B),
+                    createInstructionMessage(InstructionType.C)));
+        } catch (Exception e) {
+            assertEquals(InstructionMessageQueueFullException.class, e.getClass());
+        }
+
+        assertEquals(3, queue.count());
+        assertEquals(1, queue.getBucket(Priority.LOW).size());
+        assertSame(low, queue.getBucket(Priority.LOW).peekFirst());
+    }
+
+    @Test
+    public void shouldDropOnlyLowPriorityMessagesQueuedBeforeBatch() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, OverflowPolicy.DROP_OLDEST_LOW);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.enqueue(createInstructionMessage(InstructionType.D));
+        InstructionMessage low = createInstructionMessage(InstructionType.C);
+
+        queue.enqueueAll(Collections.singletonList(low));
+
+        assertEquals(2, queue.count());
+        assertSame(low, queue.getBucket(Priority.LOW).peekFirst());
+    }
+
+    @Test
+    public void shouldReturnNullWhenPollTimesOut() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, OverflowPolicy.BLOCK);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldSpillMessagesThatDoNotFit() {
+        PriorityBucketInstructionMessageQueue spillQueue = new PriorityBucketInstructionMessageQueue();
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, spillQueue);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        InstructionMessage spilledMedium = createInstructionMessage(InstructionType.B);
+        queue.enqueue(low);
+        queue.enqueue(medium);
+
+        assertEquals(OfferResult.SPILLED, queue.offer(high));
+        assertEquals(OfferResult.SPILLED, queue.offer(spilledMedium));
+        assertEquals(4, queue.count());
+        assertEquals(2, spillQueue.count());
+
+        assertSame(high, queue.dequeue());
+        assertSame(medium, queue.dequeue());
+        assertSame(spilledMedium, queue.dequeue());
+        assertSame(low, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldKeepSpillingWhileSpillQueueIsNotEmpty() {
+        PriorityBucketInstructionMessageQueue spillQueue = new PriorityBucketInstructionMessageQueue();
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(1, spillQueue);
+        InstructionMessage first = createInstructionMessage(InstructionType.B);
+        InstructionMessage second = createInstructionMessage(InstructionType.B);
+        InstructionMessage third = createInstructionMessage(InstructionType.B);
+        queue.enqueue(first);
+        queue.enqueue(second);
+        assertSame(first, queue.dequeue());
+
+        assertEquals(OfferResult.SPILLED, queue.offer(third));
+        assertSame(second, queue.dequeue());
+        assertSame(third, queue.dequeue());
+    }
+
+    @Test
+    public void shouldMoveSpilledMessagesBackIntoMemoryAsSpaceFrees() {
+        PriorityBucketInstructionMessageQueue spillQueue = new PriorityBucketInstructionMessageQueue();
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(2, spillQueue);
+        List<InstructionMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            messages.add(createInstructionMessage(InstructionType.B));
+            queue.enqueue(messages.get(i));
+        }
+        assertEquals(2, spillQueue.count());
+
+        assertSame(messages.get(0), queue.dequeue());
+        assertEquals(1, spillQueue.count());
+        assertEquals(0, queue.remainingCapacity());
+        assertSame(messages.get(1), queue.dequeue());
+        assertTrue(spillQueue.isEmpty());
+        assertSame(messages.get(2), queue.dequeue());
+
+        InstructionMessage fifth = createInstructionMessage(InstructionType.B);
+        assertEquals(OfferResult.ACCEPTED, queue.offer(fifth));
+        assertSame(messages.get(3), queue.dequeue());
+        assertSame(fifth, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireSpillQueueForSpillPolicy() {
+        new BoundedInstructionMessageQueue(1, OverflowPolicy.SPILL_TO_DISK);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenOfferNull() {
+        new BoundedInstructionMessageQueue(1, OverflowPolicy.REJECT).offer(null);
+    }
+
+    @Test
+    public void shouldDrainInPriorityOrderAndFreeCapacity() {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(3, OverflowPolicy.REJECT);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        queue.enqueueAll(Arrays.asList(low, high, medium));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(Arrays.asList(high, medium), drained);
+        assertEquals(2, queue.remainingCapacity());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldWaitForFirstMessageWhenTakingBatch() throws InterruptedException {
+        BoundedInstructionMessageQueue queue = new BoundedInstructionMessageQueue(4, OverflowPolicy.BLOCK);
+        InstructionMessage message = createInstructionMessage(InstructionType.C);
+        List<InstructionMessage> drained = new ArrayList<>();
+        assertEquals(0, queue.drainTo(drained, 4, 10, TimeUnit.MILLISECONDS));
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queue.enqueue(message);
+        });
+        producer.start();
+
+        assertEquals(Collections.singletonList(message), queue.takeBatch(4));
+        producer.join();
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        return message;
+    }
+
+}
@@ -0,0 +1,139 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingInstructionMessageQueueTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56);
+
+    @Test
+    public void shouldReturnNullWhenDequeueEmptyQueue() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+
+        assertNull(queue.dequeue());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldSumQuantitiesOfPendingMessagesWithSameKey() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        queue.enqueue(createInstructionMessage(InstructionType.C, "MZ89", 5, TIMESTAMP.plusSeconds(2)));
+        queue.enqueue(createInstructionMessage(InstructionType.C, "MZ89", 7, TIMESTAMP));
+
+        assertEquals(1, queue.count());
+        assertEquals(1, queue.getCoalescedCount());
+        InstructionMessage merged = queue.dequeue();
+        assertEquals(Integer.valueOf(12), merged.getQuantity());
+        assertEquals(TIMESTAMP.plusSeconds(2), merged.getTimestamp());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldKeepLatestMessageWhenLastWriterWins() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(
+                CoalescingRules.lastWriterWins());
+        InstructionMessage older = createInstructionMessage(InstructionType.B, "MZ89", 5, TIMESTAMP.plusSeconds(1));
+        InstructionMessage newer = createInstructionMessage(InstructionType.B, "MZ89", 6, TIMESTAMP.plusSeconds(2));
+        queue.enqueue(older);
+        queue.enqueue(newer);
+        queue.enqueue(createInstructionMessage(InstructionType.B, "MZ89", 7, TIMESTAMP));
+
+        assertEquals(1, queue.count());
+        assertSame(newer, queue.dequeue());
+    }
+
+    @Test
+    public void shouldNotCoalesceMessagesWithDifferentTypeOrProductCode() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.C, "MZ89", 1, TIMESTAMP),
+                createInstructionMessage(InstructionType.D, "MZ89", 1, TIMESTAMP),
+                createInstructionMessage(InstructionType.C, "AB12", 1, TIMESTAMP)));
+
+        assertEquals(3, queue.count());
+        assertEquals(0, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void shouldNotSumQuantitiesOfMessagesWithDifferentUom() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        InstructionMessage first = createInstructionMessage(InstructionType.C, "MZ89", 5, TIMESTAMP);
+        InstructionMessage second = createInstructionMessage(InstructionType.C, "MZ89", 7, TIMESTAMP);
+        second.setUom(20);
+        queue.enqueue(first);
+        queue.enqueue(second);
+
+        assertEquals(2, queue.count());
+        assertEquals(0, queue.getCoalescedCount());
+        assertSame(first, queue.dequeue());
+        assertSame(second, queue.dequeue());
+    }
+
+    @Test
+    public void shouldKeepPositionOfPendingMessageWhenCoalescing() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        queue.enqueue(createInstructionMessage(InstructionType.D, "MZ89", 1, TIMESTAMP));
+        InstructionMessage other = createInstructionMessage(InstructionType.C, "AB12", 1, TIMESTAMP);
+        queue.enqueue(other);
+        queue.enqueue(createInstructionMessage(InstructionType.D, "MZ89", 2, TIMESTAMP));
+        InstructionMessage high = createInstructionMessage(InstructionType.A, "MZ89", 1, TIMESTAMP);
+        queue.enqueue(high);
+
+        assertSame(high, queue.peek());
+        assertSame(high, queue.dequeue());
+        assertEquals(Integer.valueOf(3), queue.dequeue().getQuantity());
+        assertSame(other, queue.dequeue());
+        assertNull(queue.dequeue());
+    }
+
+    @Test
+    public void shouldEnqueueAgainAfterPendingMessageIsDequeued() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        queue.enqueue(createInstructionMessage(InstructionType.B, "MZ89", 1, TIMESTAMP));
+        queue.dequeue();
+        InstructionMessage message = createInstructionMessage(InstructionType.B, "MZ89", 2, TIMESTAMP);
+        queue.enqueue(message);
+
+        assertSame(message, queue.dequeue());
+        assertEquals(0, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void shouldKeepBothMessagesWhenSummedQuantityOverflows() {
+        CoalescingInstructionMessageQueue queue = new CoalescingInstructionMessageQueue(CoalescingRules.sumQuantity());
+        InstructionMessage pending = createInstructionMessage(InstructionType.B, "MZ89", Integer.MAX_VALUE, TIMESTAMP);
+        InstructionMessage incoming = createInstructionMessage(InstructionType.B, "MZ89", 1, TIMESTAMP);
+        queue.enqueue(pending);
+        queue.enqueue(incoming);
+        queue.enqueue(createInstructionMessage(InstructionType.B, "MZ89", 2, TIMESTAMP));
+
+        assertEquals(2, queue.count());
+        assertEquals(1, queue.getCoalescedCount());
+        assertSame(pending, queue.dequeue());
+        assertEquals(Integer.valueOf(3), queue.dequeue().getQuantity());
+        assertTrue(queue.isEmpty());
+
+        queue.enqueue(incoming);
+        assertSame(incoming, queue.dequeue());
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, String productCode,
+                                                        int quantity, LocalDateTime timestamp) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(10);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+}
@@ -0,0 +1,44 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CompactInstructionMessageQueueTest {
+
+    private CompactInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        queue = new CompactInstructionMessageQueue();
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesInRightOrder() {
+        CompactInstructionMessage instructionMessage1 = create(InstructionType.C);
+        CompactInstructionMessage instructionMessage2 = create(InstructionType.A);
+        CompactInstructionMessage instructionMessage3 = create(InstructionType.D);
+        CompactInstructionMessage instructionMessage4 = create(InstructionType.B);
+        queue.enqueue(instructionMessage1);
+        queue.enqueue(instructionMessage2);
+        queue.enqueue(instructionMessage3);
+        queue.enqueue(instructionMessage4);
+
+        assertEquals(2, queue.getBucket(Priority.LOW).size());
+        assertSame(instructionMessage2, queue.dequeue());
+        assertSame(instructionMessage4, queue.dequeue());
+        assertSame(instructionMessage1, queue.dequeue());
+        assertSame(instructionMessage3, queue.dequeue());
+        assertNull(queue.dequeue());
+    }
+
+    private CompactInstructionMessage create(InstructionType instructionType) {
+        return new CompactInstructionMessage(instructionType, "MZ89", 5678, 50, 1);
+    }
+
+}
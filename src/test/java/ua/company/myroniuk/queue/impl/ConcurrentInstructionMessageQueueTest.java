@@ -0,0 +1,226 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentInstructionMessageQueueTest {
+
+    private static final int PRODUCERS = 4;
+
+    private static final int CONSUMERS = 4;
+
+    private static final int MESSAGES_PER_PRODUCER = 10_000;
+
+    private ConcurrentInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        queue = new ConcurrentInstructionMessageQueue();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        queue.enqueue(null);
+    }
+
+    @Test
+    public void shouldReturnNullWhenDequeueEmptyQueue() {
+        assertNull(queue.dequeue());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesInRightOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.B);
+        InstructionMessage instructionMessage5 = createInstructionMessage(InstructionType.A);
+        queue.enqueue(instructionMessage1);
+        queue.enqueue(instructionMessage2);
+        queue.enqueue(instructionMessage3);
+        queue.enqueue(instructionMessage4);
+        queue.enqueue(instructionMessage5);
+
+        assertEquals(5, queue.count());
+        assertSame(instructionMessage2, queue.peek());
+        assertSame(instructionMessage2, queue.dequeue());
+        assertSame(instructionMessage5, queue.dequeue());
+        assertSame(instructionMessage4, queue.dequeue());
+        assertSame(instructionMessage1, queue.dequeue());
+        assertSame(instructionMessage3, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldEnqueueAllInstructionMessages() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.B);
+        queue.enqueueAll(Arrays.asList(instructionMessage1, instructionMessage2));
+
+        assertEquals(2, queue.count());
+        assertSame(instructionMessage2, queue.dequeue());
+        assertSame(instructionMessage1, queue.dequeue());
+    }
+
+    @Test
+    public void shouldReturnNullWhenPollTimesOut() throws InterruptedException {
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldBlockTakeUntilMessageIsEnqueued() throws Exception {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.B);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<InstructionMessage> result = executor.submit(queue::take);
+            Thread.sleep(50);
+            assertFalse(result.isDone());
+
+            queue.enqueue(instructionMessage);
+
+            assertSame(instructionMessage, result.get());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void shouldDeliverEveryMessageOnceToConcurrentConsumers() throws Exception {
+        int total = PRODUCERS * MESSAGES_PER_PRODUCER;
+        Set<InstructionMessage> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(total);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+        try {
+            for (int i = 0; i < CONSUMERS; i++) {
+                executor.submit(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        received.add(queue.take());
+                        done.countDown();
+                    }
+                    return null;
+                });
+            }
+            for (int i = 0; i < PRODUCERS; i++) {
+                int producer = i;
+                executor.submit(() -> {
+                    InstructionType[] types = InstructionType.values();
+                    for (int j = 0; j < MESSAGES_PER_PRODUCER; j++) {
+                        InstructionMessage message = createInstructionMessage(types[j % types.length]);
+                        message.setQuantity(producer * MESSAGES_PER_PRODUCER + j);
+                        queue.enqueue(message);
+                    }
+                });
+            }
+
+            assertTrue(done.await(20, TimeUnit.SECONDS));
+            assertEquals(total, received.size());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldDequeueByWeightsOfScheduler() {
+        ConcurrentInstructionMessageQueue weightedQueue = new ConcurrentInstructionMessageQueue(new DeficitRoundRobinScheduler(2, 1, 1));
+        InstructionMessage high1 = createInstructionMessage(InstructionType.A);
+        InstructionMessage high2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage high3 = createInstructionMessage(InstructionType.A);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        weightedQueue.enqueue(low);
+        weightedQueue.enqueue(medium);
+        weightedQueue.enqueue(high1);
+        weightedQueue.enqueue(high2);
+        weightedQueue.enqueue(high3);
+
+        assertSame(high1, weightedQueue.dequeue());
+        assertSame(high2, weightedQueue.dequeue());
+        assertSame(medium, weightedQueue.peek());
+        assertSame(medium, weightedQueue.dequeue());
+        assertSame(low, weightedQueue.dequeue());
+        assertSame(high3, weightedQueue.dequeue());
+        assertNull(weightedQueue.dequeue());
+    }
+
+    @Test
+    public void shouldDrainUpToMaxInstructionMessages() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.B);
+        queue.enqueueAll(Arrays.asList(instructionMessage1, instructionMessage2, instructionMessage3));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(Arrays.asList(instructionMessage2, instructionMessage3), drained);
+        assertEquals(1, queue.count());
+        assertEquals(Collections.singletonList(instructionMessage1), queue.dequeueBatch(5));
+        assertEquals(0, queue.drainTo(drained, 5));
+    }
+
+    @Test(timeout = 30000)
+    public void shouldDeliverEveryMessageOnceToConcurrentBatchConsumers() throws Exception {
+        int total = PRODUCERS * MESSAGES_PER_PRODUCER;
+        Set<InstructionMessage> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(total);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+        try {
+            for (int i = 0; i < CONSUMERS; i++) {
+                executor.submit(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        for (InstructionMessage message : queue.takeBatch(64)) {
+                            received.add(message);
+                            done.countDown();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int i = 0; i < PRODUCERS; i++) {
+                int producer = i;
+                executor.submit(() -> {
+                    InstructionType[] types = InstructionType.values();
+                    for (int j = 0; j < MESSAGES_PER_PRODUCER; j++) {
+                        InstructionMessage message = createInstructionMessage(types[j % types.length]);
+                        message.setQuantity(producer * MESSAGES_PER_PRODUCER + j);
+                        queue.enqueue(message);
+                    }
+                });
+            }
+
+            assertTrue(done.await(20, TimeUnit.SECONDS));
+            assertEquals(total, received.size());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        return message;
+    }
+
+}
@@ -0,0 +1,91 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Test;
+import ua.company.myroniuk.message.Priority;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.assertEquals;
+
+public class DeficitRoundRobinSchedulerTest {
+
+    private static final int ALL = 0b111;
+
+    @Test
+    public void shouldServePrioritiesByWeightWhenAllAreBacklogged() {
+        DeficitRoundRobinScheduler scheduler = new DeficitRoundRobinScheduler(8, 3, 1);
+        int[] served = new int[3];
+        for (int i = 0; i < 12 * 100; i++) {
+            served[scheduler.next(ALL)]++;
+        }
+
+        assertEquals(800, served[Priority.HIGH.ordinal()]);
+        assertEquals(300, served[Priority.MEDIUM.ordinal()]);
+        assertEquals(100, served[Priority.LOW.ordinal()]);
+    }
+
+    @Test
+    public void shouldServeOneRoundInPriorityOrder() {
+        DeficitRoundRobinScheduler scheduler = new DeficitRoundRobinScheduler(2, 1, 1);
+
+        assertEquals(0, scheduler.peek(ALL));
+        assertEquals(0, scheduler.next(ALL));
+        assertEquals(0, scheduler.next(ALL));
+        assertEquals(1, scheduler.peek(ALL));
+        assertEquals(1, scheduler.next(ALL));
+        assertEquals(2, scheduler.next(ALL));
+        assertEquals(0, scheduler.next(ALL));
+    }
+
+    @Test
+    public void shouldSkipEmptyPrioritiesAndDropTheirQuantum() {
+        DeficitRoundRobinScheduler scheduler = new DeficitRoundRobinScheduler(8, 3, 1);
+        int lowOnly = 1 << Priority.LOW.ordinal();
+
+        assertEquals(2, scheduler.next(lowOnly));
+        assertEquals(2, scheduler.next(lowOnly));
+        assertEquals(0, scheduler.next(ALL));
+        assertEquals(0, scheduler.next(0b101));
+        assertEquals(1, scheduler.next(0b110));
+    }
+
+    @Test
+    public void shouldKeepWeightsUnderConcurrentConsumers() throws Exception {
+        DeficitRoundRobinScheduler scheduler = new DeficitRoundRobinScheduler(8, 3, 1);
+        AtomicIntegerArray served = new AtomicIntegerArray(3);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 12 * 10_000; j++) {
+                        served.incrementAndGet(scheduler.next(ALL));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(320_000, served.get(0));
+        assertEquals(120_000, served.get(1));
+        assertEquals(40_000, served.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireWeightForEachPriority() {
+        new DeficitRoundRobinScheduler(8, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveWeights() {
+        new DeficitRoundRobinScheduler(8, 0, 1);
+    }
+
+}
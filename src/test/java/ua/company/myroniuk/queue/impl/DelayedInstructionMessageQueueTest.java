@@ -0,0 +1,133 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DelayedInstructionMessageQueueTest {
+
+    private static final long START = 1_425_549_896_012L;
+
+    private AtomicLong clock;
+
+    private DelayedInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        clock = new AtomicLong(START);
+        queue = new DelayedInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), 1, clock::get);
+    }
+
+    @Test
+    public void shouldHoldScheduledMessageUntilItIsDue() {
+        InstructionMessage message = createInstructionMessage(InstructionType.A);
+        queue.schedule(message, 100, TimeUnit.MILLISECONDS);
+
+        clock.set(START + 99);
+        assertNull(queue.dequeue());
+        assertTrue(queue.isEmpty());
+        assertEquals(1, queue.getPendingCount());
+
+        clock.set(START + 100);
+        assertSame(message, queue.dequeue());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void shouldReleaseDueMessagesInPriorityOrder() {
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        queue.schedule(low, 10, TimeUnit.MILLISECONDS);
+        queue.schedule(high, 2, TimeUnit.SECONDS);
+        queue.enqueue(medium);
+        clock.set(START + 5_000);
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(3, queue.drainTo(drained, 10));
+        assertEquals(Arrays.asList(high, medium, low), drained);
+    }
+
+    @Test
+    public void shouldEnqueueMessageThatIsAlreadyDue() {
+        InstructionMessage message = createInstructionMessage(InstructionType.C);
+        queue.schedule(message, Instant.ofEpochMilli(START - 1));
+
+        assertEquals(0, queue.getPendingCount());
+        assertSame(message, queue.peek());
+    }
+
+    @Test
+    public void shouldRoundDueTimeUpToWholeTick() {
+        queue = new DelayedInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), 10, clock::get);
+        queue.schedule(createInstructionMessage(InstructionType.A), 1, TimeUnit.MICROSECONDS);
+
+        clock.set(START + 7);
+        assertNull(queue.dequeue());
+        clock.set(START + 8);
+        assertEquals(1, queue.count());
+    }
+
+    @Test
+    public void shouldHoldMillionsOfScheduledMessages() {
+        InstructionMessage message = createInstructionMessage(InstructionType.B);
+        int total = 2_000_000;
+        for (int i = 0; i < total; i++) {
+            queue.schedule(message, 1 + i % 100_000, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(total, queue.getPendingCount());
+
+        clock.set(START + 50_000);
+        assertEquals(total / 2, queue.count());
+        clock.set(START + 100_000);
+        assertEquals(total, queue.count());
+    }
+
+    @Test(timeout = 5000)
+    public void shouldBlockTakeUntilScheduledMessageIsDue() throws Exception {
+        DelayedInstructionMessageQueue queue = new DelayedInstructionMessageQueue();
+        InstructionMessage message = createInstructionMessage(InstructionType.A);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<InstructionMessage> result = executor.submit(queue::take);
+            long scheduled = System.nanoTime();
+            queue.schedule(message, 100, TimeUnit.MILLISECONDS);
+            Thread.sleep(50);
+            assertFalse(result.isDone());
+
+            assertSame(message, result.get());
+            assertTrue(System.nanoTime() - scheduled >= TimeUnit.MILLISECONDS.toNanos(99));
+            assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenScheduleNull() {
+        queue.schedule(null, 1, TimeUnit.SECONDS);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode("MZ89");
+        return message;
+    }
+
+}
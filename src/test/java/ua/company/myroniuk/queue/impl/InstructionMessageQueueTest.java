@@ -4,6 +4,10 @@ import org.junit.Before;
 import org.junit.Test;
 import ua.company.myroniuk.message.InstructionMessage;
 import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.PriorityQueue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -36,6 +40,15 @@ public class InstructionMessageQueueTest {
         instructionMessageQueue.enqueue(null);
     }
 
+    @Test
+    public void shouldEnqueueAllInstructionMessages() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A);
+        instructionMessageQueue.enqueueAll(Arrays.asList(instructionMessage1, instructionMessage2));
+        assertEquals(2, priorityQueue.size());
+        assertEquals(instructionMessage2, priorityQueue.peek());
+    }
+
     @Test
     public void shouldDequeueInstructionMessage() {
         priorityQueue.offer(instructionMessage);
@@ -196,6 +209,60 @@ public class InstructionMessageQueueTest {
         assertFalse(result);
     }
 
+    @Test
+    public void shouldDequeueBatchInPriorityOrder() {
+        instructionMessageQueue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.C),
+                createInstructionMessage(InstructionType.A), createInstructionMessage(InstructionType.D),
+                createInstructionMessage(InstructionType.B), createInstructionMessage(InstructionType.A)));
+
+        List<InstructionMessage> batch = instructionMessageQueue.dequeueBatch(3);
+
+        assertEquals(Arrays.asList(Priority.HIGH, Priority.HIGH, Priority.MEDIUM), priorities(batch));
+        assertEquals(2, instructionMessageQueue.count());
+    }
+
+    @Test
+    public void shouldDrainWholeQueueInPriorityOrder() {
+        instructionMessageQueue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.D),
+                createInstructionMessage(InstructionType.B), createInstructionMessage(InstructionType.A),
+                createInstructionMessage(InstructionType.C), createInstructionMessage(InstructionType.B)));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(5, instructionMessageQueue.drainTo(drained, 10));
+        assertEquals(Arrays.asList(Priority.HIGH, Priority.MEDIUM, Priority.MEDIUM, Priority.LOW, Priority.LOW),
+                priorities(drained));
+        assertTrue(instructionMessageQueue.isEmpty());
+        assertEquals(0, instructionMessageQueue.drainTo(drained, 10));
+    }
+
+    @Test
+    public void shouldDequeueBatchInSameOrderAsRepeatedDequeue() {
+        List<InstructionMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            InstructionMessage message = createInstructionMessage(InstructionType.C);
+            message.setProductCode("MB" + i);
+            messages.add(message);
+        }
+        InstructionMessageQueue polled = new InstructionMessageQueue();
+        polled.enqueueAll(messages);
+        instructionMessageQueue.enqueueAll(messages);
+        List<InstructionMessage> expected = new ArrayList<>();
+        while (!polled.isEmpty()) {
+            expected.add(polled.dequeue());
+        }
+
+        assertEquals(expected, instructionMessageQueue.dequeueBatch(messages.size()));
+        assertTrue(instructionMessageQueue.isEmpty());
+    }
+
+    private List<Priority> priorities(List<InstructionMessage> messages) {
+        List<Priority> priorities = new ArrayList<>();
+        for (InstructionMessage message : messages) {
+            priorities.add(message.getInstructionType().getPriority());
+        }
+        return priorities;
+    }
+
     private InstructionMessage createInstructionMessage(InstructionType instructionType) {
         InstructionMessage message = new InstructionMessage();
         message.setInstructionType(instructionType);
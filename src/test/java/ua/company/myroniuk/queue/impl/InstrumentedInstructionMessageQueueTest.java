@@ -0,0 +1,143 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.exception.InstructionMessageQueueFullException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.metrics.impl.InstructionMessageMetrics;
+import ua.company.myroniuk.queue.BlockingQueue;
+import ua.company.myroniuk.queue.BoundedQueue;
+import ua.company.myroniuk.queue.OfferResult;
+import ua.company.myroniuk.queue.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InstrumentedInstructionMessageQueueTest {
+
+    private InstructionMessageMetrics metrics;
+
+    private InstrumentedInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        metrics = new InstructionMessageMetrics();
+        queue = new InstrumentedInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), metrics);
+    }
+
+    @Test
+    public void shouldDelegateToDecoratedQueue() {
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        queue.enqueue(low);
+        queue.enqueue(high);
+
+        assertEquals(2, queue.count());
+        assertSame(high, queue.peek());
+        assertSame(high, queue.dequeue());
+        assertSame(low, queue.dequeue());
+        assertNull(queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldRecordDepthAndWaitTimePerPriority() throws InterruptedException {
+        queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.A),
+                createInstructionMessage(InstructionType.B), createInstructionMessage(InstructionType.C)));
+        queue.enqueue(createInstructionMessage(InstructionType.D));
+        Thread.sleep(5);
+
+        queue.dequeue();
+        queue.dequeue();
+
+        assertEquals(0, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(0, metrics.getQueueDepth(Priority.MEDIUM));
+        assertEquals(2, metrics.getQueueDepth(Priority.LOW));
+        assertTrue(metrics.getQueueWaitTime(Priority.HIGH).getMax() >= 5_000_000);
+        assertEquals(0, metrics.getQueueWaitTime(Priority.LOW).getCount());
+    }
+
+    @Test
+    public void shouldRecordWaitTimeOfDrainedMessages() {
+        queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.A),
+                createInstructionMessage(InstructionType.C), createInstructionMessage(InstructionType.D)));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(0, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(1, metrics.getQueueDepth(Priority.LOW));
+        assertEquals(1, metrics.getQueueWaitTime(Priority.LOW).getCount());
+    }
+
+    @Test
+    public void shouldForgetEnqueueTimesOfRejectedBatch() throws InterruptedException {
+        queue = new InstrumentedInstructionMessageQueue(new BoundedInstructionMessageQueue(2, OverflowPolicy.REJECT),
+                metrics);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        Thread.sleep(5);
+        try {
+            queue.enqueueAll(Arrays.asList(createInstructionMessage(InstructionType.A),
+                    createInstructionMessage(InstructionType.A)));
+            fail();
+        } catch (InstructionMessageQueueFullException e) {
+            assertEquals(1, metrics.getQueueDepth(Priority.HIGH));
+        }
+
+        queue.dequeue();
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.dequeue();
+
+        assertEquals(0, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(2, metrics.getQueueWaitTime(Priority.HIGH).getCount());
+        assertTrue(metrics.getQueueWaitTime(Priority.HIGH).getMax() >= 5_000_000);
+    }
+
+    @Test
+    public void shouldKeepCapabilitiesOfDecoratedQueue() throws InterruptedException {
+        InstrumentedInstructionMessageQueue bounded = InstrumentedInstructionMessageQueue.of(
+                new BoundedInstructionMessageQueue(1, OverflowPolicy.REJECT), metrics);
+        InstrumentedInstructionMessageQueue blocking = InstrumentedInstructionMessageQueue.of(
+                new ConcurrentInstructionMessageQueue(), metrics);
+
+        assertTrue(bounded instanceof BoundedQueue);
+        assertTrue(blocking instanceof BlockingQueue);
+        assertFalse(blocking instanceof BoundedQueue);
+        assertFalse(InstrumentedInstructionMessageQueue.of(queue, metrics) instanceof BlockingQueue);
+
+        BoundedQueue<InstructionMessage> boundedQueue = (BoundedQueue<InstructionMessage>) bounded;
+        assertEquals(OfferResult.ACCEPTED, boundedQueue.offer(createInstructionMessage(InstructionType.A)));
+        assertEquals(OfferResult.REJECTED, boundedQueue.offer(createInstructionMessage(InstructionType.A)));
+        assertEquals(1, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(0, boundedQueue.remainingCapacity());
+        assertEquals(InstructionType.A, boundedQueue.take().getInstructionType());
+        assertEquals(0, metrics.getQueueDepth(Priority.HIGH));
+        assertEquals(1, metrics.getQueueWaitTime(Priority.HIGH).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRefuseQueueThatMergesMessages() {
+        new InstrumentedInstructionMessageQueue(new CoalescingInstructionMessageQueue(
+                CoalescingRules.lastWriterWins()), metrics);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRefuseQueueThatDropsMessages() {
+        InstrumentedInstructionMessageQueue.of(new BoundedInstructionMessageQueue(1, OverflowPolicy.DROP_OLDEST_LOW),
+                metrics);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        return message;
+    }
+
+}
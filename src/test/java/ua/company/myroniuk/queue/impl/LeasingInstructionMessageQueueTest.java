@@ -0,0 +1,226 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.exception.InstructionMessageQueueFullException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.queue.Lease;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LeasingInstructionMessageQueueTest {
+
+    private static final long START = 1_425_549_896_012L;
+
+    private static final long VISIBILITY_TIMEOUT = 1_000;
+
+    private static final int MAX_DELIVERIES = 3;
+
+    private AtomicLong clock;
+
+    private InstructionMessageQueue deadLetterQueue;
+
+    private LeasingInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        clock = new AtomicLong(START);
+        deadLetterQueue = new InstructionMessageQueue();
+        queue = new LeasingInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), deadLetterQueue,
+                VISIBILITY_TIMEOUT, MAX_DELIVERIES, clock::get);
+    }
+
+    @Test
+    public void shouldHideLeasedMessageUntilAcknowledged() {
+        InstructionMessage message = createInstructionMessage(InstructionType.A);
+        queue.enqueue(message);
+
+        Lease<InstructionMessage> lease = queue.lease();
+        assertSame(message, lease.getMessage());
+        assertEquals(1, lease.getDeliveryCount());
+        assertEquals(START + VISIBILITY_TIMEOUT, lease.getDeadline());
+        assertTrue(queue.isEmpty());
+        assertEquals(1, queue.getLeasedCount());
+
+        assertTrue(queue.ack(lease));
+        assertFalse(queue.ack(lease));
+        clock.set(START + 10 * VISIBILITY_TIMEOUT);
+        assertNull(queue.lease());
+        assertEquals(0, queue.getLeasedCount());
+    }
+
+    @Test
+    public void shouldRedeliverMessageWhenLeaseExpires() {
+        InstructionMessage message = createInstructionMessage(InstructionType.B);
+        queue.enqueue(message);
+        Lease<InstructionMessage> first = queue.lease();
+
+        clock.set(START + VISIBILITY_TIMEOUT - 1);
+        assertNull(queue.lease());
+        clock.set(START + VISIBILITY_TIMEOUT);
+        Lease<InstructionMessage> second = queue.lease();
+
+        assertSame(message, second.getMessage());
+        assertEquals(2, second.getDeliveryCount());
+        assertFalse(queue.ack(first));
+        assertTrue(queue.ack(second));
+        assertEquals(1, queue.getRedeliveredCount());
+    }
+
+    @Test
+    public void shouldRedeliverAheadOfNewMessagesOfSamePriorityOnly() {
+        InstructionMessage redelivered = createInstructionMessage(InstructionType.C);
+        queue.enqueue(redelivered);
+        queue.lease();
+        InstructionMessage high = createInstructionMessage(InstructionType.A);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        queue.enqueue(low);
+        queue.enqueue(high);
+
+        clock.set(START + VISIBILITY_TIMEOUT);
+
+        assertEquals(3, queue.count());
+        assertSame(high, queue.peek());
+        assertSame(high, queue.lease().getMessage());
+        assertSame(redelivered, queue.lease().getMessage());
+        assertSame(low, queue.dequeue());
+    }
+
+    @Test
+    public void shouldRedeliverReleasedMessageAtOnce() {
+        InstructionMessage message = createInstructionMessage(InstructionType.A);
+        queue.enqueue(message);
+        Lease<InstructionMessage> lease = queue.lease();
+
+        assertTrue(queue.release(lease));
+        assertFalse(queue.release(lease));
+
+        assertEquals(2, queue.lease().getDeliveryCount());
+    }
+
+    @Test
+    public void shouldMoveMessageToDeadLetterQueueAfterMaxDeliveries() {
+        InstructionMessage message = createInstructionMessage(InstructionType.B);
+        queue.enqueue(message);
+        for (int delivery = 1; delivery <= MAX_DELIVERIES; delivery++) {
+            Lease<InstructionMessage> lease = queue.lease();
+            assertEquals(delivery, lease.getDeliveryCount());
+            clock.addAndGet(VISIBILITY_TIMEOUT);
+        }
+
+        assertNull(queue.lease());
+        assertEquals(1, queue.getDeadLetteredCount());
+        assertSame(message, deadLetterQueue.dequeue());
+        assertEquals(0, queue.getLeasedCount());
+    }
+
+    @Test
+    public void shouldKeepDeadLettersWhenDeadLetterQueueRejectsThem() {
+        AtomicLong rejections = new AtomicLong(1);
+        InstructionMessageQueue rejectingQueue = new InstructionMessageQueue() {
+            @Override
+            public void enqueue(InstructionMessage message) {
+                if (rejections.getAndDecrement() > 0) {
+                    throw new InstructionMessageQueueFullException("Dead-letter queue is full.");
+                }
+                super.enqueue(message);
+            }
+        };
+        queue = new LeasingInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), rejectingQueue,
+                VISIBILITY_TIMEOUT, 1, clock::get);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.enqueue(createInstructionMessage(InstructionType.B));
+        queue.lease();
+        queue.lease();
+        clock.addAndGet(VISIBILITY_TIMEOUT);
+
+        try {
+            queue.lease();
+            fail();
+        } catch (InstructionMessageQueueFullException e) {
+            assertEquals(0, queue.getDeadLetteredCount());
+        }
+
+        assertNull(queue.lease());
+        assertEquals(2, queue.getDeadLetteredCount());
+        assertEquals(2, rejectingQueue.count());
+        assertEquals(0, queue.getLeasedCount());
+    }
+
+    @Test
+    public void shouldNotAcknowledgeLeaseOfOtherQueue() {
+        LeasingInstructionMessageQueue other = new LeasingInstructionMessageQueue(
+                new PriorityBucketInstructionMessageQueue(), deadLetterQueue, VISIBILITY_TIMEOUT, MAX_DELIVERIES,
+                clock::get);
+        other.enqueue(createInstructionMessage(InstructionType.A));
+
+        assertFalse(queue.ack(other.lease()));
+    }
+
+    @Test
+    public void shouldTrackManyOutstandingLeases() {
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.values()[i % 4]));
+            if (i % 1_000 == 0) {
+                clock.incrementAndGet();
+            }
+            Lease<InstructionMessage> lease = queue.lease();
+            if (i % 2 == 0) {
+                queue.ack(lease);
+            }
+        }
+        assertEquals(total / 2, queue.getLeasedCount());
+
+        clock.addAndGet(VISIBILITY_TIMEOUT - 1);
+
+        assertEquals(total / 2 - 500, queue.count());
+        assertEquals(500, queue.getLeasedCount());
+        clock.incrementAndGet();
+        assertEquals(total / 2, queue.count());
+        assertEquals(0, queue.getLeasedCount());
+    }
+
+    @Test(timeout = 5000)
+    public void shouldWaitForLeaseToExpire() throws Exception {
+        LeasingInstructionMessageQueue queue = new LeasingInstructionMessageQueue(
+                new PriorityBucketInstructionMessageQueue(), deadLetterQueue, 100, TimeUnit.MILLISECONDS, 2);
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.lease();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Lease<InstructionMessage>> result = executor.submit(() -> queue.lease(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            assertFalse(result.isDone());
+
+            assertEquals(2, result.get().getDeliveryCount());
+            assertNull(queue.lease(10, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAtLeastOneDelivery() {
+        new LeasingInstructionMessageQueue(new PriorityBucketInstructionMessageQueue(), deadLetterQueue, 1,
+                TimeUnit.SECONDS, 0);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode("MZ89");
+        return message;
+    }
+
+}
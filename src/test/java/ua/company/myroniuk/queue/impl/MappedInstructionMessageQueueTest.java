@@ -0,0 +1,146 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedInstructionMessageQueueTest {
+
+    private static final int RECORDS_PER_SEGMENT = 4;
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    private MappedInstructionMessageQueue queue;
+
+    @Before
+    public void init() throws IOException {
+        directory = temporaryFolder.newFolder().toPath();
+        queue = new MappedInstructionMessageQueue(directory, RECORDS_PER_SEGMENT);
+    }
+
+    @After
+    public void cleanUp() {
+        queue.close();
+    }
+
+    @Test
+    public void shouldMaterializeEnqueuedInstructionMessage() {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.B, Integer.MAX_VALUE);
+        instructionMessage.setUom(255);
+        queue.enqueue(instructionMessage);
+
+        assertEquals(instructionMessage, queue.peek());
+        assertEquals(instructionMessage, queue.dequeue());
+        assertNull(queue.dequeue());
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesInRightOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C, 1);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A, 2);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D, 3);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.B, 4);
+        queue.enqueue(instructionMessage1);
+        queue.enqueue(instructionMessage2);
+        queue.enqueue(instructionMessage3);
+        queue.enqueue(instructionMessage4);
+
+        assertEquals(4, queue.count());
+        assertEquals(instructionMessage2, queue.dequeue());
+        assertEquals(instructionMessage4, queue.dequeue());
+        assertEquals(instructionMessage1, queue.dequeue());
+        assertEquals(instructionMessage3, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldSpanAndReleaseSegments() {
+        int messages = RECORDS_PER_SEGMENT * 5 + 1;
+        for (int i = 0; i < messages; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.C, i));
+        }
+        assertEquals(6, directory.toFile().list().length);
+
+        for (int i = 0; i < messages; i++) {
+            assertEquals(createInstructionMessage(InstructionType.C, i), queue.dequeue());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertEquals(1, directory.toFile().list().length);
+    }
+
+    @Test
+    public void shouldReuseDrainedSegment() {
+        for (int i = 0; i < RECORDS_PER_SEGMENT * 10; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.A, i));
+            assertEquals(createInstructionMessage(InstructionType.A, i), queue.dequeue());
+        }
+        assertEquals(1, directory.toFile().list().length);
+    }
+
+    @Test
+    public void shouldDeleteSegmentsOnClose() {
+        queue.enqueue(createInstructionMessage(InstructionType.A, 1));
+        queue.close();
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    public void shouldStartFromEmptySegmentsAfterClose() {
+        queue.enqueue(createInstructionMessage(InstructionType.A, 1));
+        queue.enqueue(createInstructionMessage(InstructionType.A, 2));
+        queue.enqueue(createInstructionMessage(InstructionType.A, 3));
+        queue.dequeue();
+        queue.close();
+
+        queue.enqueue(createInstructionMessage(InstructionType.A, 4));
+        assertEquals(1, queue.count());
+        assertEquals(createInstructionMessage(InstructionType.A, 4), queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectProductCodeThatDoesNotFitRecord() {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.A, 1);
+        instructionMessage.setProductCode("MZ890");
+        queue.enqueue(instructionMessage);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUomThatDoesNotFitRecord() {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.A, 1);
+        instructionMessage.setUom(256);
+        queue.enqueue(instructionMessage);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        queue.enqueue(null);
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, int quantity) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode("MZ89");
+        message.setQuantity(quantity);
+        message.setUom(50);
+        message.setTimestamp(TIMESTAMP);
+        return message;
+    }
+
+}
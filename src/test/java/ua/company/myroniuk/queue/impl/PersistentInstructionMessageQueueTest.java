@@ -0,0 +1,174 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.queue.log.FsyncPolicy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentInstructionMessageQueueTest {
+
+    private static final long SEGMENT_SIZE = 128 * 1024;
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_345_678);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    private PersistentInstructionMessageQueue queue;
+
+    @Before
+    public void init() throws IOException {
+        directory = temporaryFolder.newFolder().toPath();
+        queue = open(FsyncPolicy.everyMessage());
+    }
+
+    @After
+    public void cleanUp() {
+        queue.close();
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesInRightOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C, 1);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A, 2);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D, 3);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.B, 4);
+        queue.enqueue(instructionMessage1);
+        queue.enqueueAll(Arrays.asList(instructionMessage2, instructionMessage3, instructionMessage4));
+
+        assertEquals(4, queue.count());
+        assertEquals(instructionMessage2, queue.peek());
+        assertEquals(instructionMessage2, queue.dequeue());
+        assertEquals(instructionMessage4, queue.dequeue());
+        assertEquals(instructionMessage1, queue.dequeue());
+        assertEquals(instructionMessage3, queue.dequeue());
+        assertNull(queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        queue.enqueue(null);
+    }
+
+    @Test
+    public void shouldRecoverPendingInstructionMessagesAfterRestart() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C, 1);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A, 2);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D, 3);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.A, 4);
+        queue.enqueueAll(Arrays.asList(instructionMessage1, instructionMessage2, instructionMessage3,
+                instructionMessage4));
+        queue.dequeue();
+        queue.close();
+
+        queue = open(FsyncPolicy.everyMessage());
+
+        assertEquals(3, queue.count());
+        assertEquals(instructionMessage4, queue.dequeue());
+        assertEquals(instructionMessage1, queue.dequeue());
+        assertEquals(instructionMessage3, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldRecoverInstructionMessagesWithMissingFields() {
+        InstructionMessage instructionMessage = new InstructionMessage();
+        instructionMessage.setInstructionType(InstructionType.B);
+        queue.enqueue(instructionMessage);
+        queue.close();
+
+        queue = open(FsyncPolicy.everyMessage());
+
+        assertEquals(instructionMessage, queue.dequeue());
+    }
+
+    @Test
+    public void shouldRecoverBatchedInstructionMessagesOnClose() {
+        queue.close();
+        queue = open(FsyncPolicy.everyMessages(1000));
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.B, i));
+        }
+        queue.close();
+
+        queue = open(FsyncPolicy.interval(1, TimeUnit.SECONDS));
+
+        assertEquals(10, queue.count());
+        assertEquals(createInstructionMessage(InstructionType.B, 0), queue.dequeue());
+    }
+
+    @Test
+    public void shouldDeleteAcknowledgedSegments() throws IOException {
+        for (int i = 0; i < 10_000; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.A, i));
+        }
+        assertTrue(segments().length > 1);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(createInstructionMessage(InstructionType.A, i), queue.dequeue());
+        }
+
+        assertEquals(1, segments().length);
+        queue.close();
+        queue = open(FsyncPolicy.everyMessage());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldTruncateTornRecordAtEndOfLog() throws IOException {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.C, 1);
+        queue.enqueue(instructionMessage);
+        queue.close();
+        File[] segments = segments();
+        Files.write(segments[segments.length - 1].toPath(), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        queue = open(FsyncPolicy.everyMessage());
+        queue.enqueue(createInstructionMessage(InstructionType.A, 2));
+        queue.close();
+        queue = open(FsyncPolicy.everyMessage());
+
+        assertEquals(2, queue.count());
+        assertEquals(createInstructionMessage(InstructionType.A, 2), queue.dequeue());
+        assertEquals(instructionMessage, queue.dequeue());
+    }
+
+    private PersistentInstructionMessageQueue open(FsyncPolicy fsyncPolicy) {
+        return new PersistentInstructionMessageQueue(directory, SEGMENT_SIZE, fsyncPolicy);
+    }
+
+    private File[] segments() {
+        File[] segments = directory.toFile().listFiles();
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, int quantity) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode("MZ89");
+        message.setQuantity(quantity);
+        message.setUom(50);
+        message.setTimestamp(TIMESTAMP);
+        return message;
+    }
+
+}
@@ -0,0 +1,144 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityBucketInstructionMessageQueueTest {
+
+    private PriorityBucketInstructionMessageQueue queue;
+
+    @Before
+    public void init() {
+        queue = new PriorityBucketInstructionMessageQueue();
+    }
+
+    @Test
+    public void shouldEnqueueInstructionMessageIntoBucketOfItsPriority() {
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.D);
+        queue.enqueue(instructionMessage);
+        assertSame(instructionMessage, queue.getBucket(Priority.LOW).peekFirst());
+        assertTrue(queue.getBucket(Priority.HIGH).isEmpty());
+        assertTrue(queue.getBucket(Priority.MEDIUM).isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        queue.enqueue(null);
+    }
+
+    @Test
+    public void shouldReturnNullWhenDequeueEmptyInstructionQueue() {
+        assertNull(queue.dequeue());
+    }
+
+    @Test
+    public void shouldReturnNullWhenPeekEmptyInstructionQueue() {
+        assertNull(queue.peek());
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesWithSamePriorityInFifoOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.C);
+        queue.enqueue(instructionMessage1);
+        queue.enqueue(instructionMessage2);
+        queue.enqueue(instructionMessage3);
+
+        assertSame(instructionMessage1, queue.dequeue());
+        assertSame(instructionMessage2, queue.dequeue());
+        assertSame(instructionMessage3, queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldDequeueInstructionMessagesInRightOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.B);
+        queue.enqueue(instructionMessage1);
+        queue.enqueue(instructionMessage2);
+        queue.enqueue(instructionMessage3);
+        queue.enqueue(instructionMessage4);
+
+        assertSame(instructionMessage2, queue.peek());
+        assertSame(instructionMessage2, queue.dequeue());
+        assertSame(instructionMessage4, queue.dequeue());
+        assertSame(instructionMessage1, queue.dequeue());
+        assertSame(instructionMessage3, queue.dequeue());
+        assertNull(queue.dequeue());
+    }
+
+    @Test
+    public void shouldReturnCountOfInstructionMessages() {
+        queue.enqueue(createInstructionMessage(InstructionType.A));
+        queue.enqueue(createInstructionMessage(InstructionType.C));
+        assertEquals(2, queue.count());
+        assertFalse(queue.isEmpty());
+
+        queue.dequeue();
+        queue.dequeue();
+        assertEquals(0, queue.count());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldDequeueByWeightsOfScheduler() {
+        PriorityBucketInstructionMessageQueue weightedQueue = new PriorityBucketInstructionMessageQueue(new DeficitRoundRobinScheduler(2, 1, 1));
+        InstructionMessage high1 = createInstructionMessage(InstructionType.A);
+        InstructionMessage high2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage high3 = createInstructionMessage(InstructionType.A);
+        InstructionMessage medium = createInstructionMessage(InstructionType.B);
+        InstructionMessage low = createInstructionMessage(InstructionType.D);
+        weightedQueue.enqueue(low);
+        weightedQueue.enqueue(medium);
+        weightedQueue.enqueue(high1);
+        weightedQueue.enqueue(high2);
+        weightedQueue.enqueue(high3);
+
+        assertSame(high1, weightedQueue.dequeue());
+        assertSame(high2, weightedQueue.dequeue());
+        assertSame(medium, weightedQueue.peek());
+        assertSame(medium, weightedQueue.dequeue());
+        assertSame(low, weightedQueue.dequeue());
+        assertSame(high3, weightedQueue.dequeue());
+        assertNull(weightedQueue.dequeue());
+    }
+
+    @Test
+    public void shouldDrainUpToMaxInstructionMessagesInRightOrder() {
+        InstructionMessage instructionMessage1 = createInstructionMessage(InstructionType.C);
+        InstructionMessage instructionMessage2 = createInstructionMessage(InstructionType.A);
+        InstructionMessage instructionMessage3 = createInstructionMessage(InstructionType.D);
+        InstructionMessage instructionMessage4 = createInstructionMessage(InstructionType.A);
+        queue.enqueueAll(Arrays.asList(instructionMessage1, instructionMessage2, instructionMessage3,
+                instructionMessage4));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(3, queue.drainTo(drained, 3));
+        assertEquals(Arrays.asList(instructionMessage2, instructionMessage4, instructionMessage1), drained);
+        assertEquals(1, queue.count());
+        assertEquals(Collections.singletonList(instructionMessage3), queue.dequeueBatch(10));
+        assertTrue(queue.isEmpty());
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        return message;
+    }
+
+}
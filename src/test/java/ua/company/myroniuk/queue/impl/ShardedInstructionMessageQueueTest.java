@@ -0,0 +1,245 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.Priority;
+import ua.company.myroniuk.queue.BlockingQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedInstructionMessageQueueTest {
+
+    private static final int SHARDS = 4;
+
+    private static final int PRODUCERS = 4;
+
+    private static final int MESSAGES_PER_PRODUCER = 10_000;
+
+    @Test(expected = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionWhenEnqueueNull() {
+        new ShardedInstructionMessageQueue().enqueue(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveNumberOfShards() {
+        new ShardedInstructionMessageQueue(0, ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+    }
+
+    @Test
+    public void shouldReturnNullWhenDequeueEmptyQueue() throws InterruptedException {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+
+        assertNull(queue.dequeue());
+        assertNull(queue.peek());
+        assertNull(queue.consumer(1).poll(10, TimeUnit.MILLISECONDS));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldDequeueHigherPriorityFromAnyShardFirst() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        InstructionMessage low = createInstructionMessage(InstructionType.D, "MB61");
+        InstructionMessage medium = createInstructionMessage(InstructionType.B, "MB62");
+        InstructionMessage high1 = createInstructionMessage(InstructionType.A, "MB63");
+        InstructionMessage high2 = createInstructionMessage(InstructionType.A, "MB64");
+        queue.enqueueAll(Arrays.asList(low, medium, high1, high2));
+        BlockingQueue<InstructionMessage> consumer = queue.consumer(0);
+
+        assertEquals(4, queue.count());
+        assertSame(high1, queue.peek());
+        assertSame(high1, consumer.dequeue());
+        assertSame(high2, consumer.dequeue());
+        assertSame(medium, consumer.dequeue());
+        assertSame(low, consumer.dequeue());
+        assertTrue(queue.isEmpty());
+        assertEquals(3, queue.getStealCount());
+    }
+
+    @Test
+    public void shouldSpreadMessagesRoundRobin() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        for (int i = 0; i < SHARDS * 2; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.B, "MB61"));
+        }
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(2, queue.getBucket(shard, Priority.MEDIUM).size());
+        }
+    }
+
+    @Test
+    public void shouldKeepMessagesOfOneProductCodeInOneShard() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.PRODUCT_CODE_HASH);
+        InstructionMessage first = createInstructionMessage(InstructionType.C, "MB61");
+        InstructionMessage second = createInstructionMessage(InstructionType.C, "MB61");
+        queue.enqueue(first);
+        queue.enqueue(second);
+
+        int home = -1;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (!queue.getBucket(shard, Priority.LOW).isEmpty()) {
+                assertEquals(-1, home);
+                home = shard;
+            }
+        }
+        BlockingQueue<InstructionMessage> consumer = queue.consumer(home);
+        assertSame(first, consumer.dequeue());
+        assertSame(second, consumer.dequeue());
+        assertEquals(0, queue.getStealCount());
+    }
+
+    @Test
+    public void shouldStealFromOtherShardsWhenHomeShardIsEmpty() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        InstructionMessage message = createInstructionMessage(InstructionType.C, "MB61");
+        queue.enqueue(message);
+
+        assertSame(message, queue.consumer(SHARDS - 1).dequeue());
+        assertEquals(1, queue.getStealCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenConsumerShardIsOutOfRange() {
+        createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN).consumer(SHARDS);
+    }
+
+    @Test(timeout = 5000)
+    public void shouldBlockTakeUntilMessageIsEnqueued() throws Exception {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        InstructionMessage instructionMessage = createInstructionMessage(InstructionType.B, "MB61");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<InstructionMessage> result = executor.submit(queue.consumer(3)::take);
+            Thread.sleep(50);
+            assertFalse(result.isDone());
+
+            queue.enqueue(instructionMessage);
+
+            assertSame(instructionMessage, result.get());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void shouldWakeEveryWaitingConsumerForBatch() throws Exception {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        ExecutorService executor = Executors.newFixedThreadPool(SHARDS);
+        try {
+            List<Future<InstructionMessage>> results = new ArrayList<>();
+            for (int shard = 0; shard < SHARDS; shard++) {
+                results.add(executor.submit(queue.consumer(shard)::take));
+            }
+            Thread.sleep(50);
+            List<InstructionMessage> messages = new ArrayList<>();
+            for (int i = 0; i < SHARDS; i++) {
+                messages.add(createInstructionMessage(InstructionType.B, "MB" + i));
+            }
+
+            queue.enqueueAll(messages);
+
+            Set<InstructionMessage> received = ConcurrentHashMap.newKeySet();
+            for (Future<InstructionMessage> result : results) {
+                received.add(result.get());
+            }
+            assertEquals(SHARDS, received.size());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCountMessagesStolenFromOtherShards() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        for (int i = 0; i < SHARDS; i++) {
+            queue.enqueue(createInstructionMessage(InstructionType.C, "MB61"));
+        }
+        BlockingQueue<InstructionMessage> consumer = queue.consumer(0);
+
+        consumer.dequeue();
+        consumer.dequeue();
+
+        assertEquals(SHARDS - 2, queue.count());
+        assertEquals(1, queue.getStealCount());
+    }
+
+    @Test(timeout = 30000)
+    public void shouldDeliverEveryMessageOnceToShardConsumers() throws Exception {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.PRODUCT_CODE_HASH);
+        int total = PRODUCERS * MESSAGES_PER_PRODUCER;
+        Set<InstructionMessage> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(total);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + SHARDS);
+        try {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                BlockingQueue<InstructionMessage> consumer = queue.consumer(shard);
+                executor.submit(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        received.add(consumer.take());
+                        done.countDown();
+                    }
+                    return null;
+                });
+            }
+            for (int i = 0; i < PRODUCERS; i++) {
+                int producer = i;
+                executor.submit(() -> {
+                    InstructionType[] types = InstructionType.values();
+                    for (int j = 0; j < MESSAGES_PER_PRODUCER; j++) {
+                        InstructionMessage message = createInstructionMessage(types[j % types.length], "MB" + (j % 7));
+                        message.setQuantity(producer * MESSAGES_PER_PRODUCER + j);
+                        queue.enqueue(message);
+                    }
+                });
+            }
+
+            assertTrue(done.await(20, TimeUnit.SECONDS));
+            assertEquals(total, received.size());
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ShardedInstructionMessageQueue createQueue(ShardedInstructionMessageQueue.Sharding sharding) {
+        return new ShardedInstructionMessageQueue(SHARDS, sharding);
+    }
+
+    @Test
+    public void shouldDrainAcrossShardsInPriorityOrder() {
+        ShardedInstructionMessageQueue queue = createQueue(ShardedInstructionMessageQueue.Sharding.ROUND_ROBIN);
+        InstructionMessage low = createInstructionMessage(InstructionType.C, "MB61");
+        InstructionMessage high = createInstructionMessage(InstructionType.A, "MB62");
+        InstructionMessage medium = createInstructionMessage(InstructionType.B, "MB63");
+        queue.enqueueAll(Arrays.asList(low, high, medium));
+        List<InstructionMessage> drained = new ArrayList<>();
+
+        assertEquals(3, queue.consumer(2).drainTo(drained, 10));
+        assertEquals(Arrays.asList(high, medium, low), drained);
+        assertTrue(queue.isEmpty());
+    }
+
+    private InstructionMessage createInstructionMessage(InstructionType instructionType, String productCode) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(instructionType);
+        message.setProductCode(productCode);
+        return message;
+    }
+
+}
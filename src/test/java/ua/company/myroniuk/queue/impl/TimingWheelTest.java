@@ -0,0 +1,95 @@
+package ua.company.myroniuk.queue.impl;
+
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    private static final long START = 1_425_549_896_012L;
+
+    @Test
+    public void shouldNotAddItemThatIsAlreadyDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(START);
+
+        assertFalse(wheel.add("due", START));
+        assertEquals(0, wheel.size());
+        assertEquals(Long.MAX_VALUE, wheel.nextEventTick());
+    }
+
+    @Test
+    public void shouldExpireItemsInOrderOfDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(START);
+        wheel.add("third", START + 5_000);
+        wheel.add("first", START + 3);
+        wheel.add("fourth", START + 5_000);
+        wheel.add("second", START + 70);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(START + 2, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(START + 10_000, expired::add);
+
+        assertEquals(Arrays.asList("first", "second", "third", "fourth"), expired);
+        assertEquals(0, wheel.size());
+        assertEquals(START + 10_000, wheel.getCurrentTick());
+    }
+
+    @Test
+    public void shouldExpireEveryItemExactlyAtItsDeadline() {
+        Random random = new Random(42);
+        TimingWheel<Long> wheel = new TimingWheel<>(START, 1);
+        int total = 20_000;
+        for (int i = 0; i < total; i++) {
+            long delay = 1 + (random.nextBoolean() ? random.nextInt(5_000) : (long) random.nextInt(1 << 24) << 14);
+            wheel.add(START + delay, START + delay);
+        }
+        int expired = 0;
+        long tick = START;
+        while (wheel.size() > 0) {
+            tick = Math.min(wheel.nextEventTick(), tick + 1 + random.nextInt(1_000_000));
+            long now = tick;
+            int before = wheel.size();
+            wheel.advance(now, deadline -> assertTrue(deadline <= now && deadline > now - 1_000_001));
+            expired += before - wheel.size();
+        }
+
+        assertEquals(total, expired);
+    }
+
+    @Test
+    public void shouldKeepItemsBeyondTheWheelRangeUntilDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(START);
+        long deadline = START + (1L << 40) + 12_345;
+        wheel.add("far", deadline);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(deadline - 1, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(deadline, wheel.nextEventTick());
+        wheel.advance(deadline, expired::add);
+
+        assertEquals(Arrays.asList("far"), expired);
+    }
+
+    @Test
+    public void shouldReuseEntriesOfExpiredItems() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(START, 4);
+        int[] expired = new int[1];
+        for (int round = 1; round <= 1_000; round++) {
+            for (int i = 0; i < 4; i++) {
+                wheel.add(i, START + round);
+            }
+            wheel.advance(START + round, item -> expired[0]++);
+        }
+
+        assertEquals(4_000, expired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+}
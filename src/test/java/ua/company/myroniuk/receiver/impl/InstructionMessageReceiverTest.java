@@ -10,14 +10,26 @@ import org.mockito.runners.MockitoJUnitRunner;
 import ua.company.myroniuk.exception.InstructionMessageParseException;
 import ua.company.myroniuk.exception.InstructionMessageValidationException;
 import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.metrics.impl.InstructionMessageMetrics;
 import ua.company.myroniuk.parser.Parser;
+import ua.company.myroniuk.queue.BoundedQueue;
+import ua.company.myroniuk.queue.OfferResult;
 import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.receiver.BatchReceiveResult;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
 import ua.company.myroniuk.validator.Validator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -25,6 +37,10 @@ public class InstructionMessageReceiverTest {
 
     private static final String MESSAGE = "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
 
+    private static final String UNPARSED_MESSAGE = "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String INVALID_MESSAGE = "InstructionMessage A MZ8 5678 50 2015-03-05T10:04:56.012Z\n";
+
     @Mock
     private Parser<InstructionMessage> parser;
 
@@ -87,4 +103,184 @@ public class InstructionMessageReceiverTest {
         verify(queue, never()).enqueue(instructionMessage);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReceiveBatchOfValidInstructionMessages() {
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(MESSAGE, MESSAGE));
+
+        assertEquals(2, result.getAcceptedCount());
+        assertEquals(0, result.getRejectedCount());
+        verify(queue).enqueueAll(Arrays.asList(instructionMessage, instructionMessage));
+        verify(queue, never()).enqueue(instructionMessage);
+        verify(parser, never()).parse(MESSAGE);
+    }
+
+    @Test
+    public void shouldReportRejectedMessagesWithoutAbortingBatch() {
+        InstructionMessage invalidInstructionMessage = new InstructionMessage();
+        invalidInstructionMessage.setProductCode("MZ8");
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doReturn(Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT)).when(parser).tryParse(UNPARSED_MESSAGE);
+        doReturn(Result.success(invalidInstructionMessage)).when(parser).tryParse(INVALID_MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+        doReturn(Result.failure(ErrorCode.NOT_VALID_PRODUCT_CODE)).when(validator).tryValidate(invalidInstructionMessage);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(UNPARSED_MESSAGE, MESSAGE, INVALID_MESSAGE));
+
+        assertEquals(1, result.getAcceptedCount());
+        assertEquals(2, result.getRejectedCount());
+        assertFalse(result.isFullyAccepted());
+        assertEquals(InstructionMessageParseException.class, result.getRejections().get(0).getClass());
+        assertEquals(InstructionMessageValidationException.class, result.getRejections().get(2).getClass());
+        assertEquals(ErrorCode.NOT_VALID_PRODUCT_CODE, result.getRejectionCodes().get(2));
+        verify(queue).enqueueAll(Collections.singletonList(instructionMessage));
+    }
+
+    @Test
+    public void shouldReportParserExceptionAsRejectionWithoutAbortingBatch() {
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doThrow(NumberFormatException.class).when(parser).tryParse(UNPARSED_MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(MESSAGE, UNPARSED_MESSAGE, MESSAGE));
+
+        assertEquals(2, result.getAcceptedCount());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, result.getRejectionCodes().get(1));
+        verify(queue).enqueueAll(Arrays.asList(instructionMessage, instructionMessage));
+    }
+
+    @Test
+    public void shouldReportValidatorExceptionAsRejectionWithoutAbortingBatch() {
+        InstructionMessage invalidMessage = new InstructionMessage();
+        invalidMessage.setProductCode("MZ8");
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doReturn(Result.success(invalidMessage)).when(parser).tryParse(INVALID_MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+        doThrow(NullPointerException.class).when(validator).tryValidate(invalidMessage);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(MESSAGE, INVALID_MESSAGE, MESSAGE));
+
+        assertEquals(2, result.getAcceptedCount());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE, result.getRejectionCodes().get(1));
+        verify(queue).enqueueAll(Arrays.asList(instructionMessage, instructionMessage));
+    }
+
+    @Test
+    public void shouldAcceptMessageWhenTryReceiveIntoUnboundedQueue() {
+        doReturn(instructionMessage).when(parser).parse(MESSAGE);
+
+        assertEquals(OfferResult.ACCEPTED, receiver.tryReceive(MESSAGE));
+
+        verify(queue).enqueue(instructionMessage);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSurfaceOfferResultWhenTryReceiveIntoBoundedQueue() {
+        BoundedQueue<InstructionMessage> boundedQueue = mock(BoundedQueue.class);
+        receiver.setQueue(boundedQueue);
+        doReturn(instructionMessage).when(parser).parse(MESSAGE);
+        doReturn(OfferResult.REJECTED).when(boundedQueue).offer(instructionMessage);
+
+        assertEquals(OfferResult.REJECTED, receiver.tryReceive(MESSAGE));
+
+        verify(boundedQueue).offer(instructionMessage);
+        verify(boundedQueue, never()).enqueue(instructionMessage);
+    }
+
+    @Test
+    public void shouldRecordMetricsOfEveryStage() {
+        InstructionMessage invalidInstructionMessage = new InstructionMessage();
+        invalidInstructionMessage.setProductCode("MZ8");
+        doReturn(instructionMessage).when(parser).parse(MESSAGE);
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doReturn(Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT)).when(parser).tryParse(UNPARSED_MESSAGE);
+        doReturn(Result.success(invalidInstructionMessage)).when(parser).tryParse(INVALID_MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+        doReturn(Result.failure(ErrorCode.NOT_VALID_PRODUCT_CODE)).when(validator).tryValidate(invalidInstructionMessage);
+        InstructionMessageMetrics metrics = new InstructionMessageMetrics();
+        receiver.setMetrics(metrics);
+
+        receiver.receive(MESSAGE);
+        receiver.receiveAll(Arrays.asList(UNPARSED_MESSAGE, MESSAGE, INVALID_MESSAGE));
+
+        assertEquals(2, metrics.getAcceptedCount());
+        assertEquals(1, metrics.getParseRejectionCount());
+        assertEquals(1, metrics.getValidationRejectionCount());
+        assertEquals(3, metrics.getParseLatency().getCount());
+        assertEquals(2, metrics.getValidationLatency().getCount());
+        assertEquals(2, metrics.getEnqueueLatency().getCount());
+    }
+
+    @Test
+    public void shouldDropDuplicateBeforeValidation() {
+        receiver.setDuplicateFilter(new WindowedDuplicateFilter(16, 1, TimeUnit.MINUTES));
+        InstructionMessageMetrics metrics = new InstructionMessageMetrics();
+        receiver.setMetrics(metrics);
+        doReturn(instructionMessage).when(parser).parse(MESSAGE);
+
+        receiver.receive(MESSAGE);
+        receiver.receive(MESSAGE);
+
+        assertEquals(OfferResult.DUPLICATE, receiver.tryReceive(MESSAGE));
+        verify(validator).validate(instructionMessage);
+        verify(queue).enqueue(instructionMessage);
+        assertEquals(2, metrics.getDuplicateCount());
+    }
+
+    @Test
+    public void shouldCountDuplicatesInBatch() {
+        receiver.setDuplicateFilter(new WindowedDuplicateFilter(16, 1, TimeUnit.MINUTES));
+        doReturn(Result.success(instructionMessage)).when(parser).tryParse(MESSAGE);
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(MESSAGE, MESSAGE));
+
+        assertEquals(1, result.getAcceptedCount());
+        assertEquals(1, result.getDuplicateCount());
+        assertEquals(0, result.getRejectedCount());
+        verify(validator).tryValidate(instructionMessage);
+        verify(queue).enqueueAll(Collections.singletonList(instructionMessage));
+    }
+
+    @Test
+    public void shouldReceiveAgainMessageThatWasNotEnqueued() {
+        receiver.setDuplicateFilter(new WindowedDuplicateFilter(16, 1, TimeUnit.MINUTES));
+        doReturn(instructionMessage).when(parser).parse(MESSAGE);
+        doThrow(InstructionMessageValidationException.class).doNothing().when(validator).validate(instructionMessage);
+
+        try {
+            receiver.receive(MESSAGE);
+        } catch (Exception e) {
+            assertEquals(InstructionMessageValidationException.class, e.getClass());
+        }
+        receiver.receive(MESSAGE);
+
+        verify(validator, times(2)).validate(instructionMessage);
+        verify(queue).enqueue(instructionMessage);
+    }
+
+    @Test
+    public void shouldEnqueueParsedInstructionMessage() {
+        doReturn(Result.success()).when(validator).tryValidate(instructionMessage);
+
+        Result<OfferResult> result = receiver.tryReceiveParsed(instructionMessage);
+
+        assertEquals(OfferResult.ACCEPTED, result.getValue());
+        verify(queue).enqueue(instructionMessage);
+    }
+
+    @Test
+    public void shouldReturnFailureWhenParsedInstructionMessageIsNotValid() {
+        doReturn(Result.failure(ErrorCode.NOT_VALID_QUANTITY)).when(validator).tryValidate(instructionMessage);
+
+        Result<OfferResult> result = receiver.tryReceiveParsed(instructionMessage);
+
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorCode.NOT_VALID_QUANTITY, result.getErrorCode());
+        verify(queue, never()).enqueue(instructionMessage);
+    }
+
+}
@@ -0,0 +1,205 @@
+package ua.company.myroniuk.receiver.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.impl.PriorityBucketInstructionMessageQueue;
+import ua.company.myroniuk.receiver.BatchReceiveResult;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipelinedInstructionMessageReceiverTest {
+
+    private static final String MESSAGE_FORMAT = "InstructionMessage A MZ89 %d 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String UNPARSED_MESSAGE = "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String INVALID_MESSAGE = "InstructionMessage A MZ8 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final int RING_SIZE = 16;
+
+    private static final int PRODUCERS = 4;
+
+    private static final int MESSAGES_PER_PRODUCER = 5_000;
+
+    private PriorityBucketInstructionMessageQueue queue;
+
+    private PipelinedInstructionMessageReceiver receiver;
+
+    @Before
+    public void init() {
+        queue = new PriorityBucketInstructionMessageQueue();
+        receiver = new PipelinedInstructionMessageReceiver(new ScanningInstructionMessageParser(),
+                new InstructionMessageValidator(), queue, RING_SIZE, 3, 2);
+    }
+
+    @After
+    public void cleanUp() throws InterruptedException {
+        receiver.close();
+    }
+
+    @Test(timeout = 10000)
+    public void shouldEnqueueValidInstructionMessage() throws Exception {
+        InstructionMessage result = receiver.receiveAsync(String.format(MESSAGE_FORMAT, 5678)).get();
+
+        assertEquals(Integer.valueOf(5678), result.getQuantity());
+        receiver.close();
+        assertEquals(result, queue.dequeue());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldCompleteExceptionallyWhenMessageIsRejected() throws Exception {
+        CompletableFuture<InstructionMessage> unparsed = receiver.receiveAsync(UNPARSED_MESSAGE);
+        CompletableFuture<InstructionMessage> invalid = receiver.receiveAsync(INVALID_MESSAGE);
+
+        assertCause(InstructionMessageParseException.class, unparsed);
+        assertCause(InstructionMessageValidationException.class, invalid);
+        receiver.close();
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(timeout = 10000, expected = InstructionMessageParseException.class)
+    public void shouldRethrowRejectionFromBlockingReceive() {
+        receiver.receive(UNPARSED_MESSAGE);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReportRejectedMessagesOfBatch() throws InterruptedException {
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(
+                UNPARSED_MESSAGE, String.format(MESSAGE_FORMAT, 1), INVALID_MESSAGE));
+
+        assertEquals(1, result.getAcceptedCount());
+        assertEquals(InstructionMessageParseException.class, result.getRejections().get(0).getClass());
+        assertEquals(InstructionMessageValidationException.class, result.getRejections().get(2).getClass());
+        receiver.close();
+        assertEquals(1, queue.count());
+    }
+
+    @Test(timeout = 30000)
+    public void shouldKeepOrderOfEveryProducer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < PRODUCERS; i++) {
+                int producer = i;
+                producers.add(executor.submit(() -> {
+                    for (int j = 1; j <= MESSAGES_PER_PRODUCER; j++) {
+                        int quantity = producer * MESSAGES_PER_PRODUCER + j;
+                        receiver.receiveAsync(String.format(MESSAGE_FORMAT, quantity));
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        receiver.close();
+
+        assertEquals(PRODUCERS * MESSAGES_PER_PRODUCER, queue.count());
+        int[] last = new int[PRODUCERS];
+        Arrays.fill(last, -1);
+        while (!queue.isEmpty()) {
+            int quantity = queue.dequeue().getQuantity();
+            int producer = (quantity - 1) / MESSAGES_PER_PRODUCER;
+            assertTrue(quantity > last[producer]);
+            last[producer] = quantity;
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReportParserExceptionAsRejectionOfBatch() throws InterruptedException {
+        receiver.close();
+        ScanningInstructionMessageParser scanningParser = new ScanningInstructionMessageParser();
+        receiver = new PipelinedInstructionMessageReceiver(message -> {
+            if (message.isEmpty()) {
+                throw new NumberFormatException();
+            }
+            return scanningParser.parse(message);
+        }, new InstructionMessageValidator(), queue, RING_SIZE, 2, 1);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(
+                String.format(MESSAGE_FORMAT, 1), "", String.format(MESSAGE_FORMAT, 2)));
+
+        assertEquals(2, result.getAcceptedCount());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, result.getRejectionCodes().get(1));
+        receiver.close();
+        assertEquals(2, queue.count());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReportValidatorExceptionAsRejectionOfBatch() throws InterruptedException {
+        receiver.close();
+        InstructionMessageValidator messageValidator = new InstructionMessageValidator();
+        receiver = new PipelinedInstructionMessageReceiver(new ScanningInstructionMessageParser(), message -> {
+            if (message.getQuantity() == 0) {
+                throw new IllegalStateException();
+            }
+            messageValidator.validate(message);
+        }, queue, RING_SIZE, 2, 1);
+
+        BatchReceiveResult result = receiver.receiveAll(Arrays.asList(
+                String.format(MESSAGE_FORMAT, 1), String.format(MESSAGE_FORMAT, 0), String.format(MESSAGE_FORMAT, 2)));
+
+        assertEquals(2, result.getAcceptedCount());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE, result.getRejectionCodes().get(1));
+        receiver.close();
+        assertEquals(2, queue.count());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldBlockIdleWorkers() throws Exception {
+        receiver.receiveAsync(String.format(MESSAGE_FORMAT, 1)).get();
+
+        // Workers spin and yield before they block, so each one gets until the deadline to settle.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("instruction-message-parser-")
+                    || thread.getName().startsWith("instruction-message-validator-")
+                    || thread.getName().equals("instruction-message-enqueuer")) {
+                while (thread.isAlive() && thread.getState() != Thread.State.WAITING
+                        && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                if (thread.isAlive()) {
+                    assertEquals(thread.getName(), Thread.State.WAITING, thread.getState());
+                }
+            }
+        }
+        assertEquals(Integer.valueOf(2), receiver.receiveAsync(String.format(MESSAGE_FORMAT, 2)).get().getQuantity());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectMessagesAfterClose() throws InterruptedException {
+        receiver.close();
+        receiver.receiveAsync(String.format(MESSAGE_FORMAT, 1));
+    }
+
+    private void assertCause(Class<? extends Exception> expected, CompletableFuture<?> future)
+            throws InterruptedException {
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(expected, e.getCause().getClass());
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package ua.company.myroniuk.receiver.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WindowedDuplicateFilterTest {
+
+    private static final long WINDOW = 1000;
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000);
+
+    private AtomicLong clock;
+
+    @Before
+    public void init() {
+        clock = new AtomicLong();
+    }
+
+    @Test
+    public void shouldDetectEqualMessageAsDuplicate() {
+        WindowedDuplicateFilter filter = createFilter(16);
+
+        assertFalse(filter.isDuplicate(createInstructionMessage("MZ89", 5678)));
+        assertTrue(filter.isDuplicate(createInstructionMessage("MZ89", 5678)));
+        assertFalse(filter.isDuplicate(createInstructionMessage("MZ89", 5679)));
+        assertEquals(2, filter.size());
+    }
+
+    @Test
+    public void shouldForgetMessagesOutsideOfWindow() {
+        WindowedDuplicateFilter filter = createFilter(16);
+        filter.isDuplicate(createInstructionMessage("MZ89", 1));
+        clock.set(WINDOW - 1);
+        assertTrue(filter.isDuplicate(createInstructionMessage("MZ89", 1)));
+
+        clock.set(WINDOW);
+
+        assertFalse(filter.isDuplicate(createInstructionMessage("MZ89", 1)));
+        assertTrue(filter.isDuplicate(createInstructionMessage("MZ89", 1)));
+    }
+
+    @Test
+    public void shouldEvictOldestMessageWhenFull() {
+        WindowedDuplicateFilter filter = createFilter(1);
+        for (int quantity = 1; quantity <= 10_000; quantity++) {
+            filter.isDuplicate(createInstructionMessage("MZ89", quantity));
+        }
+
+        assertTrue(filter.size() <= 16);
+        assertTrue(filter.isDuplicate(createInstructionMessage("MZ89", 10_000)));
+        assertFalse(filter.isDuplicate(createInstructionMessage("MZ89", 1)));
+    }
+
+    @Test
+    public void shouldForgetMessage() {
+        WindowedDuplicateFilter filter = createFilter(16);
+        InstructionMessage message = createInstructionMessage("MZ89", 1);
+        filter.isDuplicate(message);
+
+        filter.forget(message);
+
+        assertEquals(0, filter.size());
+        assertFalse(filter.isDuplicate(message));
+    }
+
+    @Test
+    public void shouldRememberEveryMessageUpToCapacity() {
+        WindowedDuplicateFilter filter = createFilter(16 * 1024);
+        for (int quantity = 1; quantity <= 16 * 512; quantity++) {
+            assertFalse(filter.isDuplicate(createInstructionMessage("MZ89", quantity)));
+        }
+        for (int quantity = 1; quantity <= 16 * 512; quantity += 2) {
+            filter.forget(createInstructionMessage("MZ89", quantity));
+        }
+
+        for (int quantity = 1; quantity <= 16 * 512; quantity++) {
+            assertEquals(quantity % 2 == 0, filter.isDuplicate(createInstructionMessage("MZ89", quantity)));
+        }
+    }
+
+    @Test
+    public void shouldFingerprintEveryField() {
+        Set<Long> fingerprints = new HashSet<>();
+        InstructionMessage message = createInstructionMessage("MZ89", 1);
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        message.setInstructionType(InstructionType.B);
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        message.setProductCode("MZ98");
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        message.setQuantity(2);
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        message.setUom(51);
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        message.setTimestamp(TIMESTAMP.plusNanos(1_000_000));
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(message));
+        fingerprints.add(WindowedDuplicateFilter.fingerprint(new InstructionMessage()));
+
+        assertEquals(7, fingerprints.size());
+        assertNotEquals(0, WindowedDuplicateFilter.fingerprint(new InstructionMessage()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveCapacity() {
+        new WindowedDuplicateFilter(0, 1, TimeUnit.SECONDS);
+    }
+
+    private WindowedDuplicateFilter createFilter(int capacity) {
+        return new WindowedDuplicateFilter(capacity, WINDOW, TimeUnit.NANOSECONDS, clock::get);
+    }
+
+    private InstructionMessage createInstructionMessage(String productCode, int quantity) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(InstructionType.A);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(50);
+        message.setTimestamp(TIMESTAMP);
+        return message;
+    }
+
+}
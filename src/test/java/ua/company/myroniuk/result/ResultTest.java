@@ -0,0 +1,53 @@
+package ua.company.myroniuk.result;
+
+import org.junit.Test;
+import ua.company.myroniuk.exception.InstructionMessageParseException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResultTest {
+
+    @Test
+    public void shouldShareFailuresWithMessageOfErrorCode() {
+        assertSame(Result.failure(ErrorCode.NOT_VALID_QUANTITY), Result.failure(ErrorCode.NOT_VALID_QUANTITY));
+        assertSame(Result.failure(ErrorCode.NOT_VALID_QUANTITY),
+                Result.failure(ErrorCode.NOT_VALID_QUANTITY, ErrorCode.NOT_VALID_QUANTITY.getMessage()));
+        assertNotSame(Result.failure(ErrorCode.NOT_VALID_QUANTITY),
+                Result.failure(ErrorCode.NOT_VALID_QUANTITY, "Custom message."));
+    }
+
+    @Test
+    public void shouldReturnValueOfSuccess() {
+        Result<String> result = Result.success("value");
+
+        assertTrue(result.isSuccess());
+        assertEquals("value", result.getOrThrow());
+    }
+
+    @Test
+    public void shouldThrowParseExceptionForParseErrorCode() {
+        try {
+            Result.failure(ErrorCode.NOT_VALID_MESSAGE_FORMAT).getOrThrow();
+            fail();
+        } catch (InstructionMessageParseException e) {
+            assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT, e.getErrorCode());
+            assertEquals(ErrorCode.NOT_VALID_MESSAGE_FORMAT.getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldConvertExceptionWithoutErrorCodeToGenericFailure() {
+        Result<Void> result = Result.failure(new InstructionMessageValidationException("Custom message."));
+
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorCode.NOT_VALID_MESSAGE, result.getErrorCode());
+        assertEquals("Custom message.", result.getErrorMessage());
+        assertEquals(InstructionMessageValidationException.class, result.toException().getClass());
+    }
+
+}
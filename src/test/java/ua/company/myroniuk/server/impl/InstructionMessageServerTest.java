@@ -0,0 +1,199 @@
+package ua.company.myroniuk.server.impl;
+
+import org.junit.After;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.parser.impl.ScanningInstructionMessageParser;
+import ua.company.myroniuk.queue.OverflowPolicy;
+import ua.company.myroniuk.queue.Queue;
+import ua.company.myroniuk.queue.impl.BoundedInstructionMessageQueue;
+import ua.company.myroniuk.queue.impl.ConcurrentInstructionMessageQueue;
+import ua.company.myroniuk.receiver.impl.InstructionMessageReceiver;
+import ua.company.myroniuk.validator.impl.InstructionMessageValidator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class InstructionMessageServerTest {
+
+    private static final String MESSAGE = "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String MESSAGE_FORMAT = "InstructionMessage %s MZ89 %d 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String NOT_VALID_FORMAT_MESSAGE = "InstructionMessage E MZ89 5678 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String NOT_VALID_MESSAGE = "InstructionMessage A MZ89 0 50 2015-03-05T10:04:56.012Z\n";
+
+    private static final String UNTERMINATED_MESSAGE = "InstructionMessage A MZ89 5678 50 2015-03-05T10:04:56.012Z";
+
+    private static final int CLIENTS = 16;
+
+    private static final int MESSAGES_PER_CLIENT = 2_000;
+
+    private InstructionMessageServer server;
+
+    @After
+    public void cleanUp() throws InterruptedException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldAnswerEveryMessageInOrder() throws IOException {
+        Queue<InstructionMessage> queue = startServer(new ConcurrentInstructionMessageQueue(), 1024);
+        try (Socket socket = connect()) {
+            send(socket, MESSAGE + NOT_VALID_FORMAT_MESSAGE + NOT_VALID_MESSAGE
+                    + String.format(MESSAGE_FORMAT, "B", 1));
+            BufferedReader reader = reader(socket);
+
+            assertEquals("OK ACCEPTED", reader.readLine());
+            assertEquals("ERR NOT_VALID_MESSAGE_FORMAT", reader.readLine());
+            assertEquals("ERR NOT_VALID_QUANTITY", reader.readLine());
+            assertEquals("OK ACCEPTED", reader.readLine());
+        }
+        assertEquals(2, queue.count());
+        assertEquals(2, server.getAcceptedCount());
+        assertEquals(2, server.getRejectedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldRejectLineLongerThanBuffer() throws IOException {
+        startServer(new ConcurrentInstructionMessageQueue(), 128);
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longLine.append('x');
+        }
+        try (Socket socket = connect()) {
+            send(socket, longLine + "\n" + MESSAGE);
+            BufferedReader reader = reader(socket);
+
+            assertEquals("ERR LINE_TOO_LONG", reader.readLine());
+            assertEquals("OK ACCEPTED", reader.readLine());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldRejectUnterminatedLastLineAndCloseConnection() throws IOException {
+        startServer(new ConcurrentInstructionMessageQueue(), 1024);
+        try (Socket socket = connect()) {
+            send(socket, MESSAGE + UNTERMINATED_MESSAGE);
+            socket.shutdownOutput();
+            BufferedReader reader = reader(socket);
+
+            assertEquals("OK ACCEPTED", reader.readLine());
+            assertEquals("ERR NOT_VALID_MESSAGE_FORMAT", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldAnswerRejectedWhenQueueIsFull() throws IOException {
+        startServer(new BoundedInstructionMessageQueue(1, OverflowPolicy.REJECT), 1024);
+        try (Socket socket = connect()) {
+            send(socket, MESSAGE + String.format(MESSAGE_FORMAT, "A", 1));
+            BufferedReader reader = reader(socket);
+
+            assertEquals("OK ACCEPTED", reader.readLine());
+            assertEquals("ERR REJECTED", reader.readLine());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void shouldServeManyPipeliningClients() throws Exception {
+        Queue<InstructionMessage> queue = startServer(new ConcurrentInstructionMessageQueue(), 256);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS * 2);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                Socket socket = connect();
+                executor.submit(() -> {
+                    OutputStream output = socket.getOutputStream();
+                    for (int j = 0; j < MESSAGES_PER_CLIENT; j++) {
+                        output.write(String.format(MESSAGE_FORMAT, "ABCD".charAt(j % 4), j + 1)
+                                .getBytes(StandardCharsets.US_ASCII));
+                    }
+                    output.flush();
+                    return null;
+                });
+                results.add(executor.submit(() -> {
+                    try (Socket client = socket) {
+                        BufferedReader reader = reader(client);
+                        int accepted = 0;
+                        for (int j = 0; j < MESSAGES_PER_CLIENT; j++) {
+                            if ("OK ACCEPTED".equals(reader.readLine())) {
+                                accepted++;
+                            }
+                        }
+                        return accepted;
+                    }
+                }));
+            }
+
+            for (Future<Integer> result : results) {
+                assertEquals(Integer.valueOf(MESSAGES_PER_CLIENT), result.get());
+            }
+            assertEquals(CLIENTS * MESSAGES_PER_CLIENT, queue.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldKeepServingWhenClientsResetRightAfterConnecting() throws Exception {
+        startServer(new ConcurrentInstructionMessageQueue(), 1024);
+        for (int i = 0; i < CLIENTS; i++) {
+            Socket socket = connect();
+            socket.setSoLinger(true, 0);
+            socket.close();
+        }
+        try (Socket socket = connect()) {
+            send(socket, MESSAGE);
+
+            assertEquals("OK ACCEPTED", reader(socket).readLine());
+        }
+
+        server.close();
+        assertEquals(0, server.getConnectionCount());
+        server = null;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireBufferForLongestAnswer() {
+        new InstructionMessageServer(new InetSocketAddress(0), new ScanningInstructionMessageParser(),
+                null, 16, 0);
+    }
+
+    private Queue<InstructionMessage> startServer(Queue<InstructionMessage> queue, int bufferSize) {
+        InstructionMessageReceiver receiver = new InstructionMessageReceiver(new ScanningInstructionMessageParser(),
+                new InstructionMessageValidator(), queue);
+        server = new InstructionMessageServer(new InetSocketAddress("127.0.0.1", 0),
+                new ScanningInstructionMessageParser(), receiver, bufferSize, 4);
+        return queue;
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(server.getLocalAddress().getAddress(), server.getLocalAddress().getPort());
+    }
+
+    private void send(Socket socket, String data) throws IOException {
+        socket.getOutputStream().write(data.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+}
@@ -0,0 +1,45 @@
+package ua.company.myroniuk.time;
+
+import org.junit.Test;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoarseClockTest {
+
+    @Test
+    public void shouldReadSystemClockWhenToleranceIsZero() {
+        CoarseClock clock = CoarseClock.exact();
+        LocalDateTime before = LocalDateTime.now();
+
+        LocalDateTime now = clock.now();
+
+        assertFalse(now.isBefore(before));
+        assertFalse(now.isAfter(LocalDateTime.now()));
+        assertEquals(clock.now().truncatedTo(ChronoUnit.DAYS), clock.latest().truncatedTo(ChronoUnit.DAYS));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldLagSystemClockByAtMostTolerance() throws InterruptedException {
+        try (CoarseClock clock = new CoarseClock(20, TimeUnit.MILLISECONDS)) {
+            LocalDateTime first = clock.now();
+            for (int i = 0; i < 10; i++) {
+                LocalDateTime systemNow = LocalDateTime.now();
+                assertFalse(clock.now().isAfter(systemNow));
+                assertTrue(clock.latestMillis() >= systemNow.toInstant(ZoneOffset.UTC).toEpochMilli() - 20);
+                Thread.sleep(10);
+            }
+            assertTrue(clock.now().isAfter(first));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeTolerance() {
+        new CoarseClock(-1, TimeUnit.MILLISECONDS);
+    }
+
+}
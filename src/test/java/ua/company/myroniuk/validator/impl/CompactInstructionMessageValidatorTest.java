@@ -0,0 +1,127 @@
+package ua.company.myroniuk.validator.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.message.CompactInstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.message.MutableInstructionMessage;
+import ua.company.myroniuk.result.ErrorCode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactInstructionMessageValidatorTest {
+
+    private static final String VALID_PRODUCT_CODE = "MZ89";
+
+    private static final long VALID_TIMESTAMP =
+            CompactInstructionMessage.toEpochMilli(LocalDateTime.of(2015, 3, 5, 10, 4, 56, 12_000_000));
+
+    private static final long FIRST_INVALID_TIMESTAMP = CompactInstructionMessage.toEpochMilli(
+            LocalDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault()));
+
+    private static final long MIN_VALID_TIMESTAMP = FIRST_INVALID_TIMESTAMP + 1;
+
+    private static final long SECOND_INVALID_TIMESTAMP =
+            CompactInstructionMessage.toEpochMilli(LocalDateTime.now().plusMinutes(1));
+
+    private static final String NOT_VALID_PRODUCT_CODE_MESSAGE =
+            "Product code is not valid. Expected value: two uppercase letters followed by two digits.";
+
+    private static final String NOT_VALID_QUANTITY_MESSAGE =
+            "Quantity is not valid. Expected value: positive integer number.";
+
+    private static final String NOT_VALID_UOM_MESSAGE =
+            "Uom is not valid. Expected value: integer number between 0 and 255 inclusively.";
+
+    private static final String NOT_VALID_TIMESTAMP_MESSAGE =
+            "Timestamp is not valid. Expected value: timestamp being greater than unix epoch " +
+                    "and less or equal than current data time.";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private CompactInstructionMessageValidator validator;
+
+    private MutableInstructionMessage mutableInstructionMessage;
+
+    @Before
+    public void init() {
+        validator = new CompactInstructionMessageValidator();
+        mutableInstructionMessage = new MutableInstructionMessage();
+        mutableInstructionMessage.setInstructionType(InstructionType.A);
+        mutableInstructionMessage.setProductCode(VALID_PRODUCT_CODE);
+        mutableInstructionMessage.setQuantity(1);
+        mutableInstructionMessage.setUom(0);
+        mutableInstructionMessage.setTimestamp(VALID_TIMESTAMP);
+    }
+
+    @Test
+    public void shouldValidateInstructionMessage() {
+        validator.validate(create(VALID_PRODUCT_CODE, 1, 255, MIN_VALID_TIMESTAMP));
+        validator.validate(mutableInstructionMessage);
+    }
+
+    @Test
+    public void shouldFailWhenProductCodeIsInvalid() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_PRODUCT_CODE_MESSAGE);
+        validator.validate(create("MZ8A", 1, 0, VALID_TIMESTAMP));
+    }
+
+    @Test
+    public void shouldFailWhenProductCodeOfMutableMessageIsTooLong() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_PRODUCT_CODE_MESSAGE);
+        mutableInstructionMessage.setProductCode("MZ890");
+        validator.validate(mutableInstructionMessage);
+    }
+
+    @Test
+    public void shouldFailWhenQuantityIsInvalid() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_QUANTITY_MESSAGE);
+        validator.validate(create(VALID_PRODUCT_CODE, 0, 0, VALID_TIMESTAMP));
+    }
+
+    @Test
+    public void shouldFailWhenUomIsInvalid() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_UOM_MESSAGE);
+        validator.validate(create(VALID_PRODUCT_CODE, 1, 256, VALID_TIMESTAMP));
+    }
+
+    @Test
+    public void shouldFailWithFirstInvalidTimestamp() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_TIMESTAMP_MESSAGE);
+        validator.validate(create(VALID_PRODUCT_CODE, 1, 0, FIRST_INVALID_TIMESTAMP));
+    }
+
+    @Test
+    public void shouldFailWithSecondInvalidTimestamp() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(NOT_VALID_TIMESTAMP_MESSAGE);
+        mutableInstructionMessage.setTimestamp(SECOND_INVALID_TIMESTAMP);
+        validator.validate(mutableInstructionMessage);
+    }
+
+    private CompactInstructionMessage create(String productCode, int quantity, int uom, long timestamp) {
+        return new CompactInstructionMessage(InstructionType.A, productCode, quantity, uom, timestamp);
+    }
+
+    @Test
+    public void shouldReturnErrorCodeInsteadOfThrowing() {
+        assertTrue(validator.tryValidate(mutableInstructionMessage).isSuccess());
+        assertEquals(ErrorCode.NOT_VALID_QUANTITY,
+                validator.tryValidate(create(VALID_PRODUCT_CODE, 0, 0, VALID_TIMESTAMP)).getErrorCode());
+        mutableInstructionMessage.setProductCode("MZ890");
+        assertEquals(ErrorCode.NOT_VALID_PRODUCT_CODE, validator.tryValidate(mutableInstructionMessage).getErrorCode());
+    }
+
+}
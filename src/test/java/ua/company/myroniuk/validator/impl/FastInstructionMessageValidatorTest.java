@@ -0,0 +1,82 @@
+package ua.company.myroniuk.validator.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.company.myroniuk.message.InstructionMessage;
+import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.result.Result;
+import ua.company.myroniuk.time.CoarseClock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FastInstructionMessageValidatorTest {
+
+    private static final String[] PRODUCT_CODES = {"MZ89", "89MZ", "ABCD", "1234", "MZ8", "MZ890", "mz89", "MZ8a", ""};
+
+    private static final int[] QUANTITIES = {-1, 0, 1, 5678};
+
+    private static final int[] UOMS = {-1, 0, 50, 255, 256};
+
+    private static final LocalDateTime UNIX_EPOCH = LocalDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault());
+
+    private static final LocalDateTime[] TIMESTAMPS = {UNIX_EPOCH.minusNanos(1), UNIX_EPOCH, UNIX_EPOCH.plusNanos(1),
+            LocalDateTime.now().minusYears(1), LocalDateTime.now().plusDays(1)};
+
+    private InstructionMessageValidator validator;
+
+    private FastInstructionMessageValidator fastValidator;
+
+    @Before
+    public void init() {
+        validator = new InstructionMessageValidator();
+        fastValidator = new FastInstructionMessageValidator(CoarseClock.exact());
+    }
+
+    @Test
+    public void shouldReportSameErrorsAsInstructionMessageValidator() {
+        for (String productCode : PRODUCT_CODES) {
+            for (int quantity : QUANTITIES) {
+                for (int uom : UOMS) {
+                    for (LocalDateTime timestamp : TIMESTAMPS) {
+                        InstructionMessage message = createInstructionMessage(productCode, quantity, uom, timestamp);
+                        Result<Void> expected = validator.tryValidate(message);
+                        Result<Void> actual = fastValidator.tryValidate(message);
+                        assertEquals(productCode + " " + quantity + " " + uom + " " + timestamp,
+                                expected.getErrorCode(), actual.getErrorCode());
+                        assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldAcceptTimestampsWithinToleranceOfCoarseClock() {
+        try (CoarseClock clock = new CoarseClock(1, TimeUnit.HOURS)) {
+            FastInstructionMessageValidator coarseValidator = new FastInstructionMessageValidator(clock);
+
+            assertTrue(coarseValidator.tryValidate(
+                    createInstructionMessage("MZ89", 1, 0, LocalDateTime.now().plusMinutes(30))).isSuccess());
+            assertEquals(validator.tryValidate(
+                    createInstructionMessage("MZ89", 1, 0, LocalDateTime.now().plusHours(2))).getErrorCode(),
+                    coarseValidator.tryValidate(
+                            createInstructionMessage("MZ89", 1, 0, LocalDateTime.now().plusHours(2))).getErrorCode());
+        }
+    }
+
+    private InstructionMessage createInstructionMessage(String productCode, int quantity, int uom,
+                                                        LocalDateTime timestamp) {
+        InstructionMessage message = new InstructionMessage();
+        message.setInstructionType(InstructionType.A);
+        message.setProductCode(productCode);
+        message.setQuantity(quantity);
+        message.setUom(uom);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+}
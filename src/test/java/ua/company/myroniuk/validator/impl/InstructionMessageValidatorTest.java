@@ -7,9 +7,15 @@ import org.junit.rules.ExpectedException;
 import ua.company.myroniuk.exception.InstructionMessageValidationException;
 import ua.company.myroniuk.message.InstructionMessage;
 import ua.company.myroniuk.message.InstructionType;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.result.Result;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class InstructionMessageValidatorTest {
 
@@ -179,4 +185,31 @@ public class InstructionMessageValidatorTest {
         validator.validate(instructionMessage);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReturnSuccessWhenTryValidateValidInstructionMessage() {
+        assertTrue(validator.tryValidate(instructionMessage).isSuccess());
+    }
+
+    @Test
+    public void shouldReturnErrorCodeInsteadOfThrowing() {
+        instructionMessage.setUom(SECOND_INVALID_UOM);
+
+        Result<Void> result = validator.tryValidate(instructionMessage);
+
+        assertEquals(ErrorCode.NOT_VALID_UOM, result.getErrorCode());
+        assertEquals(String.format(NOT_VALID_UOM_MESSAGE, MIN_VALID_UOM, MAX_VALID_UOM), result.getErrorMessage());
+        assertSame(result, validator.tryValidate(instructionMessage));
+    }
+
+    @Test
+    public void shouldCarryErrorCodeInException() {
+        instructionMessage.setTimestamp(SECOND_INVALID_TIMESTAMP);
+        try {
+            validator.validate(instructionMessage);
+            fail();
+        } catch (InstructionMessageValidationException e) {
+            assertEquals(ErrorCode.NOT_VALID_TIMESTAMP, e.getErrorCode());
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package ua.company.myroniuk.validator.impl;
+
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ua.company.myroniuk.exception.InstructionMessageValidationException;
+import ua.company.myroniuk.result.ErrorCode;
+import ua.company.myroniuk.validator.Rule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RuleChainValidatorTest {
+
+    @org.junit.Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void shouldRunCheaperRulesFirst() {
+        RuleChainValidator<Integer> validator = RuleChainValidator.of(
+                rule("expensive", 10, null), rule("cheap", 1, null), rule("also cheap", 1, null));
+
+        validator.validate(1);
+
+        assertEquals(Arrays.asList("cheap", "also cheap", "expensive"), calls);
+    }
+
+    @Test
+    public void shouldStopAtFirstViolation() {
+        RuleChainValidator<Integer> validator = RuleChainValidator.of(
+                rule("quantity", 1, ErrorCode.NOT_VALID_QUANTITY), rule("uom", 2, ErrorCode.NOT_VALID_UOM));
+
+        assertEquals(ErrorCode.NOT_VALID_QUANTITY, validator.tryValidate(1).getErrorCode());
+        assertEquals(Arrays.asList("quantity"), calls);
+    }
+
+    @Test
+    public void shouldThrowValidationExceptionWithMessageOfErrorCode() {
+        expectedException.expect(InstructionMessageValidationException.class);
+        expectedException.expectMessage(ErrorCode.NOT_VALID_UOM.getMessage());
+        RuleChainValidator.of(rule("uom", 0, ErrorCode.NOT_VALID_UOM)).validate(1);
+    }
+
+    @Test
+    public void shouldComposeChainsWithoutChangingOriginal() {
+        RuleChainValidator<Integer> validator = RuleChainValidator.of(rule("quantity", 1, null));
+
+        RuleChainValidator<Integer> extended = validator.and(rule("uom", 0, ErrorCode.NOT_VALID_UOM));
+
+        assertTrue(validator.tryValidate(1).isSuccess());
+        assertEquals(ErrorCode.NOT_VALID_UOM, extended.tryValidate(1).getErrorCode());
+        assertEquals(2, extended.getRules().size());
+    }
+
+    private Rule<Integer> rule(String name, int cost, ErrorCode errorCode) {
+        return new Rule<Integer>() {
+
+            @Override
+            public ErrorCode check(Integer value) {
+                calls.add(name);
+                return errorCode;
+            }
+
+            @Override
+            public int cost() {
+                return cost;
+            }
+
+        };
+    }
+
+}